@@ -0,0 +1,34 @@
+package com.apigateway.filter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+// one stored response; headers are read-only and exclude anything hop-by-hop or recomputed on each write
+record CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body, List<String> vary, Instant storedAt,
+                      Duration ttl, Duration staleWhileRevalidate) {
+
+    String etag() {
+        return headers.getETag();
+    }
+
+    // what counts against the cache size, the body plus a rough figure for the headers
+    long size() {
+        long size = body.length;
+        for (var header : headers.entrySet()) {
+            size += header.getKey().length();
+            for (String value : header.getValue()) {
+                size += value.length();
+            }
+        }
+        return size;
+    }
+
+    // the same response confirmed unchanged by the backend, fresh for ttl from now
+    CachedResponse refreshed(Instant now, Duration ttl) {
+        return new CachedResponse(status, headers, body, vary, now, ttl, staleWhileRevalidate);
+    }
+}
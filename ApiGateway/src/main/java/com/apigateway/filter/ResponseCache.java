@@ -0,0 +1,98 @@
+package com.apigateway.filter;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Responses of one route, bounded by size and evicted least recently used
+ * first. Entries are grouped by path and query; within a group the request
+ * headers named by the backend's Vary select the variant. A group is used
+ * and evicted as a whole, so the Vary names of a path are never kept
+ * without the responses they describe.
+ */
+final class ResponseCache {
+
+    private final long maxBytes;
+
+    // access order, the eldest group is the least recently used
+    private final LinkedHashMap<String, Variants> groups = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long bytes;
+
+    ResponseCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    private static final class Variants {
+
+        final List<String> vary;
+
+        final Map<String, CachedResponse> byHeaderValues = new HashMap<>();
+
+        long bytes;
+
+        Variants(List<String> vary) {
+            this.vary = vary;
+        }
+    }
+
+    synchronized CachedResponse get(String key, HttpHeaders requestHeaders) {
+        Variants variants = groups.get(key);
+        return variants == null ? null : variants.byHeaderValues.get(variantKey(variants.vary, requestHeaders));
+    }
+
+    synchronized void put(String key, HttpHeaders requestHeaders, CachedResponse response) {
+        Variants variants = groups.get(key);
+        if (variants == null || !variants.vary.equals(response.vary())) {
+            // the backend changed what it varies on, variants stored under the old names cannot be matched any more
+            if (variants != null) {
+                bytes -= variants.bytes;
+            }
+            variants = new Variants(response.vary());
+            groups.put(key, variants);
+        }
+        CachedResponse previous = variants.byHeaderValues.put(variantKey(response.vary(), requestHeaders), response);
+        long delta = response.size() - (previous == null ? 0 : previous.size());
+        variants.bytes += delta;
+        bytes += delta;
+        evict();
+    }
+
+    // every variant of the path
+    synchronized void remove(String key) {
+        Variants variants = groups.remove(key);
+        if (variants != null) {
+            bytes -= variants.bytes;
+        }
+    }
+
+    synchronized long bytes() {
+        return bytes;
+    }
+
+    private void evict() {
+        Iterator<Variants> eldestFirst = groups.values().iterator();
+        while (bytes > maxBytes && eldestFirst.hasNext()) {
+            bytes -= eldestFirst.next().bytes;
+            eldestFirst.remove();
+        }
+    }
+
+    // values of the request headers the response varies on, in the order of the sorted names
+    static String variantKey(List<String> vary, HttpHeaders requestHeaders) {
+        if (vary.isEmpty()) {
+            return "";
+        }
+        StringBuilder key = new StringBuilder();
+        for (String name : vary) {
+            List<String> values = requestHeaders.get(name);
+            key.append(name).append('=').append(values == null ? "" : String.join(",", values)).append('\n');
+        }
+        return key.toString();
+    }
+}
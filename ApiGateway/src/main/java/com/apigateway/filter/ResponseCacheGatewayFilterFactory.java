@@ -0,0 +1,440 @@
+package com.apigateway.filter;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Caches GET responses of a route in memory, for example
+ * {@code filters: - ResponseCache=10s,30s,16MB} on the flight-service route.
+ *
+ * <ul>
+ * <li>A response is fresh for the backend's {@code s-maxage} or
+ * {@code max-age}, or for {@code ttl} when it sends neither. For the
+ * backend's {@code stale-while-revalidate}, or the route's
+ * {@code staleWhileRevalidate}, after that it is still served at once while
+ * one background request refreshes it; {@code must-revalidate} turns that
+ * off.</li>
+ * <li>The cache of each route holds up to {@code maxSize} bytes and evicts
+ * the least recently used path first.</li>
+ * <li>Only 200 responses without Set-Cookie, {@code no-store},
+ * {@code no-cache}, {@code private} or {@code Vary: *} are stored, and
+ * never NDJSON or event streams, which are written through as they arrive.
+ * Requests carrying Authorization, or sent with {@code no-store}, pass
+ * through.</li>
+ * <li>Variants are keyed by the request headers named in Vary.</li>
+ * <li>A matching If-None-Match or If-Modified-Since gets a 304 from the
+ * cache. Paths the cache has never stored a response for send the client's
+ * conditions on to the backend. Refreshes send the stored ETag, so an
+ * unchanged resource costs the backend a 304.</li>
+ * </ul>
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    private static final Logger log = LoggerFactory.getLogger(ResponseCacheGatewayFilterFactory.class);
+
+    static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    static final String HIT = "HIT";
+
+    static final String STALE = "STALE";
+
+    static final String MISS = "MISS";
+
+    // never stored, they describe one connection or are set again on every write
+    private static final Set<String> NOT_STORED = Set.of(
+            "connection", "keep-alive", "transfer-encoding", "te", "trailer", "upgrade",
+            "proxy-authenticate", "proxy-authorization", "content-length", "age", "date",
+            CACHE_STATUS_HEADER.toLowerCase(Locale.ROOT));
+
+    // open ended bodies the client reads as they arrive, holding them back to store them would stall it
+    private static final List<MediaType> STREAMING = List.of(MediaType.APPLICATION_NDJSON, MediaType.TEXT_EVENT_STREAM);
+
+    private final Clock clock;
+
+    public ResponseCacheGatewayFilterFactory() {
+        this(Clock.systemUTC());
+    }
+
+    ResponseCacheGatewayFilterFactory(Clock clock) {
+        super(Config.class);
+        this.clock = clock;
+    }
+
+    public static class Config {
+
+        private Duration ttl = Duration.ofSeconds(10);
+
+        private Duration staleWhileRevalidate = Duration.ofSeconds(30);
+
+        private DataSize maxSize = DataSize.ofMegabytes(16);
+
+        // larger responses, getAllFlights without paging for one, are passed through
+        private DataSize maxEntrySize = DataSize.ofMegabytes(1);
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public Duration getStaleWhileRevalidate() {
+            return staleWhileRevalidate;
+        }
+
+        public void setStaleWhileRevalidate(Duration staleWhileRevalidate) {
+            this.staleWhileRevalidate = staleWhileRevalidate;
+        }
+
+        public DataSize getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(DataSize maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public DataSize getMaxEntrySize() {
+            return maxEntrySize;
+        }
+
+        public void setMaxEntrySize(DataSize maxEntrySize) {
+            this.maxEntrySize = maxEntrySize;
+        }
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("ttl", "staleWhileRevalidate", "maxSize");
+    }
+
+    // one cache per route; ordered before NettyWriteResponseFilter so the body it writes passes the decorator
+    @Override
+    public GatewayFilter apply(Config config) {
+        ResponseCache cache = new ResponseCache(config.getMaxSize().toBytes());
+        Set<String> revalidating = ConcurrentHashMap.newKeySet();
+        return new OrderedGatewayFilter(
+                (exchange, chain) -> filter(exchange, chain, config, cache, revalidating),
+                NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain, Config config,
+                              ResponseCache cache, Set<String> revalidating) {
+        ServerHttpRequest request = exchange.getRequest();
+        HttpHeaders requestHeaders = request.getHeaders();
+        if (request.getMethod() != HttpMethod.GET || requestHeaders.containsKey(HttpHeaders.AUTHORIZATION)
+                || hasDirective(requestHeaders, "no-store")) {
+            return chain.filter(exchange);
+        }
+
+        String key = request.getURI().getRawPath()
+                + (request.getURI().getRawQuery() == null ? "" : "?" + request.getURI().getRawQuery());
+        // no-cache from the client skips the lookup, the fresh response is still stored
+        CachedResponse cached = hasDirective(requestHeaders, "no-cache") ? null : cache.get(key, requestHeaders);
+        if (cached != null) {
+            Duration age = Duration.between(cached.storedAt(), clock.instant());
+            if (age.compareTo(cached.ttl()) < 0) {
+                return writeCached(exchange, cached, age, HIT);
+            }
+            if (age.compareTo(cached.ttl().plus(cached.staleWhileRevalidate())) < 0) {
+                revalidate(exchange, chain, config, cache, revalidating, key, cached);
+                return writeCached(exchange, cached, age, STALE);
+            }
+        }
+        // a path stored before will most likely be stored again, so the gateway can answer the conditions itself
+        return fetch(exchange, chain, config, cache, key, cached != null);
+    }
+
+    // with answerConditions the backend is asked without the client's conditions, so a full response comes back
+    // that can be stored; otherwise they go through and the backend answers them without sending the body
+    private Mono<Void> fetch(ServerWebExchange exchange, GatewayFilterChain chain, Config config,
+                             ResponseCache cache, String key, boolean answerConditions) {
+        HttpHeaders requestHeaders = exchange.getRequest().getHeaders();
+        ServerHttpRequest upstream = answerConditions
+                ? upstreamRequest(exchange.getRequest(), null, true)
+                : exchange.getRequest();
+        long maxEntrySize = config.getMaxEntrySize().toBytes();
+
+        ServerHttpResponse response = new ServerHttpResponseDecorator(exchange.getResponse()) {
+
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                if (!isCacheable(getStatusCode(), getHeaders(), config)) {
+                    return writeUnstored(body);
+                }
+                // without a Content-Length the size is only known as the body comes in; it is held until it ends
+                // or passes maxEntrySize, and from there on written through without being stored
+                AtomicLong size = new AtomicLong();
+                return Flux.from(body)
+                        .bufferUntil(buffer -> size.addAndGet(buffer.readableByteCount()) > maxEntrySize)
+                        .switchOnFirst((first, parts) -> size.get() > maxEntrySize
+                                ? writeUnstored(parts.concatMapIterable(Function.identity()))
+                                : DataBufferUtils.join(parts.concatMapIterable(Function.identity()))
+                                        .map(ResponseCacheGatewayFilterFactory::toBytes)
+                                        .defaultIfEmpty(new byte[0])
+                                        .flatMap(this::store))
+                        .then();
+            }
+
+            private Mono<Void> store(byte[] bytes) {
+                getHeaders().set(CACHE_STATUS_HEADER, MISS);
+                cache.put(key, requestHeaders, toCached(getStatusCode(), getHeaders(), bytes, clock.instant(), config));
+                if (isNotModified(requestHeaders, getHeaders())) {
+                    return notModified(getDelegate());
+                }
+                return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+            }
+
+            // the path stopped being storable; its next requests send their conditions to the backend again
+            private Mono<Void> writeUnstored(Publisher<? extends DataBuffer> body) {
+                if (!answerConditions) {
+                    return super.writeWith(body);
+                }
+                cache.remove(key);
+                if (!isStreaming(getHeaders()) && isNotModified(requestHeaders, getHeaders())) {
+                    return Flux.from(body).doOnNext(DataBufferUtils::release).then(notModified(getDelegate()));
+                }
+                return super.writeWith(body);
+            }
+        };
+        return chain.filter(exchange.mutate().request(upstream).response(response).build());
+    }
+
+    // one refresh per stale entry at a time, without the request body since the client's request is over
+    private void revalidate(ServerWebExchange exchange, GatewayFilterChain chain, Config config,
+                            ResponseCache cache, Set<String> revalidating, String key, CachedResponse cached) {
+        HttpHeaders requestHeaders = exchange.getRequest().getHeaders();
+        String inFlight = key + '\n' + ResponseCache.variantKey(cached.vary(), requestHeaders);
+        if (!revalidating.add(inFlight)) {
+            return;
+        }
+        ServerHttpRequest upstream = upstreamRequest(exchange.getRequest(), cached.etag(), false);
+        CapturingResponse response = new CapturingResponse(exchange.getResponse().bufferFactory());
+
+        chain.filter(exchange.mutate().request(upstream).response(response).build())
+                .then(Mono.fromRunnable(() -> {
+                    HttpStatusCode status = response.getStatusCode();
+                    if (status != null && status.value() == HttpStatus.NOT_MODIFIED.value()) {
+                        cache.put(key, requestHeaders, cached.refreshed(clock.instant(),
+                                freshness(response.getHeaders(), cached.ttl())));
+                    } else if (isCacheable(status, response.getHeaders(), config)
+                            && response.body().length <= config.getMaxEntrySize().toBytes()) {
+                        cache.put(key, requestHeaders,
+                                toCached(status, response.getHeaders(), response.body(), clock.instant(), config));
+                    }
+                    // anything else leaves the stale copy to expire
+                }))
+                .doFinally(signal -> revalidating.remove(inFlight))
+                .subscribe(null, ex -> log.warn("Revalidating {} failed, serving the stale copy until it expires",
+                        key, ex));
+    }
+
+    // the client's request with its conditions replaced; a copy, since mutate() edits the original headers in place
+    private static ServerHttpRequest upstreamRequest(ServerHttpRequest request, String ifNoneMatch, boolean withBody) {
+        HttpHeaders copy = new HttpHeaders();
+        copy.putAll(request.getHeaders());
+        copy.remove(HttpHeaders.IF_NONE_MATCH);
+        copy.remove(HttpHeaders.IF_MODIFIED_SINCE);
+        if (ifNoneMatch != null) {
+            copy.setIfNoneMatch(ifNoneMatch);
+        }
+        HttpHeaders headers = HttpHeaders.readOnlyHttpHeaders(copy);
+        return new ServerHttpRequestDecorator(request) {
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+
+            @Override
+            public Flux<DataBuffer> getBody() {
+                return withBody ? super.getBody() : Flux.empty();
+            }
+        };
+    }
+
+    private static Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached, Duration age,
+                                          String cacheStatus) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.putAll(cached.headers());
+        headers.set(HttpHeaders.AGE, Long.toString(age.toSeconds()));
+        headers.set(CACHE_STATUS_HEADER, cacheStatus);
+        if (isNotModified(exchange.getRequest().getHeaders(), cached.headers())) {
+            return notModified(response);
+        }
+        response.setStatusCode(cached.status());
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private static Mono<Void> notModified(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.NOT_MODIFIED);
+        response.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+        return response.setComplete();
+    }
+
+    private static boolean isCacheable(HttpStatusCode status, HttpHeaders headers, Config config) {
+        if (status == null || status.value() != HttpStatus.OK.value() || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return false;
+        }
+        if (hasDirective(headers, "no-store") || hasDirective(headers, "no-cache") || hasDirective(headers, "private")) {
+            return false;
+        }
+        if (vary(headers).contains("*") || isStreaming(headers)) {
+            return false;
+        }
+        return headers.getContentLength() <= config.getMaxEntrySize().toBytes();
+    }
+
+    private static boolean isStreaming(HttpHeaders headers) {
+        MediaType contentType = headers.getContentType();
+        return contentType != null && STREAMING.stream().anyMatch(contentType::isCompatibleWith);
+    }
+
+    // an Age from the backend counts as time already spent in the cache
+    private static CachedResponse toCached(HttpStatusCode status, HttpHeaders responseHeaders, byte[] body,
+                                           Instant now, Config config) {
+        HttpHeaders stored = new HttpHeaders();
+        responseHeaders.forEach((name, values) -> {
+            if (!NOT_STORED.contains(name.toLowerCase(Locale.ROOT))) {
+                stored.put(name, List.copyOf(values));
+            }
+        });
+        Long age = seconds(responseHeaders.getFirst(HttpHeaders.AGE));
+        return new CachedResponse(status, HttpHeaders.readOnlyHttpHeaders(stored), body, vary(responseHeaders),
+                age == null ? now : now.minusSeconds(age), freshness(responseHeaders, config.getTtl()),
+                staleWindow(responseHeaders, config.getStaleWhileRevalidate()));
+    }
+
+    // s-maxage, which is meant for shared caches like this one, then max-age, then the route's default
+    private static Duration freshness(HttpHeaders headers, Duration fallback) {
+        Long seconds = directiveSeconds(headers, "s-maxage");
+        if (seconds == null) {
+            seconds = directiveSeconds(headers, "max-age");
+        }
+        return seconds == null ? fallback : Duration.ofSeconds(seconds);
+    }
+
+    private static Duration staleWindow(HttpHeaders headers, Duration fallback) {
+        if (hasDirective(headers, "must-revalidate") || hasDirective(headers, "proxy-revalidate")) {
+            return Duration.ZERO;
+        }
+        Long seconds = directiveSeconds(headers, "stale-while-revalidate");
+        return seconds == null ? fallback : Duration.ofSeconds(seconds);
+    }
+
+    // If-None-Match takes precedence, If-Modified-Since only counts without it
+    private static boolean isNotModified(HttpHeaders requestHeaders, HttpHeaders responseHeaders) {
+        String ifNoneMatch = requestHeaders.getFirst(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return etagMatches(ifNoneMatch, responseHeaders.getETag());
+        }
+        long ifModifiedSince = requestHeaders.getIfModifiedSince();
+        long lastModified = responseHeaders.getLastModified();
+        return ifModifiedSince >= 0 && lastModified >= 0 && lastModified <= ifModifiedSince;
+    }
+
+    // header names from Vary, lower case, sorted and without repeats
+    private static List<String> vary(HttpHeaders headers) {
+        return headers.getOrEmpty(HttpHeaders.VARY).stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .map(name -> name.trim().toLowerCase(Locale.ROOT))
+                .filter(name -> !name.isEmpty())
+                .distinct()
+                .sorted()
+                .toList();
+    }
+
+    private static boolean hasDirective(HttpHeaders headers, String directive) {
+        return directives(headers).anyMatch(value -> value.equals(directive) || value.startsWith(directive + "="));
+    }
+
+    // the delta-seconds of a directive such as max-age=60, null when it is absent or malformed
+    private static Long directiveSeconds(HttpHeaders headers, String directive) {
+        return directives(headers)
+                .filter(value -> value.startsWith(directive + "="))
+                .map(value -> seconds(value.substring(directive.length() + 1).replace("\"", "")))
+                .filter(seconds -> seconds != null)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static Stream<String> directives(HttpHeaders headers) {
+        return headers.getOrEmpty(HttpHeaders.CACHE_CONTROL).stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .map(value -> value.trim().toLowerCase(Locale.ROOT));
+    }
+
+    private static Long seconds(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            long seconds = Long.parseLong(value.trim());
+            return seconds < 0 ? null : seconds;
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    // weak comparison as If-None-Match requires, W/"x" matches "x"
+    static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        String opaque = stripWeak(etag);
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .anyMatch(candidate -> candidate.equals("*") || stripWeak(candidate).equals(opaque));
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static byte[] toBytes(DataBuffer buffer) {
+        byte[] bytes = new byte[buffer.readableByteCount()];
+        buffer.read(bytes);
+        DataBufferUtils.release(buffer);
+        return bytes;
+    }
+}
@@ -3,7 +3,10 @@ package com.apigateway;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 @SpringBootTest(
@@ -16,7 +19,11 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 	            "spring.main.web-application-type=reactive",
 	            "spring.cloud.gateway.routes[0].id=dummy",
 	            "spring.cloud.gateway.routes[0].uri=http://example.org",
-	            "spring.cloud.gateway.routes[0].predicates[0]=Path=/dummy/**"
+	            "spring.cloud.gateway.routes[0].predicates[0]=Path=/dummy/**",
+	            "spring.cloud.gateway.routes[1].id=cached",
+	            "spring.cloud.gateway.routes[1].uri=http://example.org",
+	            "spring.cloud.gateway.routes[1].predicates[0]=Path=/cached/**",
+	            "spring.cloud.gateway.routes[1].filters[0]=ResponseCache=10s,30s,16MB"
 	    }
 	)
 	class GatewayRouteTest {
@@ -24,11 +31,23 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 	    @Autowired
 	    WebTestClient webTestClient;
 
+	    @Autowired
+	    RouteLocator routeLocator;
+
 	    @Test
 	    void contextLoads() {
 	        assertNotNull(webTestClient);
 	    }
 
+	    @Test
+	    void responseCacheFilterBindsFromShortcut() {
+	        Route route = routeLocator.getRoutes()
+	                .filter(r -> r.getId().equals("cached"))
+	                .blockFirst();
+	        assertNotNull(route);
+	        assertFalse(route.getFilters().isEmpty());
+	    }
+
 	    @Test
 	    void flightRouteMatched() {
 	        webTestClient.get()
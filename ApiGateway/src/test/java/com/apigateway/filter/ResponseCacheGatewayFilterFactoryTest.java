@@ -0,0 +1,402 @@
+package com.apigateway.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+class ResponseCacheGatewayFilterFactoryTest {
+
+    private final MutableClock clock = new MutableClock();
+
+    private final List<String> upstreamCalls = new ArrayList<>();
+
+    private String version;
+
+    private Consumer<HttpHeaders> upstreamHeaders;
+
+    private GatewayFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        version = "v1";
+        upstreamHeaders = headers -> { };
+        filter = filter(DataSize.ofMegabytes(1));
+    }
+
+    @Test
+    void repeatedGetWithinTtlIsServedFromCache() {
+        MockServerWebExchange first = get("/api/flight/getAllAirlines");
+        MockServerWebExchange second = get("/api/flight/getAllAirlines");
+        clock.advance(Duration.ofSeconds(5));
+
+        run(first);
+        run(second);
+
+        assertEquals(1, upstreamCalls.size());
+        assertEquals("MISS", first.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("HIT", second.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("body v1 of /api/flight/getAllAirlines", second.getResponse().getBodyAsString().block());
+        assertEquals("\"v1\"", second.getResponse().getHeaders().getETag());
+        assertEquals(MediaType.APPLICATION_JSON, second.getResponse().getHeaders().getContentType());
+    }
+
+    @Test
+    void queryStringIsPartOfTheKey() {
+        run(get("/api/flight/getAllFlights?page=0"));
+        run(get("/api/flight/getAllFlights?page=1"));
+
+        assertEquals(2, upstreamCalls.size());
+    }
+
+    @Test
+    void matchingIfNoneMatchGets304FromCache() {
+        run(get("/api/flight/getAllAirlines"));
+        MockServerWebExchange conditional = exchange(MockServerHttpRequest.get("/api/flight/getAllAirlines")
+                .header(HttpHeaders.IF_NONE_MATCH, "W/\"v1\""));
+
+        run(conditional);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, conditional.getResponse().getStatusCode());
+        assertEquals("", conditional.getResponse().getBodyAsString().defaultIfEmpty("").block());
+        assertEquals(1, upstreamCalls.size());
+    }
+
+    @Test
+    void clientConditionGoesUpstreamForAPathNeverStored() {
+        MockServerWebExchange conditional = exchange(MockServerHttpRequest.get("/api/flight/getAllAirlines")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"v1\""));
+
+        run(conditional);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, conditional.getResponse().getStatusCode());
+        assertEquals(List.of("/api/flight/getAllAirlines if-none-match=\"v1\""), upstreamCalls);
+    }
+
+    @Test
+    void clientConditionIsAnsweredByTheGatewayForAPathStoredBefore() {
+        run(get("/api/flight/getAllAirlines"));
+        clock.advance(Duration.ofSeconds(41));
+        MockServerWebExchange conditional = exchange(MockServerHttpRequest.get("/api/flight/getAllAirlines")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"v1\""));
+
+        run(conditional);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, conditional.getResponse().getStatusCode());
+        assertEquals("/api/flight/getAllAirlines if-none-match=null", upstreamCalls.get(1));
+        // the full response was stored on the way
+        MockServerWebExchange plain = get("/api/flight/getAllAirlines");
+        run(plain);
+        assertEquals("HIT", plain.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("body v1 of /api/flight/getAllAirlines", plain.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    void pathThatStopsBeingStorableSendsConditionsUpstreamAgain() {
+        run(get("/api/flight/getAllAirlines"));
+        clock.advance(Duration.ofSeconds(41));
+        upstreamHeaders = headers -> headers.setCacheControl("private");
+
+        MockServerWebExchange first = exchange(MockServerHttpRequest.get("/api/flight/getAllAirlines")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"v1\""));
+        run(first);
+        MockServerWebExchange second = exchange(MockServerHttpRequest.get("/api/flight/getAllAirlines")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"v1\""));
+        run(second);
+
+        // the gateway had taken the condition off, so it still owes the client the 304
+        assertEquals(HttpStatus.NOT_MODIFIED, first.getResponse().getStatusCode());
+        assertEquals(HttpStatus.NOT_MODIFIED, second.getResponse().getStatusCode());
+        assertEquals(List.of("/api/flight/getAllAirlines if-none-match=null",
+                "/api/flight/getAllAirlines if-none-match=null",
+                "/api/flight/getAllAirlines if-none-match=\"v1\""), upstreamCalls);
+    }
+
+    @Test
+    void ifModifiedSinceIsAnsweredFromCache() {
+        upstreamHeaders = headers -> headers.setLastModified(Instant.parse("2029-12-31T00:00:00Z"));
+        run(get("/api/flight/getAllAirlines"));
+        MockServerWebExchange conditional = exchange(MockServerHttpRequest.get("/api/flight/getAllAirlines")
+                .ifModifiedSince(Instant.parse("2029-12-31T12:00:00Z").toEpochMilli()));
+
+        run(conditional);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, conditional.getResponse().getStatusCode());
+        assertEquals(1, upstreamCalls.size());
+    }
+
+    @Test
+    void backendMaxAgeOverridesTheRouteTtl() {
+        upstreamHeaders = headers -> headers.setCacheControl("max-age=60");
+        run(get("/long"));
+        upstreamHeaders = headers -> headers.setCacheControl("max-age=60, s-maxage=2");
+        run(get("/short"));
+        clock.advance(Duration.ofSeconds(30));
+
+        MockServerWebExchange longLived = get("/long");
+        run(longLived);
+        MockServerWebExchange shortLived = get("/short");
+        run(shortLived);
+
+        assertEquals("HIT", longLived.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("STALE", shortLived.getResponse().getHeaders().getFirst("X-Cache"));
+    }
+
+    @Test
+    void mustRevalidateIsNeverServedStale() {
+        upstreamHeaders = headers -> headers.setCacheControl("max-age=5, must-revalidate");
+        run(get("/api/flight/getAllAirlines"));
+        clock.advance(Duration.ofSeconds(6));
+
+        MockServerWebExchange expired = get("/api/flight/getAllAirlines");
+        run(expired);
+
+        assertEquals("MISS", expired.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals(2, upstreamCalls.size());
+    }
+
+    @Test
+    void ndjsonStreamIsWrittenThroughWithoutBeingStored() {
+        Sinks.Many<String> lines = Sinks.many().unicast().onBackpressureBuffer();
+        GatewayFilterChain stream = exchange -> {
+            upstreamCalls.add(exchange.getRequest().getURI().getRawPath());
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_NDJSON);
+            return response.writeWith(lines.asFlux()
+                    .map(line -> response.bufferFactory().wrap(line.getBytes(StandardCharsets.UTF_8))));
+        };
+        MockServerWebExchange first = get("/api/flight/getAllFlights/stream");
+
+        Disposable running = filter.filter(first, stream).subscribe();
+        lines.tryEmitNext("{\"flightNumber\":\"AI101\"}\n");
+
+        // the first line reached the client while the stream is still open
+        assertEquals("{\"flightNumber\":\"AI101\"}\n", first.getResponse().getBody()
+                .map(buffer -> buffer.toString(StandardCharsets.UTF_8)).blockFirst(Duration.ofSeconds(5)));
+        lines.tryEmitComplete();
+        running.dispose();
+
+        filter.filter(get("/api/flight/getAllFlights/stream"), stream).subscribe().dispose();
+        assertEquals(2, upstreamCalls.size());
+        assertNull(first.getResponse().getHeaders().getFirst("X-Cache"));
+    }
+
+    @Test
+    void bodyLargerThanMaxEntrySizeIsWrittenInFullWithoutBeingStored() {
+        filter = filter(DataSize.ofMegabytes(1), DataSize.ofBytes(10));
+        GatewayFilterChain chunked = exchange -> {
+            upstreamCalls.add(exchange.getRequest().getURI().getRawPath());
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            return response.writeWith(Flux.just("[1,2,3,", "4,5,6,", "7,8,9]")
+                    .map(part -> response.bufferFactory().wrap(part.getBytes(StandardCharsets.UTF_8))));
+        };
+
+        MockServerWebExchange large = get("/api/flight/getAllFlights");
+        filter.filter(large, chunked).block();
+        filter.filter(get("/api/flight/getAllFlights"), chunked).block();
+
+        assertEquals("[1,2,3,4,5,6,7,8,9]", large.getResponse().getBodyAsString().block());
+        assertNull(large.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals(2, upstreamCalls.size());
+    }
+
+    @Test
+    void variantsFollowTheVaryHeader() {
+        upstreamHeaders = headers -> headers.set(HttpHeaders.VARY, "Accept-Language");
+
+        run(exchange(MockServerHttpRequest.get("/fares").header(HttpHeaders.ACCEPT_LANGUAGE, "en")));
+        run(exchange(MockServerHttpRequest.get("/fares").header(HttpHeaders.ACCEPT_LANGUAGE, "hi")));
+        MockServerWebExchange english = exchange(MockServerHttpRequest.get("/fares")
+                .header(HttpHeaders.ACCEPT_LANGUAGE, "en"));
+        run(english);
+
+        assertEquals(2, upstreamCalls.size());
+        assertEquals("HIT", english.getResponse().getHeaders().getFirst("X-Cache"));
+    }
+
+    @Test
+    void staleResponseIsServedWhileOneRefreshRuns() {
+        run(get("/api/flight/getAllAirlines"));
+        version = "v2";
+        clock.advance(Duration.ofSeconds(15));
+
+        MockServerWebExchange stale = get("/api/flight/getAllAirlines");
+        run(stale);
+
+        assertEquals("STALE", stale.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("15", stale.getResponse().getHeaders().getFirst(HttpHeaders.AGE));
+        assertEquals("body v1 of /api/flight/getAllAirlines", stale.getResponse().getBodyAsString().block());
+        // the refresh asked with the stored ETag and got the new version
+        assertEquals("/api/flight/getAllAirlines if-none-match=\"v1\"", upstreamCalls.get(1));
+
+        MockServerWebExchange fresh = get("/api/flight/getAllAirlines");
+        run(fresh);
+        assertEquals("HIT", fresh.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("body v2 of /api/flight/getAllAirlines", fresh.getResponse().getBodyAsString().block());
+        assertEquals(2, upstreamCalls.size());
+    }
+
+    @Test
+    void unchangedResourceOnRefreshExtendsTheStoredCopy() {
+        run(get("/api/flight/getAllAirlines"));
+        clock.advance(Duration.ofSeconds(15));
+
+        run(get("/api/flight/getAllAirlines"));
+        clock.advance(Duration.ofSeconds(5));
+        MockServerWebExchange later = get("/api/flight/getAllAirlines");
+        run(later);
+
+        assertEquals("HIT", later.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("5", later.getResponse().getHeaders().getFirst(HttpHeaders.AGE));
+        assertEquals(2, upstreamCalls.size());
+    }
+
+    @Test
+    void responseOlderThanTheStaleWindowIsFetchedAgain() {
+        run(get("/api/flight/getAllAirlines"));
+        clock.advance(Duration.ofSeconds(41));
+
+        MockServerWebExchange expired = get("/api/flight/getAllAirlines");
+        run(expired);
+
+        assertEquals("MISS", expired.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals(2, upstreamCalls.size());
+    }
+
+    @Test
+    void leastRecentlyUsedPathIsEvictedFirst() {
+        filter = filter(DataSize.ofBytes(120));
+
+        run(get("/a"));
+        run(get("/b"));
+        run(get("/a"));
+        run(get("/c"));
+        run(get("/a"));
+        run(get("/b"));
+
+        assertEquals(List.of("/a", "/b", "/c", "/b"),
+                upstreamCalls.stream().map(call -> call.substring(0, call.indexOf(' '))).toList());
+    }
+
+    @Test
+    void uncacheableRequestsAndResponsesPassThrough() {
+        upstreamHeaders = headers -> headers.setCacheControl("private");
+        run(get("/private"));
+        run(get("/private"));
+
+        upstreamHeaders = headers -> { };
+        run(exchange(MockServerHttpRequest.get("/secured").header(HttpHeaders.AUTHORIZATION, "Bearer x")));
+        run(exchange(MockServerHttpRequest.get("/secured").header(HttpHeaders.AUTHORIZATION, "Bearer x")));
+
+        MockServerWebExchange post = exchange(MockServerHttpRequest.post("/api/flight/search"));
+        run(post);
+
+        assertEquals(5, upstreamCalls.size());
+        assertNull(post.getResponse().getHeaders().getFirst("X-Cache"));
+    }
+
+    @Test
+    void etagComparisonIsWeak() {
+        assertTrue(ResponseCacheGatewayFilterFactory.etagMatches("\"a\", W/\"b\"", "\"b\""));
+        assertTrue(ResponseCacheGatewayFilterFactory.etagMatches("*", "\"b\""));
+        assertEquals(false, ResponseCacheGatewayFilterFactory.etagMatches("\"a\"", "\"b\""));
+    }
+
+    private GatewayFilter filter(DataSize maxSize) {
+        return filter(maxSize, DataSize.ofMegabytes(1));
+    }
+
+    private GatewayFilter filter(DataSize maxSize, DataSize maxEntrySize) {
+        ResponseCacheGatewayFilterFactory.Config config = new ResponseCacheGatewayFilterFactory.Config();
+        config.setTtl(Duration.ofSeconds(10));
+        config.setStaleWhileRevalidate(Duration.ofSeconds(30));
+        config.setMaxSize(maxSize);
+        config.setMaxEntrySize(maxEntrySize);
+        return new ResponseCacheGatewayFilterFactory(clock).apply(config);
+    }
+
+    // stands in for the proxied backend: 304 when the request's If-None-Match is the current version
+    private final GatewayFilterChain upstream = exchange -> {
+        String ifNoneMatch = exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+        upstreamCalls.add(exchange.getRequest().getURI().getRawPath() + " if-none-match=" + ifNoneMatch);
+        ServerHttpResponse response = exchange.getResponse();
+        String etag = "\"" + version + "\"";
+        response.getHeaders().setETag(etag);
+        upstreamHeaders.accept(response.getHeaders());
+        if (etag.equals(ifNoneMatch)) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        byte[] body = ("body " + version + " of " + exchange.getRequest().getURI().getRawPath())
+                .getBytes(StandardCharsets.UTF_8);
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    };
+
+    private void run(MockServerWebExchange exchange) {
+        filter.filter(exchange, upstream).block();
+    }
+
+    private static MockServerWebExchange get(String uri) {
+        return exchange(MockServerHttpRequest.get(uri));
+    }
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        return MockServerWebExchange.from(request);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2030-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
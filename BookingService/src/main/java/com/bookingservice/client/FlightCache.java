@@ -0,0 +1,66 @@
+package com.bookingservice.client;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Short lived, size bounded near-cache of flights read from FlightService.
+ * Concurrent misses for the same flight share one load. Seat counts served
+ * from here may be a few seconds old; the atomic reserve in FlightService
+ * stays the authoritative availability check.
+ */
+@Component
+public class FlightCache {
+
+    static final String CACHE_NAME = "flightCache";
+
+    private final AsyncCache<String, FlightDto> cache;
+
+    public FlightCache(
+            @Value("${booking.flight-cache.max-size:10000}") long maxSize,
+            @Value("${booking.flight-cache.ttl:5s}") Duration ttl,
+            MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    // cached flight, or the loader result which is cached unless it is empty or failed
+    public Mono<FlightDto> get(String flightId, Function<String, Mono<FlightDto>> loader) {
+        return Mono.fromFuture(
+                () -> cache.get(flightId, (id, executor) -> loader.apply(id).toFuture()),
+                true);
+    }
+
+    // cached flights, with every missing id loaded in one call
+    public Flux<FlightDto> getAll(Collection<String> flightIds,
+                                  Function<Set<String>, Flux<FlightDto>> loader) {
+        return Mono.fromFuture(
+                        () -> cache.getAll(flightIds, (missing, executor) -> loader.apply(Set.copyOf(missing))
+                                .collectMap(FlightDto::getFlightId)
+                                .toFuture()),
+                        true)
+                .flatMapIterable(Map::values);
+    }
+
+    public void invalidate(String flightId) {
+        cache.synchronous().invalidate(flightId);
+    }
+}
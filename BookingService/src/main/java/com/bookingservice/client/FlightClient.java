@@ -1,13 +1,19 @@
 package com.bookingservice.client;
 
+import java.util.Collection;
+
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.http.HttpStatus;
 
+import com.bookingservice.exceptions.ValidationException;
+
 import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Component
@@ -15,9 +21,11 @@ public class FlightClient {
 
     private final WebClient webClient;
     private final CircuitBreaker circuitBreaker;
+    private final FlightCache flightCache;
 
     public FlightClient(WebClient.Builder builder,
-                        CircuitBreakerRegistry registry) {
+                        CircuitBreakerRegistry registry,
+                        FlightCache flightCache) {
 
         this.webClient = builder
                 .baseUrl("http://FLIGHT-SERVICE")
@@ -25,15 +33,41 @@ public class FlightClient {
 
         this.circuitBreaker =
                 registry.circuitBreaker("flightServiceCB");
+
+        this.flightCache = flightCache;
     }
 
     public Mono<FlightDto> getFlight(String flightId) {
+        return flightCache.get(flightId, this::fetchFlight);
+    }
+
+    public Flux<FlightDto> getFlights(Collection<String> flightIds) {
+        if (flightIds == null || flightIds.isEmpty()) {
+            return Flux.empty();
+        }
+        return flightCache.getAll(flightIds, this::fetchFlights);
+    }
+
+    private Mono<FlightDto> fetchFlight(String flightId) {
         return webClient.get()
-                .uri("/api/flight/getAllFlights")
+                .uri("/api/flight/getFlight/{id}", flightId)
+                .retrieve()
+                .bodyToMono(FlightDto.class)
+                .onErrorResume(WebClientResponseException.NotFound.class, ex -> Mono.empty())
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .onErrorResume(ex ->
+                        Mono.error(new ResponseStatusException(
+                                HttpStatus.SERVICE_UNAVAILABLE,
+                                "FlightService unavailable", ex)));
+    }
+
+    private Flux<FlightDto> fetchFlights(Collection<String> flightIds) {
+        return webClient.get()
+                .uri(uri -> uri.path("/api/flight/getFlights")
+                        .queryParam("ids", String.join(",", flightIds))
+                        .build())
                 .retrieve()
                 .bodyToFlux(FlightDto.class)
-                .filter(f -> flightId.equals(f.getFlightId()))
-                .next()
                 .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
                 .onErrorResume(ex ->
                         Mono.error(new ResponseStatusException(
@@ -45,12 +79,19 @@ public class FlightClient {
         return webClient.post()
                 .uri("/api/flight/{id}/reserve?seats={s}", flightId, seats)
                 .retrieve()
-                .bodyToMono(Void.class)
+                .toBodilessEntity()
+                .thenReturn(Boolean.TRUE)
+                // a sold out flight is an answer from FlightService, not a failure of it
+                .onErrorResume(WebClientResponseException.BadRequest.class, ex -> Mono.just(Boolean.FALSE))
                 .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
                 .onErrorResume(ex -> Mono.error(
                         new ResponseStatusException(
                                 HttpStatus.SERVICE_UNAVAILABLE,
-                                "Seat reservation failed", ex)));
+                                "Seat reservation failed", ex)))
+                .flatMap(reserved -> Boolean.TRUE.equals(reserved)
+                        ? Mono.<Void>empty()
+                        : Mono.error(new ValidationException("Not enough seats")))
+                .doFinally(signal -> flightCache.invalidate(flightId));
     }
 
     public Mono<Void> releaseSeats(String flightId, int seats) {
@@ -59,6 +100,7 @@ public class FlightClient {
                 .retrieve()
                 .bodyToMono(Void.class)
                 .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
-                .onErrorResume(ex -> Mono.empty());
+                .onErrorResume(ex -> Mono.empty())
+                .doFinally(signal -> flightCache.invalidate(flightId));
     }
 }
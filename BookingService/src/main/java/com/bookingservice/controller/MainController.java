@@ -3,9 +3,11 @@ package com.bookingservice.controller;
 import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import com.bookingservice.model.Booking;
 import com.bookingservice.requests.BookingRequest;
+import com.bookingservice.responses.BookingHistoryPage;
 import com.bookingservice.service.BookingService;
 import jakarta.validation.Valid;
 import reactor.core.publisher.Flux;
@@ -44,6 +46,20 @@ public class MainController {
 		return bookingService.getHistory(email);
 	}
 
+	// Stream booking history as NDJSON
+	@GetMapping(value = "/history/{email}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public Flux<Booking> streamHistory(@PathVariable String email) {
+		return bookingService.streamHistory(email);
+	}
+
+	// Get booking history one page at a time
+	@GetMapping("/history/{email}/page")
+	public Mono<BookingHistoryPage> getHistoryPage(@PathVariable String email,
+			@RequestParam(required = false) String cursor,
+			@RequestParam(defaultValue = "20") int size) {
+		return bookingService.getHistoryPage(email, cursor, size);
+	}
+
 	// Cancel booking
 	@DeleteMapping("/cancel/{pnr}")
 	public Mono<Map<String, String>> cancel(@PathVariable String pnr) {
@@ -0,0 +1,40 @@
+package com.bookingservice.kafka;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import com.bookingservice.model.BookingEvent;
+
+/**
+ * Writes booking events in the compact layout of {@link BookingEventCodec}
+ * and marks each record with format and schema version headers. Consumers
+ * should move to {@link BookingEventDeserializer} before producers switch
+ * to this serializer, since it reads both formats.
+ */
+public class BookingEventBinarySerializer implements Serializer<BookingEvent> {
+
+    public static final String FORMAT_HEADER = "booking-event-format";
+    public static final String SCHEMA_VERSION_HEADER = "booking-event-schema";
+    public static final String BINARY_FORMAT = "binary";
+
+    private static final byte[] BINARY_FORMAT_BYTES = BINARY_FORMAT.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SCHEMA_VERSION_BYTES =
+            String.valueOf(BookingEventCodec.SCHEMA_VERSION).getBytes(StandardCharsets.UTF_8);
+
+    @Override
+    public byte[] serialize(String topic, BookingEvent data) {
+        return data == null ? null : BookingEventCodec.encode(data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, BookingEvent data) {
+        if (data == null) {
+            return null;
+        }
+        headers.remove(FORMAT_HEADER).add(FORMAT_HEADER, BINARY_FORMAT_BYTES);
+        headers.remove(SCHEMA_VERSION_HEADER).add(SCHEMA_VERSION_HEADER, SCHEMA_VERSION_BYTES);
+        return BookingEventCodec.encode(data);
+    }
+}
@@ -0,0 +1,205 @@
+package com.bookingservice.kafka;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+
+import org.apache.kafka.common.errors.SerializationException;
+
+import com.bookingservice.model.BookingEvent;
+import com.bookingservice.model.BookingEventType;
+import com.bookingservice.model.BookingStatus;
+import com.bookingservice.model.TripType;
+
+/**
+ * Binary layout of a {@link BookingEvent}, schema version 1. Fields are
+ * written in the fixed order below with no names:
+ *
+ * <pre>
+ * eventId, bookingId, pnrOutbound, pnrReturn,
+ * outboundFlightId, returnFlightId, contactName, contactEmail  string
+ * totalPassengers                                              varint
+ * eventType, status, tripType                                  enum
+ * occurredAt                                                   instant
+ * </pre>
+ *
+ * A string is a varint of its UTF-8 length plus one (0 for null) followed by
+ * the bytes. An enum is its ordinal plus one (0 for null), so enum constants
+ * may only ever be appended. An instant is a presence byte, then zigzag
+ * varint epoch seconds and varint nanos. Any other change to the layout
+ * needs a new schema version.
+ */
+final class BookingEventCodec {
+
+    static final int SCHEMA_VERSION = 1;
+
+    private static final BookingEventType[] EVENT_TYPES = BookingEventType.values();
+    private static final BookingStatus[] STATUSES = BookingStatus.values();
+    private static final TripType[] TRIP_TYPES = TripType.values();
+
+    private BookingEventCodec() {
+    }
+
+    static byte[] encode(BookingEvent event) {
+        Writer out = new Writer();
+        out.string(event.getEventId());
+        out.string(event.getBookingId());
+        out.string(event.getPnrOutbound());
+        out.string(event.getPnrReturn());
+        out.string(event.getOutboundFlightId());
+        out.string(event.getReturnFlightId());
+        out.string(event.getContactName());
+        out.string(event.getContactEmail());
+        out.varint(event.getTotalPassengers());
+        out.enumValue(event.getEventType());
+        out.enumValue(event.getStatus());
+        out.enumValue(event.getTripType());
+        out.instant(event.getOccurredAt());
+        return out.toByteArray();
+    }
+
+    static BookingEvent decode(byte[] data) {
+        Reader in = new Reader(data);
+        BookingEvent event = new BookingEvent();
+        event.setEventId(in.string());
+        event.setBookingId(in.string());
+        event.setPnrOutbound(in.string());
+        event.setPnrReturn(in.string());
+        event.setOutboundFlightId(in.string());
+        event.setReturnFlightId(in.string());
+        event.setContactName(in.string());
+        event.setContactEmail(in.string());
+        event.setTotalPassengers(in.varint());
+        event.setEventType(in.enumValue(EVENT_TYPES));
+        event.setStatus(in.enumValue(STATUSES));
+        event.setTripType(in.enumValue(TRIP_TYPES));
+        event.setOccurredAt(in.instant());
+        return event;
+    }
+
+    private static final class Writer {
+
+        private byte[] buf = new byte[128];
+        private int pos;
+
+        void string(String value) {
+            if (value == null) {
+                varint(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            varint(bytes.length + 1);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, pos, bytes.length);
+            pos += bytes.length;
+        }
+
+        void enumValue(Enum<?> value) {
+            varint(value == null ? 0 : value.ordinal() + 1);
+        }
+
+        void instant(Instant value) {
+            if (value == null) {
+                writeByte(0);
+                return;
+            }
+            writeByte(1);
+            long seconds = value.getEpochSecond();
+            varlong((seconds << 1) ^ (seconds >> 63));
+            varint(value.getNano());
+        }
+
+        void varint(int value) {
+            varlong(value & 0xFFFFFFFFL);
+        }
+
+        void varlong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[pos++] = (byte) value;
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            buf[pos++] = (byte) value;
+        }
+
+        private void ensure(int extra) {
+            if (pos + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + extra));
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, pos);
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] buf;
+        private int pos;
+
+        Reader(byte[] buf) {
+            this.buf = buf;
+        }
+
+        String string() {
+            int length = varint() - 1;
+            if (length < 0) {
+                return null;
+            }
+            require(length);
+            String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+
+        <E extends Enum<E>> E enumValue(E[] values) {
+            int code = varint();
+            if (code == 0) {
+                return null;
+            }
+            if (code > values.length) {
+                throw new SerializationException("Unknown enum code " + code);
+            }
+            return values[code - 1];
+        }
+
+        Instant instant() {
+            require(1);
+            if (buf[pos++] == 0) {
+                return null;
+            }
+            long zigzag = varlong();
+            long seconds = (zigzag >>> 1) ^ -(zigzag & 1);
+            return Instant.ofEpochSecond(seconds, varint());
+        }
+
+        int varint() {
+            return (int) varlong();
+        }
+
+        long varlong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                require(1);
+                byte b = buf[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new SerializationException("Malformed varint");
+        }
+
+        private void require(int length) {
+            if (pos + length > buf.length) {
+                throw new SerializationException("Truncated booking event");
+            }
+        }
+    }
+}
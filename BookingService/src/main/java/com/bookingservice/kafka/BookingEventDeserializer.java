@@ -0,0 +1,52 @@
+package com.bookingservice.kafka;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import com.bookingservice.model.BookingEvent;
+
+/**
+ * Reads booking events in either format on the topic: records carrying the
+ * binary format header are decoded with {@link BookingEventCodec}, anything
+ * else is treated as the JSON written by {@code JsonSerializer}.
+ */
+public class BookingEventDeserializer implements Deserializer<BookingEvent> {
+
+    private final JsonDeserializer<BookingEvent> json = new JsonDeserializer<>(BookingEvent.class, false);
+
+    @Override
+    public BookingEvent deserialize(String topic, byte[] data) {
+        return json.deserialize(topic, data);
+    }
+
+    @Override
+    public BookingEvent deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (!BookingEventBinarySerializer.BINARY_FORMAT.equals(
+                headerValue(headers, BookingEventBinarySerializer.FORMAT_HEADER))) {
+            return json.deserialize(topic, data);
+        }
+        String version = headerValue(headers, BookingEventBinarySerializer.SCHEMA_VERSION_HEADER);
+        if (!String.valueOf(BookingEventCodec.SCHEMA_VERSION).equals(version)) {
+            throw new SerializationException("Unsupported booking event schema version: " + version);
+        }
+        return BookingEventCodec.decode(data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+
+    private static String headerValue(Headers headers, String key) {
+        Header header = headers.lastHeader(key);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+}
@@ -1,13 +1,29 @@
 package com.bookingservice.model;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Document(collection="booking")
+@CompoundIndexes({
+	// history lookups by email, in booking id order for keyset paging
+	@CompoundIndex(name = "contactEmail_id", def = "{'contactEmail': 1, '_id': 1}"),
+	// the relay poll, holding only bookings with events still queued so drained ones cost nothing
+	@CompoundIndex(name = "outbox_pending", def = "{'outboxPending': 1, 'outboxLockedUntil': 1}",
+			partialFilter = "{'outboxPending': true}")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,10 +34,34 @@ public class Booking {
 	private TripType tripType;
 	private String outboundFlightId; //fk-> flightinventory
 	private String returnFlight;
+	@Indexed(unique = true)
 	private String pnrOutbound;
+	@Indexed(unique = true, sparse = true)
     private String pnrReturn;
     private String contactName;
     private String contactEmail;
     private int totalPassengers;
     private BookingStatus status;
+
+    // outbox, stored in the same document so the event and the booking are written together
+    @JsonIgnore
+    private List<BookingEvent> pendingEvents;
+    // relay bookkeeping: whether events are queued, who may relay the outbox until when, failed
+    // attempts since the last success, and the events given up on after too many of them
+    @JsonIgnore
+    private boolean outboxPending;
+    @JsonIgnore
+    private Instant outboxLockedUntil;
+    @JsonIgnore
+    private int outboxAttempts;
+    @JsonIgnore
+    private List<BookingEvent> parkedEvents;
+
+    public void addPendingEvent(BookingEvent event) {
+        if (pendingEvents == null) {
+            pendingEvents = new ArrayList<>();
+        }
+        pendingEvents.add(event);
+        outboxPending = true;
+    }
 }
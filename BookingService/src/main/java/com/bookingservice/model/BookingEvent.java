@@ -4,6 +4,7 @@ import java.time.Instant;
 
 public class BookingEvent {
 
+    private String eventId;
     private BookingEventType eventType;
     private String bookingId;
     private String pnrOutbound;
@@ -17,6 +18,14 @@ public class BookingEvent {
     private TripType tripType;
     private Instant occurredAt;
 
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
     public BookingEventType getEventType() {
         return eventType;
     }
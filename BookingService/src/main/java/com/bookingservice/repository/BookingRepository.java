@@ -1,13 +1,44 @@
 package com.bookingservice.repository;
+import java.time.Instant;
+import java.util.Collection;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.data.mongodb.repository.Update;
+
 import com.bookingservice.model.Booking;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-public interface BookingRepository extends ReactiveMongoRepository<Booking,String>{
+public interface BookingRepository extends ReactiveMongoRepository<Booking,String>, BookingRepositoryCustom {
 
 	Mono<Booking> findByPnrOutbound(String pnr);
 	Mono<Booking> findByPnrReturn(String pnr);
 	Flux<Booking> findByContactEmail(String email);
+
+	// keyset pages of a contact's history, in booking id order
+	Flux<Booking> findByContactEmailOrderByBookingIdAsc(String email, Pageable page);
+	Flux<Booking> findByContactEmailAndBookingIdGreaterThanOrderByBookingIdAsc(String email, String afterId, Pageable page);
+	Flux<Booking> findByContactEmailOrderByBookingIdAsc(String email);
+
+	// one $or query, each branch served by its PNR index
+	Mono<Booking> findFirstByPnrOutboundOrPnrReturn(String pnrOutbound, String pnrReturn);
+
+	// bookings whose outbox still has events to relay and whose lease, if any, ran out by now;
+	// answered from the partial outbox_pending index, which holds only those bookings
+	@Query("{ 'outboxPending': true, 'outboxLockedUntil': { '$not': { '$gt': ?0 } } }")
+	Flux<Booking> findWithPendingEvents(Instant now, Pageable page);
+
+	// drops relayed events only, anything added since the read stays queued; the relay
+	// succeeded, so the attempt count starts over and the lease is given back
+	@Query("{ '_id': ?0 }")
+	@Update("{ '$pull': { 'pendingEvents': { 'eventId': { '$in': ?1 } } }, '$set': { 'outboxAttempts': 0 }, '$unset': { 'outboxLockedUntil': '' } }")
+	Mono<Long> removePendingEvents(String bookingId, Collection<String> eventIds);
+
+	// takes a drained booking out of the outbox_pending index; an event queued since keeps it in
+	@Query("{ '_id': ?0, 'pendingEvents.0': { '$exists': false } }")
+	@Update("{ '$set': { 'outboxPending': false } }")
+	Mono<Long> clearOutboxPendingIfDrained(String bookingId);
 }
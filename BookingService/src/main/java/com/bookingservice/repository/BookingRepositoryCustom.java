@@ -0,0 +1,26 @@
+package com.bookingservice.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.bookingservice.model.Booking;
+import com.bookingservice.model.BookingEvent;
+
+import reactor.core.publisher.Mono;
+
+public interface BookingRepositoryCustom {
+
+	// marks the booking cancelled and queues its event in one update, so nothing else in the document
+	// is written back; empty if it was cancelled already
+	Mono<Booking> cancel(String bookingId, BookingEvent event);
+
+	// leases the booking's outbox until the given time and returns it as leased, empty if it is not
+	// marked pending or another relay holds an unexpired lease
+	Mono<Booking> claimOutbox(String bookingId, Instant now, Instant until);
+
+	// counts a failed relay and keeps the lease until retryAt, so no relay retries before then
+	Mono<Long> recordOutboxFailure(String bookingId, Instant retryAt);
+
+	// moves the given events from the outbox to parkedEvents, the next events start with a clean count
+	Mono<Long> parkPendingEvents(String bookingId, List<BookingEvent> events);
+}
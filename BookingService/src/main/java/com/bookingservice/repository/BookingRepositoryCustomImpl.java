@@ -0,0 +1,75 @@
+package com.bookingservice.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.bookingservice.model.Booking;
+import com.bookingservice.model.BookingEvent;
+import com.bookingservice.model.BookingStatus;
+import com.mongodb.client.result.UpdateResult;
+
+import reactor.core.publisher.Mono;
+
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+
+	private static final String BOOKING_ID = "bookingId";
+	private static final String STATUS = "status";
+	private static final String PENDING_EVENTS = "pendingEvents";
+	private static final String PARKED_EVENTS = "parkedEvents";
+	private static final String OUTBOX_PENDING = "outboxPending";
+	private static final String LOCKED_UNTIL = "outboxLockedUntil";
+	private static final String ATTEMPTS = "outboxAttempts";
+
+	private final ReactiveMongoTemplate mongoTemplate;
+
+	public BookingRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+		this.mongoTemplate = mongoTemplate;
+	}
+
+	@Override
+	public Mono<Booking> cancel(String bookingId, BookingEvent event) {
+		Query query = Query.query(Criteria.where(BOOKING_ID).is(bookingId)
+				.and(STATUS).ne(BookingStatus.CANCELLED));
+		Update update = new Update()
+				.set(STATUS, BookingStatus.CANCELLED)
+				.push(PENDING_EVENTS, event)
+				.set(OUTBOX_PENDING, true);
+		return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+				Booking.class);
+	}
+
+	@Override
+	public Mono<Booking> claimOutbox(String bookingId, Instant now, Instant until) {
+		Query query = Query.query(Criteria.where(BOOKING_ID).is(bookingId)
+				.and(OUTBOX_PENDING).is(true)
+				.and(LOCKED_UNTIL).not().gt(now));
+		return mongoTemplate.findAndModify(query, new Update().set(LOCKED_UNTIL, until),
+				FindAndModifyOptions.options().returnNew(true), Booking.class);
+	}
+
+	@Override
+	public Mono<Long> recordOutboxFailure(String bookingId, Instant retryAt) {
+		Update update = new Update().inc(ATTEMPTS, 1).set(LOCKED_UNTIL, retryAt);
+		return mongoTemplate.updateFirst(Query.query(Criteria.where(BOOKING_ID).is(bookingId)), update, Booking.class)
+				.map(UpdateResult::getModifiedCount);
+	}
+
+	@Override
+	public Mono<Long> parkPendingEvents(String bookingId, List<BookingEvent> events) {
+		List<String> eventIds = events.stream().map(BookingEvent::getEventId).toList();
+		Update update = new Update()
+				.pull(PENDING_EVENTS, new Document("eventId", new Document("$in", eventIds)))
+				.push(PARKED_EVENTS).each(events.toArray())
+				.set(ATTEMPTS, 0)
+				.unset(LOCKED_UNTIL);
+		return mongoTemplate.updateFirst(Query.query(Criteria.where(BOOKING_ID).is(bookingId)), update, Booking.class)
+				.map(UpdateResult::getModifiedCount);
+	}
+}
@@ -0,0 +1,26 @@
+package com.bookingservice.responses;
+
+import java.util.List;
+
+import com.bookingservice.model.Booking;
+
+public class BookingHistoryPage {
+
+    private final List<Booking> bookings;
+
+    // pass back as ?cursor= for the next page, null on the last page
+    private final String nextCursor;
+
+    public BookingHistoryPage(List<Booking> bookings, String nextCursor) {
+        this.bookings = bookings;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Booking> getBookings() {
+        return bookings;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
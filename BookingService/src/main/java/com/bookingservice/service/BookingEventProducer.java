@@ -1,5 +1,7 @@
 package com.bookingservice.service;
 
+import java.util.function.Function;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -8,6 +10,8 @@ import org.springframework.stereotype.Component;
 
 import com.bookingservice.model.BookingEvent;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import reactor.core.publisher.Mono;
 
 @Component
@@ -17,21 +21,54 @@ public class BookingEventProducer {
 
     private final KafkaTemplate<String, BookingEvent> kafkaTemplate;
     private final String topic;
+    private final Function<BookingEvent, String> keyOf;
+    private final MeterRegistry meterRegistry;
+    private final Timer sendSuccess;
+    private final Timer sendFailure;
 
     public BookingEventProducer(
             KafkaTemplate<String, BookingEvent> kafkaTemplate,
-            @Value("${booking.kafka.topic}") String topic) {
+            @Value("${booking.kafka.topic}") String topic,
+            @Value("${booking.kafka.key:flight}") String keyBy,
+            MeterRegistry meterRegistry) {
         this.kafkaTemplate = kafkaTemplate;
         this.topic = topic;
+        this.keyOf = keyExtractor(keyBy);
+        this.meterRegistry = meterRegistry;
+        this.sendSuccess = sendTimer("success");
+        this.sendFailure = sendTimer("failure");
+    }
+
+    // flight keys keep every event of a flight, and so of each of its bookings, on one partition
+    private static Function<BookingEvent, String> keyExtractor(String keyBy) {
+        return switch (keyBy) {
+            case "flight" -> BookingEvent::getOutboundFlightId;
+            case "booking" -> BookingEvent::getBookingId;
+            default -> throw new IllegalArgumentException(
+                    "booking.kafka.key must be 'flight' or 'booking', was: " + keyBy);
+        };
+    }
+
+    private Timer sendTimer(String outcome) {
+        return Timer.builder("booking.kafka.send")
+                .description("Time from send until the broker acknowledged the event")
+                .tag("topic", String.valueOf(topic))
+                .tag("outcome", outcome)
+                .register(meterRegistry);
     }
 
+    // errors are passed on so the outbox relay keeps the event for a retry
     public Mono<Void> publish(BookingEvent event) {
         if (event == null || topic == null || topic.isBlank()) {
             return Mono.empty();
         }
-        return Mono.fromFuture(kafkaTemplate.send(topic, event))
-                .doOnError(ex -> log.error("Failed to publish booking event", ex))
-                .onErrorResume(ex -> Mono.empty())
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return Mono.fromFuture(kafkaTemplate.send(topic, keyOf.apply(event), event))
+                .doOnSuccess(result -> sample.stop(sendSuccess))
+                .doOnError(ex -> {
+                    sample.stop(sendFailure);
+                    log.error("Failed to publish booking event", ex);
+                })
                 .then();
     }
 }
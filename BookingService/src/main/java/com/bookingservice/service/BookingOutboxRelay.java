@@ -0,0 +1,141 @@
+package com.bookingservice.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.bookingservice.model.Booking;
+import com.bookingservice.model.BookingEvent;
+import com.bookingservice.repository.BookingRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Drains the outbox embedded in booking documents to Kafka. An event is
+ * removed from its booking only after the broker acknowledged it, so
+ * delivery is at least once; consumers can de-duplicate on the event id.
+ * <p>
+ * Every instance runs a relay, so a booking is leased before its events are
+ * sent and the others skip it until the lease runs out. A failed relay keeps
+ * the lease for a backoff that doubles with each attempt; after
+ * {@code max-attempts} the events are moved to {@code parkedEvents}, counted
+ * in {@code booking.outbox.parked} and no longer retried, so one poisoned
+ * booking does not hold the head of the outbox forever.
+ * <p>
+ * Queuing an event sets {@code outboxPending}, and the relay clears it once
+ * the queue is empty. The poll reads the partial index on that flag, so it
+ * only touches bookings that still have events to send.
+ */
+@Component
+@ConditionalOnProperty(name = "booking.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class BookingOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingOutboxRelay.class);
+
+    private final BookingRepository bookingRepository;
+    private final BookingEventProducer eventProducer;
+    private final int batchSize;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration maxBackoff;
+    private final Counter parked;
+
+    public BookingOutboxRelay(BookingRepository bookingRepository,
+                              BookingEventProducer eventProducer,
+                              @Value("${booking.outbox.relay.batch-size:100}") int batchSize,
+                              @Value("${booking.outbox.relay.lease:PT30S}") Duration lease,
+                              @Value("${booking.outbox.relay.max-attempts:10}") int maxAttempts,
+                              @Value("${booking.outbox.relay.retry-backoff:PT5S}") Duration retryBackoff,
+                              @Value("${booking.outbox.relay.max-backoff:PT5M}") Duration maxBackoff,
+                              MeterRegistry meterRegistry) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("booking.outbox.relay.max-attempts must be at least 1");
+        }
+        this.bookingRepository = bookingRepository;
+        this.eventProducer = eventProducer;
+        this.batchSize = batchSize;
+        this.lease = lease;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.maxBackoff = maxBackoff;
+        this.parked = meterRegistry.counter("booking.outbox.parked");
+    }
+
+    // the next run starts once this one has completed
+    @Scheduled(fixedDelayString = "${booking.outbox.relay.interval:PT1S}")
+    public Mono<Void> relay() {
+        Instant now = Instant.now();
+        return bookingRepository.findWithPendingEvents(now, PageRequest.of(0, batchSize))
+                // empty when another instance leased the booking since the read
+                .flatMap(candidate -> bookingRepository.claimOutbox(candidate.getBookingId(), now, now.plus(lease)))
+                .flatMap(this::relayBooking)
+                .then();
+    }
+
+    // sends are issued in outbox order, a failed send leaves every event of the booking queued
+    private Mono<Void> relayBooking(Booking booking) {
+        List<BookingEvent> events = booking.getPendingEvents();
+        if (events == null || events.isEmpty()) {
+            // marked pending but drained, e.g. the relay stopped between removing and clearing
+            return clearIfDrained(booking.getBookingId());
+        }
+        List<String> eventIds = events.stream().map(BookingEvent::getEventId).toList();
+
+        return Mono.when(events.stream().map(eventProducer::publish).toList())
+                .then(Mono.defer(() -> bookingRepository.removePendingEvents(booking.getBookingId(), eventIds)))
+                .then()
+                .onErrorResume(ex -> relayFailed(booking, events, ex))
+                // after a relay or a park; a no-op while events are still queued
+                .then(Mono.defer(() -> clearIfDrained(booking.getBookingId())));
+    }
+
+    // if this fails the booking stays marked and the next claim clears it
+    private Mono<Void> clearIfDrained(String bookingId) {
+        return bookingRepository.clearOutboxPendingIfDrained(bookingId)
+                .then()
+                .onErrorResume(ex -> {
+                    log.warn("Could not clear the outbox mark of booking {}", bookingId, ex);
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> relayFailed(Booking booking, List<BookingEvent> events, Throwable ex) {
+        String bookingId = booking.getBookingId();
+        int attempts = booking.getOutboxAttempts() + 1;
+        Mono<Long> write;
+        if (attempts >= maxAttempts) {
+            log.error("Outbox relay failed {} times for booking {}, parking {} events", attempts, bookingId,
+                    events.size(), ex);
+            parked.increment(events.size());
+            write = bookingRepository.parkPendingEvents(bookingId, events);
+        } else {
+            Duration backoff = backoff(attempts);
+            log.warn("Outbox relay failed for booking {} (attempt {}), retrying in {}", bookingId, attempts,
+                    backoff, ex);
+            write = bookingRepository.recordOutboxFailure(bookingId, Instant.now().plus(backoff));
+        }
+        // if this write fails too the lease still runs out and the booking is relayed again
+        return write.then()
+                .onErrorResume(writeEx -> {
+                    log.warn("Could not record the outbox failure of booking {}", bookingId, writeEx);
+                    return Mono.empty();
+                });
+    }
+
+    // retry-backoff after the first failure, doubling after each further one up to max-backoff
+    private Duration backoff(int attempts) {
+        Duration backoff = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+}
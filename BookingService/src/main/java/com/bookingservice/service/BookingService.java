@@ -1,10 +1,16 @@
 package com.bookingservice.service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import com.bookingservice.client.FlightClient;
@@ -20,35 +26,41 @@ import com.bookingservice.repository.BookingRepository;
 import com.bookingservice.repository.PassengerRepository;
 import com.bookingservice.requests.BookingRequest;
 import com.bookingservice.requests.PassengerRequest;
+import com.bookingservice.responses.BookingHistoryPage;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
 @Service
 public class BookingService {
 
+    private static final int PNR_RETRIES = 3;
+
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
     private final BookingRepository bookingRepository;
 
     private final PassengerRepository passengerRepository;
 
     private final FlightClient flightClient;
 
-    private final BookingEventProducer eventProducer;
-
     private final EmailService emailService;
 
+    private final PnrGenerator pnrGenerator;
+
     @Autowired
     public BookingService(
             BookingRepository bookingRepository,
             PassengerRepository passengerRepository,
             FlightClient flightClient,
-            BookingEventProducer eventProducer,
-            EmailService emailService) {
+            EmailService emailService,
+            PnrGenerator pnrGenerator) {
         this.bookingRepository = bookingRepository;
         this.passengerRepository = passengerRepository;
         this.flightClient = flightClient;
-        this.eventProducer = eventProducer;
         this.emailService = emailService;
+        this.pnrGenerator = pnrGenerator;
     }
 
    // to book a flight
@@ -59,49 +71,78 @@ public class BookingService {
 
         int count = req.getPassengers().size();
 
-        Mono<FlightDto> outboundMono =
-                flightClient.getFlight(flightId)
-                        .switchIfEmpty(Mono.error(
-                                new ResourceNotFoundException("Outbound flight not found")));
-
         if (req.getReturnFlightId() == null) {
-            return outboundMono.flatMap(flight -> {
-
-                validateSeats(flight.getAvailableSeats(), count);
-                validatePassengers(req, false);
-
-                return createBooking(req, flightId, null)
-                        .flatMap(saved ->
-                                flightClient.reserveSeats(flightId, count)
-                                        .then(savePassengers(req, saved))
-                                        .then(emitSideEffects(saved, BookingEventType.BOOKED))
-                                        .thenReturn(saved));
-            });
+            return flightClient.getFlight(flightId)
+                    .switchIfEmpty(Mono.error(
+                            new ResourceNotFoundException("Outbound flight not found")))
+                    .flatMap(flight -> {
+
+                        validateSeats(flight.getAvailableSeats(), count);
+                        validatePassengers(req, false);
+
+                        return reserveAndCreateBooking(req, flightId, null, count)
+                                .flatMap(saved ->
+                                        savePassengers(req, saved)
+                                                .then(sendNotification(saved, BookingEventType.BOOKED))
+                                                .thenReturn(saved));
+                    });
         }
 
-        Mono<FlightDto> returnMono =
-                flightClient.getFlight(req.getReturnFlightId())
-                        .switchIfEmpty(Mono.error(
-                                new ResourceNotFoundException("Return flight not found")));
+        // both legs in one batch lookup
+        return flightClient.getFlights(List.of(flightId, req.getReturnFlightId()))
+                .collectMap(FlightDto::getFlightId)
+                .flatMap(flights -> {
 
-        return outboundMono.zipWith(returnMono)
-                .flatMap(t -> {
+                    FlightDto outbound = flights.get(flightId);
+                    if (outbound == null) {
+                        return Mono.error(new ResourceNotFoundException("Outbound flight not found"));
+                    }
+                    FlightDto inbound = flights.get(req.getReturnFlightId());
+                    if (inbound == null) {
+                        return Mono.error(new ResourceNotFoundException("Return flight not found"));
+                    }
 
-                    validateSeats(t.getT1().getAvailableSeats(), count);
-                    validateSeats(t.getT2().getAvailableSeats(), count);
+                    validateSeats(outbound.getAvailableSeats(), count);
+                    validateSeats(inbound.getAvailableSeats(), count);
 
                     validatePassengers(req, true);
 
-                    return createBooking(req, flightId, req.getReturnFlightId())
+                    return reserveAndCreateBooking(req, flightId, req.getReturnFlightId(), count)
                             .flatMap(saved ->
-                                    flightClient.reserveSeats(flightId, count)
-                                            .then(flightClient.reserveSeats(req.getReturnFlightId(), count))
-                                            .then(savePassengers(req, saved))
-                                            .then(emitSideEffects(saved, BookingEventType.BOOKED))
+                                    savePassengers(req, saved)
+                                            .then(sendNotification(saved, BookingEventType.BOOKED))
                                             .thenReturn(saved));
                 });
     }
 
+    // seats are held before the booking is stored, and given back if a later step fails
+    private Mono<Booking> reserveAndCreateBooking(
+            BookingRequest req,
+            String outboundId,
+            String returnId,
+            int count) {
+
+        Mono<Void> reserveReturn = returnId == null
+                ? Mono.empty()
+                : Mono.defer(() -> flightClient.reserveSeats(returnId, count))
+                        .onErrorResume(ex -> flightClient.releaseSeats(outboundId, count)
+                                .then(Mono.error(ex)));
+
+        return flightClient.reserveSeats(outboundId, count)
+                .then(reserveReturn)
+                .then(Mono.defer(() -> createBooking(req, outboundId, returnId)
+                        .onErrorResume(ex -> releaseSeats(outboundId, returnId, count)
+                                .then(Mono.error(ex)))));
+    }
+
+    private Mono<Void> releaseSeats(String outboundId, String returnId, int count) {
+        Mono<Void> releaseOutbound = flightClient.releaseSeats(outboundId, count);
+        Mono<Void> releaseReturn = returnId == null
+                ? Mono.empty()
+                : flightClient.releaseSeats(returnId, count);
+        return Mono.when(releaseOutbound, releaseReturn);
+    }
+
     // to create a booking
     private Mono<Booking> createBooking(
             BookingRequest req,
@@ -109,6 +150,8 @@ public class BookingService {
             String returnId) {
 
         Booking booking = new Booking();
+        // id assigned up front so the outbox event can carry it
+        booking.setBookingId(new ObjectId().toHexString());
         booking.setOutboundFlightId(outboundId);
         booking.setReturnFlight(returnId);
         booking.setTripType(req.getTripType());
@@ -116,12 +159,23 @@ public class BookingService {
         booking.setContactEmail(req.getContactEmail());
         booking.setTotalPassengers(req.getPassengers().size());
         booking.setStatus(BookingStatus.CONFIRMED);
-        booking.setPnrOutbound(UUID.randomUUID().toString().substring(0, 6).toUpperCase());
-        if (returnId != null) {
-            booking.setPnrReturn(UUID.randomUUID().toString().substring(0, 6).toUpperCase());
-        }
 
-        return bookingRepository.save(booking);
+        // a PNR already taken fails the unique index, so draw new ones from a random point and save again
+        return Mono.defer(() -> {
+                    assignPnrs(booking, returnId != null);
+                    return bookingRepository.save(booking);
+                })
+                .doOnError(DuplicateKeyException.class, ex -> pnrGenerator.reseed())
+                .retryWhen(Retry.max(PNR_RETRIES)
+                        .filter(DuplicateKeyException.class::isInstance)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    private void assignPnrs(Booking booking, boolean roundTrip) {
+        booking.setPnrOutbound(pnrGenerator.next());
+        booking.setPnrReturn(roundTrip ? pnrGenerator.next() : null);
+        booking.setPendingEvents(null);
+        booking.addPendingEvent(toEvent(booking, BookingEventType.BOOKED));
     }
 
    // to save passengers 
@@ -169,22 +223,29 @@ public class BookingService {
                     }
 
                     booking.setStatus(BookingStatus.CANCELLED);
+                    BookingEvent cancelled = toEvent(booking, BookingEventType.CANCELLED);
 
-                    Mono<Void> releaseOutbound =
+                    // deferred, seats are only released by the cancel that wins
+                    Mono<Void> releaseOutbound = Mono.defer(() ->
                             flightClient.releaseSeats(
                                     booking.getOutboundFlightId(),
-                                    booking.getTotalPassengers());
+                                    booking.getTotalPassengers()));
 
                     Mono<Void> releaseReturn =
                             booking.getReturnFlight() == null
                                     ? Mono.empty()
-                                    : flightClient.releaseSeats(
+                                    : Mono.defer(() -> flightClient.releaseSeats(
                                             booking.getReturnFlight(),
-                                            booking.getTotalPassengers());
-
-                    return bookingRepository.save(booking)
+                                            booking.getTotalPassengers()));
+
+                    // status and event in one update: a save of the whole document would write back the
+                    // outbox as read, undoing what the relay removed since; a cancel that raced this one
+                    // finds the booking cancelled already
+                    return bookingRepository.cancel(booking.getBookingId(), cancelled)
+                            .switchIfEmpty(Mono.error(
+                                    new ValidationException("Already cancelled")))
                             .flatMap(saved -> Mono.when(releaseOutbound, releaseReturn)
-                                    .then(emitSideEffects(saved, BookingEventType.CANCELLED))
+                                    .then(sendNotification(saved, BookingEventType.CANCELLED))
                                     .thenReturn(Map.of(
                                             "message", "Booking cancelled")));
                 });
@@ -236,17 +297,65 @@ public class BookingService {
         return bookingRepository.findByContactEmail(email);
     }
 
-    private Mono<Void> emitSideEffects(Booking booking, BookingEventType type) {
-        BookingEvent event = toEvent(booking, type);
-        return Mono.when(
-                        eventProducer.publish(event),
-                        emailService.sendBookingNotification(booking, type)
-                )
+    // one page of history after the cursor, fetching one extra booking to know if more follow
+    public Mono<BookingHistoryPage> getHistoryPage(String email, String cursor, int size) {
+
+        if (email == null || email.isBlank()) {
+            return Mono.error(new ValidationException("Email cannot be empty"));
+        }
+        if (size < 1 || size > MAX_HISTORY_PAGE_SIZE) {
+            return Mono.error(new ValidationException(
+                    "Page size must be between 1 and " + MAX_HISTORY_PAGE_SIZE));
+        }
+
+        PageRequest page = PageRequest.of(0, size + 1);
+        Flux<Booking> bookings = cursor == null || cursor.isBlank()
+                ? bookingRepository.findByContactEmailOrderByBookingIdAsc(email, page)
+                : Mono.fromCallable(() -> decodeCursor(cursor))
+                        .flatMapMany(afterId -> bookingRepository
+                                .findByContactEmailAndBookingIdGreaterThanOrderByBookingIdAsc(email, afterId, page));
+
+        return bookings.collectList().map(list -> {
+            if (list.size() <= size) {
+                return new BookingHistoryPage(list, null);
+            }
+            List<Booking> content = list.subList(0, size);
+            return new BookingHistoryPage(content, encodeCursor(content.get(size - 1).getBookingId()));
+        });
+    }
+
+    // the whole history in booking id order, emitted as the client consumes it
+    public Flux<Booking> streamHistory(String email) {
+
+        if (email == null || email.isBlank()) {
+            return Flux.error(new ValidationException("Email cannot be empty"));
+        }
+
+        return bookingRepository.findByContactEmailOrderByBookingIdAsc(email);
+    }
+
+    private static String encodeCursor(String bookingId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(bookingId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new ValidationException("Invalid cursor");
+        }
+    }
+
+    // the Kafka event is already in the booking's outbox, see BookingOutboxRelay
+    private Mono<Void> sendNotification(Booking booking, BookingEventType type) {
+        return emailService.sendBookingNotification(booking, type)
                 .onErrorResume(ex -> Mono.empty());
     }
 
     private BookingEvent toEvent(Booking booking, BookingEventType type) {
         BookingEvent event = new BookingEvent();
+        event.setEventId(UUID.randomUUID().toString());
         event.setEventType(type);
         event.setBookingId(booking.getBookingId());
         event.setPnrOutbound(booking.getPnrOutbound());
@@ -2,11 +2,8 @@ package com.bookingservice.service;
 
 import java.time.format.DateTimeFormatter;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
@@ -18,16 +15,14 @@ import reactor.core.publisher.Mono;
 @Service
 public class EmailService {
 
-    private static final Logger log = LoggerFactory.getLogger(EmailService.class);
-
-    private final JavaMailSender mailSender;
+    private final MailDispatcher mailDispatcher;
     private final boolean emailEnabled;
     private final String from;
 
-    public EmailService(JavaMailSender mailSender,
+    public EmailService(MailDispatcher mailDispatcher,
                         @Value("${booking.email.enabled:false}") boolean emailEnabled,
                         @Value("${booking.email.from:}") String from) {
-        this.mailSender = mailSender;
+        this.mailDispatcher = mailDispatcher;
         this.emailEnabled = emailEnabled;
         this.from = from;
     }
@@ -37,10 +32,8 @@ public class EmailService {
             return Mono.empty();
         }
 
-        return Mono.fromRunnable(() -> mailSender.send(buildMessage(booking, type)))
-                .then()
-                .doOnError(ex -> log.error("Failed to send booking email", ex))
-                .onErrorResume(ex -> Mono.empty());
+        // only queues the message, the SMTP round trip happens on the dispatcher's threads
+        return Mono.fromRunnable(() -> mailDispatcher.submit(buildMessage(booking, type)));
     }
 
     private SimpleMailMessage buildMessage(Booking booking, BookingEventType type) {
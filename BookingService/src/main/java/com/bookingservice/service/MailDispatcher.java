@@ -0,0 +1,150 @@
+package com.bookingservice.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Sends booking mails off the request path. Messages go into a bounded queue
+ * and a small pool of worker threads drains it in batches; each batch is one
+ * {@link JavaMailSender#send(SimpleMailMessage...)} call, so every message in
+ * it goes over the same connected SMTP transport. When the queue is full new
+ * messages are dropped and counted rather than slowing bookings down.
+ * With booking.email.enabled off no worker is started and nothing is queued.
+ */
+@Component
+public class MailDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(MailDispatcher.class);
+
+    private static final long POLL_MILLIS = 250;
+
+    private final JavaMailSender mailSender;
+    private final boolean enabled;
+    private final BlockingQueue<SimpleMailMessage> queue;
+    private final int workerCount;
+    private final int batchSize;
+    private final ExecutorService workers;
+
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Counter droppedCounter;
+
+    private volatile boolean running;
+
+    public MailDispatcher(JavaMailSender mailSender,
+                          @Value("${booking.email.enabled:false}") boolean enabled,
+                          @Value("${booking.email.dispatch.queue-capacity:1000}") int queueCapacity,
+                          @Value("${booking.email.dispatch.workers:2}") int workerCount,
+                          @Value("${booking.email.dispatch.batch-size:20}") int batchSize,
+                          MeterRegistry meterRegistry) {
+        this.mailSender = mailSender;
+        this.enabled = enabled;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.workerCount = workerCount;
+        this.batchSize = batchSize;
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("mail-dispatch-");
+        threadFactory.setDaemon(true);
+        this.workers = Executors.newFixedThreadPool(workerCount, threadFactory);
+
+        this.sentCounter = meterRegistry.counter("booking.email.sent");
+        this.failedCounter = meterRegistry.counter("booking.email.failed");
+        this.droppedCounter = meterRegistry.counter("booking.email.dropped");
+        Gauge.builder("booking.email.queue.size", queue, BlockingQueue::size)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::drainLoop);
+        }
+    }
+
+    // workers finish what is already queued before they exit
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        workers.shutdown();
+        if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+    }
+
+    // never blocks the caller, returns false when the message was dropped
+    public boolean submit(SimpleMailMessage message) {
+        if (!enabled) {
+            return false;
+        }
+        if (queue.offer(message)) {
+            return true;
+        }
+        droppedCounter.increment();
+        log.warn("Mail queue full, dropping booking email to {}", (Object) message.getTo());
+        return false;
+    }
+
+    private void drainLoop() {
+        List<SimpleMailMessage> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                SimpleMailMessage first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                send(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(List<SimpleMailMessage> batch) {
+        try {
+            mailSender.send(batch.toArray(SimpleMailMessage[]::new));
+            sentCounter.increment(batch.size());
+        } catch (MailSendException ex) {
+            int failed = ex.getFailedMessages().isEmpty() ? batch.size() : ex.getFailedMessages().size();
+            failedCounter.increment(failed);
+            sentCounter.increment((double) batch.size() - failed);
+            log.error("Failed to send {} of {} booking emails", failed, batch.size(), ex);
+        } catch (MailException ex) {
+            failedCounter.increment(batch.size());
+            log.error("Failed to send {} booking emails", batch.size(), ex);
+        } catch (RuntimeException ex) {
+            // anything else from the sender must not end the worker, nobody would drain the queue after it
+            failedCounter.increment(batch.size());
+            log.error("Unexpected error sending {} booking emails", batch.size(), ex);
+        }
+    }
+}
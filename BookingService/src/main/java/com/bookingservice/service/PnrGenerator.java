@@ -0,0 +1,10 @@
+package com.bookingservice.service;
+
+// source of booking PNRs: 6 characters from [0-9A-Z]
+public interface PnrGenerator {
+
+    String next();
+
+    // called when a generated PNR was already taken, so the following ones come from somewhere else
+    void reseed();
+}
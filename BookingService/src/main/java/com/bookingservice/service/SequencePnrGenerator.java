@@ -0,0 +1,82 @@
+package com.bookingservice.service;
+
+import java.security.SecureRandom;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds PNRs from a 31 bit value, which always fits in six base-36
+ * characters (36^6 > 2^31): 5 bits of node id and a 26 bit per-node
+ * sequence. The value is scrambled with an odd multiplier, a bijection on
+ * 31 bits, so consecutive bookings don't get guessable neighbouring PNRs
+ * while distinct values still give distinct PNRs.
+ *
+ * The node id has to be configured, one per running instance, so nodes never
+ * share a value range. The sequence starts at a random point on every start,
+ * so restarts of a node land away from each other instead of on a shared
+ * clock-derived run. Anything that still collides is caught by the unique PNR
+ * indexes, and {@link #reseed} jumps to a fresh random point, since the
+ * values after a taken one are likely taken as well.
+ */
+@Component
+public class SequencePnrGenerator implements PnrGenerator {
+
+    static final int NODE_BITS = 5;
+    static final int SEQUENCE_BITS = 26;
+
+    private static final int NODE_MASK = (1 << NODE_BITS) - 1;
+    private static final int SEQUENCE_MASK = (1 << SEQUENCE_BITS) - 1;
+    private static final int VALUE_MASK = (1 << (NODE_BITS + SEQUENCE_BITS)) - 1;
+    private static final int MULTIPLIER = 0x5DEECE6D;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+    private static final int LENGTH = 6;
+
+    private final int nodePrefix;
+    private final AtomicInteger sequence;
+    private final Random random;
+
+    @Autowired
+    public SequencePnrGenerator(@Value("${booking.pnr.node-id}") int nodeId) {
+        this(nodeId, new SecureRandom());
+    }
+
+    public SequencePnrGenerator(int nodeId, Random random) {
+        this(nodeId, random.nextInt(SEQUENCE_MASK + 1), random);
+    }
+
+    // a fixed start, for tests
+    public SequencePnrGenerator(int nodeId, int start) {
+        this(nodeId, start, new SecureRandom());
+    }
+
+    private SequencePnrGenerator(int nodeId, int start, Random random) {
+        if (nodeId < 0 || nodeId > NODE_MASK) {
+            throw new IllegalArgumentException("booking.pnr.node-id must be between 0 and " + NODE_MASK);
+        }
+        this.nodePrefix = nodeId << SEQUENCE_BITS;
+        this.sequence = new AtomicInteger(start);
+        this.random = random;
+    }
+
+    @Override
+    public String next() {
+        int value = nodePrefix | (sequence.getAndIncrement() & SEQUENCE_MASK);
+        int scrambled = (value * MULTIPLIER) & VALUE_MASK;
+
+        char[] pnr = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            pnr[i] = ALPHABET[scrambled % 36];
+            scrambled /= 36;
+        }
+        return new String(pnr);
+    }
+
+    @Override
+    public void reseed() {
+        sequence.set(random.nextInt(SEQUENCE_MASK + 1));
+    }
+}
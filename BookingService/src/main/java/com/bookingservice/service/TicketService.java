@@ -34,12 +34,9 @@ public class TicketService {
             return Mono.error(new ValidationException("PNR must be alphanumeric"));
         }
 
-        return bookingRepository.findByPnrOutbound(pnr)
-                .switchIfEmpty(
-                        bookingRepository.findByPnrReturn(pnr)
-                                .switchIfEmpty(Mono.error(
-                                        new ResourceNotFoundException("PNR not found")
-                                ))
-                );
+        return bookingRepository.findFirstByPnrOutboundOrPnrReturn(pnr, pnr)
+                .switchIfEmpty(Mono.error(
+                        new ResourceNotFoundException("PNR not found")
+                ));
     }
 }
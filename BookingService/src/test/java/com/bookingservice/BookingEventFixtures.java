@@ -0,0 +1,34 @@
+package com.bookingservice;
+
+import java.time.Instant;
+
+import com.bookingservice.model.BookingEvent;
+import com.bookingservice.model.BookingEventType;
+import com.bookingservice.model.BookingStatus;
+import com.bookingservice.model.TripType;
+
+// booking events shared by the serialization tests and benchmarks, so both measure the same payload
+public final class BookingEventFixtures {
+
+    private BookingEventFixtures() {
+    }
+
+    // every field set, round trip with both PNRs and a nanosecond timestamp
+    public static BookingEvent sampleEvent() {
+        BookingEvent event = new BookingEvent();
+        event.setEventId("5f0c6a8e-2f8b-4b7e-9f57-2d1c3c1e9a41");
+        event.setEventType(BookingEventType.BOOKED);
+        event.setBookingId("6650f1c2a9e4b35d7c0e1f2a");
+        event.setPnrOutbound("K7Q2ZD");
+        event.setPnrReturn("M3X9PA");
+        event.setOutboundFlightId("6650f0a1a9e4b35d7c0e1e11");
+        event.setReturnFlightId("6650f0a1a9e4b35d7c0e1e12");
+        event.setContactName("Jane Doe");
+        event.setContactEmail("jane.doe@example.com");
+        event.setTotalPassengers(3);
+        event.setStatus(BookingStatus.CONFIRMED);
+        event.setTripType(TripType.ROUND_TRIP);
+        event.setOccurredAt(Instant.parse("2024-05-20T10:15:30.123456789Z"));
+        return event;
+    }
+}
@@ -1,6 +1,9 @@
 package com.bookingservice;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -19,6 +22,7 @@ import org.springframework.kafka.support.SendResult;
 import com.bookingservice.model.BookingEvent;
 import com.bookingservice.service.BookingEventProducer;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import reactor.test.StepVerifier;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +31,8 @@ class BookingEventProducerTest {
     @Mock
     KafkaTemplate<String, BookingEvent> kafkaTemplate;
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @Test
     void publishesEvent() {
         CompletableFuture<SendResult<String, BookingEvent>> future =
@@ -35,13 +41,54 @@ class BookingEventProducerTest {
                                 new org.apache.kafka.clients.producer.ProducerRecord<>("booking-events", new BookingEvent()),
                                 new RecordMetadata(new TopicPartition("booking-events", 0), 0L, 0L, 0L, 0L, 0, 0)));
 
-        when(kafkaTemplate.send(any(), any())).thenReturn(future);
+        when(kafkaTemplate.send(any(), any(), any())).thenReturn(future);
 
-        BookingEventProducer producer = new BookingEventProducer(kafkaTemplate, "booking-events");
+        BookingEventProducer producer =
+                new BookingEventProducer(kafkaTemplate, "booking-events", "flight", meterRegistry);
 
-        StepVerifier.create(producer.publish(new BookingEvent()))
+        StepVerifier.create(producer.publish(event()))
                 .verifyComplete();
 
-        verify(kafkaTemplate, times(1)).send(any(), any());
+        verify(kafkaTemplate, times(1)).send(eq("booking-events"), eq("F1"), any());
+        assertEquals(1, meterRegistry.get("booking.kafka.send")
+                .tag("topic", "booking-events").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void keysByBookingWhenConfigured() {
+        when(kafkaTemplate.send(any(), any(), any())).thenReturn(new CompletableFuture<>());
+
+        new BookingEventProducer(kafkaTemplate, "booking-events", "booking", meterRegistry)
+                .publish(event());
+
+        verify(kafkaTemplate).send(eq("booking-events"), eq("B1"), any());
+    }
+
+    @Test
+    void failedSendIsTimedAndPropagated() {
+        when(kafkaTemplate.send(any(), any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker down")));
+
+        BookingEventProducer producer =
+                new BookingEventProducer(kafkaTemplate, "booking-events", "flight", meterRegistry);
+
+        StepVerifier.create(producer.publish(event()))
+                .verifyError(RuntimeException.class);
+
+        assertEquals(1, meterRegistry.get("booking.kafka.send")
+                .tag("outcome", "failure").timer().count());
+    }
+
+    @Test
+    void unknownKeyModeIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new BookingEventProducer(kafkaTemplate, "booking-events", "passenger", meterRegistry));
+    }
+
+    private BookingEvent event() {
+        BookingEvent event = new BookingEvent();
+        event.setBookingId("B1");
+        event.setOutboundFlightId("F1");
+        return event;
     }
 }
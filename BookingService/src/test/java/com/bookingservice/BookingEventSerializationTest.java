@@ -0,0 +1,101 @@
+package com.bookingservice;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static com.bookingservice.BookingEventFixtures.sampleEvent;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import com.bookingservice.kafka.BookingEventBinarySerializer;
+import com.bookingservice.kafka.BookingEventDeserializer;
+import com.bookingservice.model.BookingEvent;
+
+class BookingEventSerializationTest {
+
+    private final BookingEventBinarySerializer binary = new BookingEventBinarySerializer();
+    private final JsonSerializer<BookingEvent> json = new JsonSerializer<BookingEvent>().noTypeInfo();
+    private final BookingEventDeserializer deserializer = new BookingEventDeserializer();
+
+    @Test
+    void binaryRoundTripKeepsEveryField() {
+        BookingEvent event = sampleEvent();
+        RecordHeaders headers = new RecordHeaders();
+
+        BookingEvent decoded = deserializer.deserialize("booking-events", headers,
+                binary.serialize("booking-events", headers, event));
+
+        assertEquals("binary", header(headers, BookingEventBinarySerializer.FORMAT_HEADER));
+        assertEquals("1", header(headers, BookingEventBinarySerializer.SCHEMA_VERSION_HEADER));
+        assertEquals(event.getEventId(), decoded.getEventId());
+        assertEquals(event.getBookingId(), decoded.getBookingId());
+        assertEquals(event.getPnrOutbound(), decoded.getPnrOutbound());
+        assertEquals(event.getPnrReturn(), decoded.getPnrReturn());
+        assertEquals(event.getOutboundFlightId(), decoded.getOutboundFlightId());
+        assertEquals(event.getReturnFlightId(), decoded.getReturnFlightId());
+        assertEquals(event.getContactName(), decoded.getContactName());
+        assertEquals(event.getContactEmail(), decoded.getContactEmail());
+        assertEquals(event.getTotalPassengers(), decoded.getTotalPassengers());
+        assertEquals(event.getEventType(), decoded.getEventType());
+        assertEquals(event.getStatus(), decoded.getStatus());
+        assertEquals(event.getTripType(), decoded.getTripType());
+        assertEquals(event.getOccurredAt(), decoded.getOccurredAt());
+    }
+
+    @Test
+    void binaryRoundTripKeepsNulls() {
+        BookingEvent event = new BookingEvent();
+        event.setBookingId("B1");
+        RecordHeaders headers = new RecordHeaders();
+
+        BookingEvent decoded = deserializer.deserialize("booking-events", headers,
+                binary.serialize("booking-events", headers, event));
+
+        assertEquals("B1", decoded.getBookingId());
+        assertNull(decoded.getPnrReturn());
+        assertNull(decoded.getEventType());
+        assertNull(decoded.getOccurredAt());
+    }
+
+    @Test
+    void recordsWithoutFormatHeaderAreReadAsJson() {
+        BookingEvent event = sampleEvent();
+        RecordHeaders headers = new RecordHeaders();
+
+        BookingEvent decoded = deserializer.deserialize("booking-events", headers,
+                json.serialize("booking-events", headers, event));
+
+        assertEquals(event.getBookingId(), decoded.getBookingId());
+        assertEquals(event.getOccurredAt(), decoded.getOccurredAt());
+    }
+
+    @Test
+    void unknownSchemaVersionIsRejected() {
+        RecordHeaders headers = new RecordHeaders();
+        byte[] data = binary.serialize("booking-events", headers, sampleEvent());
+        headers.remove(BookingEventBinarySerializer.SCHEMA_VERSION_HEADER)
+                .add(BookingEventBinarySerializer.SCHEMA_VERSION_HEADER, "99".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(SerializationException.class,
+                () -> deserializer.deserialize("booking-events", headers, data));
+    }
+
+    @Test
+    void binaryIsSmallerThanJson() {
+        BookingEvent event = sampleEvent();
+        int binarySize = binary.serialize("booking-events", new RecordHeaders(), event).length;
+        int jsonSize = json.serialize("booking-events", new RecordHeaders(), event).length;
+
+        assertTrue(binarySize * 2 < jsonSize, binarySize + " vs " + jsonSize);
+    }
+
+    private static String header(RecordHeaders headers, String key) {
+        return new String(headers.lastHeader(key).value(), StandardCharsets.UTF_8);
+    }
+}
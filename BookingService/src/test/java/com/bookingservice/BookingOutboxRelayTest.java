@@ -0,0 +1,338 @@
+package com.bookingservice;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+
+import com.bookingservice.model.Booking;
+import com.bookingservice.model.BookingEvent;
+import com.bookingservice.model.BookingEventType;
+import com.bookingservice.model.BookingStatus;
+import com.bookingservice.repository.BookingRepository;
+import com.bookingservice.repository.BookingRepositoryCustomImpl;
+import com.bookingservice.service.BookingEventProducer;
+import com.bookingservice.service.BookingOutboxRelay;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * The relay against the real repository on an in-process server that speaks
+ * the Mongo wire protocol, so the lease, attempt and park updates are the
+ * ones the relay actually sends.
+ */
+@EmbeddedKafka(partitions = 1, topics = BookingOutboxRelayTest.TOPIC)
+class BookingOutboxRelayTest {
+
+    static final String TOPIC = "booking-events";
+
+    static MongoServer server;
+
+    static MongoClient client;
+
+    static ReactiveMongoTemplate template;
+
+    private BookingRepository bookingRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeAll
+    static void startServer() {
+        server = new MongoServer(new MemoryBackend());
+        client = MongoClients.create(server.bindAndGetConnectionString());
+        template = new ReactiveMongoTemplate(client, "outboxRelay");
+    }
+
+    @AfterAll
+    static void stopServer() {
+        client.close();
+        server.shutdown();
+    }
+
+    @BeforeEach
+    void setup() {
+        template.dropCollection(Booking.class).block();
+        bookingRepository = new ReactiveMongoRepositoryFactory(template)
+                .getRepository(BookingRepository.class,
+                        RepositoryFragments.just(new BookingRepositoryCustomImpl(template)));
+    }
+
+    @Test
+    void relaysPendingEventsInOrderAndClearsTheOutbox(EmbeddedKafkaBroker broker) {
+        Map<String, Object> producerProps = KafkaTestUtils.producerProps(broker);
+        producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        DefaultKafkaProducerFactory<String, BookingEvent> producerFactory =
+                new DefaultKafkaProducerFactory<>(producerProps);
+        BookingEventProducer producer = new BookingEventProducer(
+                new KafkaTemplate<>(producerFactory), TOPIC, "booking", new SimpleMeterRegistry());
+
+        Booking booking = booking("B1",
+                event("e1", BookingEventType.BOOKED),
+                event("e2", BookingEventType.CANCELLED));
+        template.insert(booking).block();
+
+        relay(producer, 10).relay().block(Duration.ofSeconds(30));
+        producerFactory.destroy();
+
+        Booking relayed = stored("B1");
+        assertTrue(relayed.getPendingEvents().isEmpty());
+        assertFalse(relayed.isOutboxPending());
+        assertNull(relayed.getOutboxLockedUntil());
+        assertEquals(0, relayed.getOutboxAttempts());
+
+        Map<String, Object> consumerProps = KafkaTestUtils.consumerProps("outbox-test", "false", broker);
+        consumerProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        try (Consumer<String, String> consumer = new DefaultKafkaConsumerFactory<>(
+                consumerProps, new StringDeserializer(), new StringDeserializer()).createConsumer()) {
+            broker.consumeFromAnEmbeddedTopic(consumer, TOPIC);
+
+            List<String> values = new ArrayList<>();
+            for (ConsumerRecord<String, String> record
+                    : KafkaTestUtils.getRecords(consumer, Duration.ofSeconds(10), 2)) {
+                assertEquals("B1", record.key());
+                values.add(record.value());
+            }
+
+            assertEquals(2, values.size());
+            assertTrue(values.get(0).contains("\"eventId\":\"e1\""));
+            assertTrue(values.get(1).contains("\"eventId\":\"e2\""));
+        }
+    }
+
+    @Test
+    void failedSendKeepsEventsInTheOutboxAndBacksOff() {
+        BookingEventProducer producer = failingProducer();
+        template.insert(booking("B2", event("e3", BookingEventType.BOOKED))).block();
+
+        Instant before = Instant.now();
+        relay(producer, 10).relay().block(Duration.ofSeconds(5));
+
+        Booking failed = stored("B2");
+        assertEquals(List.of("e3"), eventIds(failed.getPendingEvents()));
+        assertTrue(failed.isOutboxPending());
+        assertEquals(1, failed.getOutboxAttempts());
+        assertTrue(failed.getOutboxLockedUntil().isAfter(before.plusSeconds(4)));
+
+        // still backing off, so the next run leaves it alone
+        relay(producer, 10).relay().block(Duration.ofSeconds(5));
+        verify(producer, times(1)).publish(any());
+    }
+
+    @Test
+    void bookingLeasedByAnotherRelayIsSkipped() {
+        BookingEventProducer producer = mock(BookingEventProducer.class);
+        Booking booking = booking("B3", event("e4", BookingEventType.BOOKED));
+        booking.setOutboxLockedUntil(Instant.now().plusSeconds(30));
+        template.insert(booking).block();
+
+        relay(producer, 10).relay().block(Duration.ofSeconds(5));
+
+        verify(producer, never()).publish(any());
+        assertEquals(List.of("e4"), eventIds(stored("B3").getPendingEvents()));
+    }
+
+    @Test
+    void expiredLeaseIsTakenOver() {
+        BookingEventProducer producer = mock(BookingEventProducer.class);
+        when(producer.publish(any())).thenReturn(Mono.empty());
+        Booking booking = booking("B4", event("e5", BookingEventType.BOOKED));
+        booking.setOutboxLockedUntil(Instant.now().minusSeconds(1));
+        template.insert(booking).block();
+
+        relay(producer, 10).relay().block(Duration.ofSeconds(5));
+
+        verify(producer).publish(any());
+        assertTrue(stored("B4").getPendingEvents().isEmpty());
+    }
+
+    @Test
+    void twoRelaysRunningTogetherSendABookingOnce() {
+        BookingEventProducer producer = mock(BookingEventProducer.class);
+        when(producer.publish(any())).thenReturn(Mono.delay(Duration.ofMillis(50)).then());
+        template.insert(booking("B5", event("e6", BookingEventType.BOOKED))).block();
+
+        Mono.when(relay(producer, 10).relay(), relay(producer, 10).relay()).block(Duration.ofSeconds(5));
+
+        verify(producer, times(1)).publish(any());
+        assertTrue(stored("B5").getPendingEvents().isEmpty());
+    }
+
+    @Test
+    void eventsAreParkedAfterMaxAttempts() {
+        BookingEventProducer producer = failingProducer();
+        template.insert(booking("B6", event("e7", BookingEventType.BOOKED))).block();
+        template.insert(booking("B7", event("e8", BookingEventType.BOOKED))).block();
+
+        BookingOutboxRelay relay = new BookingOutboxRelay(bookingRepository, producer, 100,
+                Duration.ofSeconds(30), 2, Duration.ZERO, Duration.ZERO, meterRegistry);
+        relay.relay().block(Duration.ofSeconds(5));
+        assertEquals(1, stored("B6").getOutboxAttempts());
+        relay.relay().block(Duration.ofSeconds(5));
+
+        Booking parked = stored("B6");
+        assertTrue(parked.getPendingEvents().isEmpty());
+        assertEquals(List.of("e7"), eventIds(parked.getParkedEvents()));
+        assertFalse(parked.isOutboxPending());
+        assertEquals(0, parked.getOutboxAttempts());
+        assertNull(parked.getOutboxLockedUntil());
+        assertEquals(2.0, meterRegistry.counter("booking.outbox.parked").count());
+
+        // nothing left to relay, the parked events are not retried
+        relay.relay().block(Duration.ofSeconds(5));
+        verify(producer, times(4)).publish(any());
+    }
+
+    @Test
+    void successResetsTheAttemptCount() {
+        BookingEventProducer producer = mock(BookingEventProducer.class);
+        when(producer.publish(any()))
+                .thenReturn(Mono.error(new RuntimeException("broker down")))
+                .thenReturn(Mono.empty());
+        template.insert(booking("B8", event("e9", BookingEventType.BOOKED))).block();
+
+        BookingOutboxRelay relay = new BookingOutboxRelay(bookingRepository, producer, 100,
+                Duration.ofSeconds(30), 3, Duration.ZERO, Duration.ZERO, meterRegistry);
+        relay.relay().block(Duration.ofSeconds(5));
+        relay.relay().block(Duration.ofSeconds(5));
+
+        Booking relayed = stored("B8");
+        assertTrue(relayed.getPendingEvents().isEmpty());
+        assertEquals(0, relayed.getOutboxAttempts());
+        assertNull(relayed.getParkedEvents());
+    }
+
+    @Test
+    void drainedBookingsAreNotPolledAgain() {
+        BookingEventProducer producer = mock(BookingEventProducer.class);
+        when(producer.publish(any())).thenReturn(Mono.empty());
+        template.insert(booking("B9", event("e10", BookingEventType.BOOKED))).block();
+
+        relay(producer, 10).relay().block(Duration.ofSeconds(5));
+
+        assertEquals(0L, bookingRepository.findWithPendingEvents(Instant.now(), PageRequest.of(0, 10))
+                .count().block());
+    }
+
+    @Test
+    void bookingMarkedPendingWithAnEmptyQueueIsCleared() {
+        BookingEventProducer producer = mock(BookingEventProducer.class);
+        Booking booking = booking("B10");
+        booking.setPendingEvents(new ArrayList<>());
+        booking.setOutboxPending(true);
+        template.insert(booking).block();
+
+        relay(producer, 10).relay().block(Duration.ofSeconds(5));
+
+        verify(producer, never()).publish(any());
+        assertFalse(stored("B10").isOutboxPending());
+    }
+
+    @Test
+    void cancelLeavesEventsTheRelayRemovedSinceTheRead() {
+        BookingEventProducer producer = mock(BookingEventProducer.class);
+        when(producer.publish(any())).thenReturn(Mono.empty());
+        Booking booking = booking("B11", event("e11", BookingEventType.BOOKED));
+        booking.setStatus(BookingStatus.CONFIRMED);
+        template.insert(booking).block();
+        Booking readBeforeTheRelay = stored("B11");
+
+        relay(producer, 10).relay().block(Duration.ofSeconds(5));
+        BookingEvent cancelled = event("e12", BookingEventType.CANCELLED);
+        cancelled.setBookingId("B11");
+        bookingRepository.cancel(readBeforeTheRelay.getBookingId(), cancelled).block();
+
+        Booking stored = stored("B11");
+        assertEquals(BookingStatus.CANCELLED, stored.getStatus());
+        assertEquals(List.of("e12"), eventIds(stored.getPendingEvents()));
+        assertTrue(stored.isOutboxPending());
+        assertNull(bookingRepository.cancel("B11", cancelled).block());
+    }
+
+    @Test
+    void maxAttemptsBelowOneIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new BookingOutboxRelay(bookingRepository,
+                mock(BookingEventProducer.class), 100, Duration.ofSeconds(30), 0, Duration.ZERO, Duration.ZERO,
+                meterRegistry));
+    }
+
+    private BookingOutboxRelay relay(BookingEventProducer producer, int maxAttempts) {
+        return new BookingOutboxRelay(bookingRepository, producer, 100, Duration.ofSeconds(30), maxAttempts,
+                Duration.ofSeconds(5), Duration.ofMinutes(5), meterRegistry);
+    }
+
+    private BookingEventProducer failingProducer() {
+        BookingEventProducer producer = mock(BookingEventProducer.class);
+        when(producer.publish(any())).thenReturn(Mono.error(new RuntimeException("broker down")));
+        return producer;
+    }
+
+    private Booking stored(String id) {
+        return template.findById(id, Booking.class).block();
+    }
+
+    private List<String> eventIds(List<BookingEvent> events) {
+        return events.stream().map(BookingEvent::getEventId).toList();
+    }
+
+    private Booking booking(String id, BookingEvent... events) {
+        Booking booking = new Booking();
+        booking.setBookingId(id);
+        for (BookingEvent event : events) {
+            event.setBookingId(id);
+            booking.addPendingEvent(event);
+        }
+        return booking;
+    }
+
+    private BookingEvent event(String eventId, BookingEventType type) {
+        BookingEvent event = new BookingEvent();
+        event.setEventId(eventId);
+        event.setEventType(type);
+        event.setOutboundFlightId("F1");
+        event.setOccurredAt(Instant.now());
+        return event;
+    }
+}
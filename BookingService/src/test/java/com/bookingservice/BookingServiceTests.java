@@ -1,14 +1,20 @@
 package com.bookingservice;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -17,9 +23,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Pageable;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import com.bookingservice.client.FlightClient;
@@ -27,6 +36,7 @@ import com.bookingservice.client.FlightDto;
 import com.bookingservice.exceptions.ResourceNotFoundException;
 import com.bookingservice.exceptions.ValidationException;
 import com.bookingservice.model.Booking;
+import com.bookingservice.model.BookingEventType;
 import com.bookingservice.model.BookingStatus;
 import com.bookingservice.model.Gender;
 import com.bookingservice.model.TripType;
@@ -34,9 +44,10 @@ import com.bookingservice.repository.BookingRepository;
 import com.bookingservice.repository.PassengerRepository;
 import com.bookingservice.requests.BookingRequest;
 import com.bookingservice.requests.PassengerRequest;
-import com.bookingservice.service.BookingEventProducer;
 import com.bookingservice.service.BookingService;
 import com.bookingservice.service.EmailService;
+import com.bookingservice.service.PnrGenerator;
+import com.bookingservice.service.SequencePnrGenerator;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -55,12 +66,12 @@ class BookingServiceTests {
     @Mock
     FlightClient flightClient;
 
-    @Mock
-    BookingEventProducer eventProducer;
-
     @Mock
     EmailService emailService;
 
+    @Spy
+    PnrGenerator pnrGenerator = new SequencePnrGenerator(0, 0);
+
     @InjectMocks
     BookingService bookingService;
 
@@ -79,7 +90,6 @@ class BookingServiceTests {
         flightDto.setFlightId("F1");
         flightDto.setAvailableSeats(5);
 
-        when(eventProducer.publish(any())).thenReturn(Mono.empty());
         when(emailService.sendBookingNotification(any(), any())).thenReturn(Mono.empty());
         when(passengerRepository.saveAll(any(Iterable.class))).thenReturn(Flux.empty());
         when(passengerRepository.saveAll(any(org.reactivestreams.Publisher.class))).thenReturn(Flux.empty());
@@ -108,14 +118,59 @@ class BookingServiceTests {
                     assertEquals(BookingStatus.CONFIRMED, b.getStatus());
                     assertNotNull(b.getPnrOutbound());
                     assertEquals(6, b.getPnrOutbound().length());
+                    assertEquals(1, b.getPendingEvents().size());
+                    assertEquals(BookingEventType.BOOKED, b.getPendingEvents().get(0).getEventType());
                 })
                 .verifyComplete();
 
         verify(flightClient, times(1)).reserveSeats("F1", 2);
-        verify(eventProducer, times(1)).publish(any());
         verify(emailService, times(1)).sendBookingNotification(any(), any());
     }
 
+    @Test
+    void bookFlight_pnrCollisionIsRetriedWithFreshPnr() {
+        when(flightClient.getFlight("F1")).thenReturn(Mono.just(flightDto));
+        when(flightClient.reserveSeats(anyString(), anyInt())).thenReturn(Mono.empty());
+        List<String> attempted = new ArrayList<>();
+        when(bookingRepository.save(any())).thenAnswer(inv -> {
+            Booking b = inv.getArgument(0);
+            attempted.add(b.getPnrOutbound());
+            return attempted.size() == 1
+                    ? Mono.error(new DuplicateKeyException("E11000 duplicate key"))
+                    : Mono.just(b);
+        });
+
+        StepVerifier.create(bookingService.bookFlight("F1", request))
+                .assertNext(b -> {
+                    assertEquals(attempted.get(1), b.getPnrOutbound());
+                    assertEquals(1, b.getPendingEvents().size());
+                    assertEquals(attempted.get(1), b.getPendingEvents().get(0).getPnrOutbound());
+                })
+                .verifyComplete();
+
+        assertNotEquals(attempted.get(0), attempted.get(1));
+        // the retry jumped away instead of taking the next value of the same run
+        SequencePnrGenerator sameStart = new SequencePnrGenerator(0, 0);
+        sameStart.next();
+        assertNotEquals(sameStart.next(), attempted.get(1));
+        verify(flightClient, never()).releaseSeats(anyString(), anyInt());
+    }
+
+    @Test
+    void bookFlight_pnrCollisionsExhaustedReleaseSeats() {
+        when(flightClient.getFlight("F1")).thenReturn(Mono.just(flightDto));
+        when(flightClient.reserveSeats(anyString(), anyInt())).thenReturn(Mono.empty());
+        when(flightClient.releaseSeats(anyString(), anyInt())).thenReturn(Mono.empty());
+        when(bookingRepository.save(any()))
+                .thenReturn(Mono.error(new DuplicateKeyException("E11000 duplicate key")));
+
+        StepVerifier.create(bookingService.bookFlight("F1", request))
+                .verifyError(DuplicateKeyException.class);
+
+        verify(bookingRepository, times(4)).save(any());
+        verify(flightClient).releaseSeats("F1", 2);
+    }
+
     @Test
     void bookFlight_notEnoughSeats() {
         flightDto.setAvailableSeats(1);
@@ -149,8 +204,7 @@ class BookingServiceTests {
         returnDto.setFlightId("F2");
         returnDto.setAvailableSeats(5);
 
-        when(flightClient.getFlight("F1")).thenReturn(Mono.just(flightDto));
-        when(flightClient.getFlight("F2")).thenReturn(Mono.just(returnDto));
+        when(flightClient.getFlights(List.of("F1", "F2"))).thenReturn(Flux.just(flightDto, returnDto));
         when(flightClient.reserveSeats(anyString(), anyInt())).thenReturn(Mono.empty());
         when(bookingRepository.save(any())).thenAnswer(inv -> {
             Booking b = inv.getArgument(0);
@@ -162,11 +216,11 @@ class BookingServiceTests {
                 .assertNext(b -> {
                     assertEquals(TripType.ROUND_TRIP, b.getTripType());
                     assertNotNull(b.getPnrReturn());
+                    assertEquals("F2", b.getPendingEvents().get(0).getReturnFlightId());
                 })
                 .verifyComplete();
 
         verify(flightClient, times(2)).reserveSeats(anyString(), anyInt());
-        verify(eventProducer, times(1)).publish(any());
         verify(emailService, times(1)).sendBookingNotification(any(), any());
     }
 
@@ -180,8 +234,7 @@ class BookingServiceTests {
         returnDto.setFlightId("F2");
         returnDto.setAvailableSeats(5);
 
-        when(flightClient.getFlight("F1")).thenReturn(Mono.just(flightDto));
-        when(flightClient.getFlight("F2")).thenReturn(Mono.just(returnDto));
+        when(flightClient.getFlights(List.of("F1", "F2"))).thenReturn(Flux.just(flightDto, returnDto));
 
         StepVerifier.create(bookingService.bookFlight("F1", request))
                 .verifyError(ValidationException.class);
@@ -209,7 +262,7 @@ class BookingServiceTests {
     void bookFlight_sideEffectsFailureIsSwallowed() {
         when(flightClient.getFlight("F1")).thenReturn(Mono.just(flightDto));
         when(flightClient.reserveSeats(anyString(), anyInt())).thenReturn(Mono.empty());
-        when(eventProducer.publish(any())).thenReturn(Mono.error(new RuntimeException("kafka down")));
+        when(emailService.sendBookingNotification(any(), any())).thenReturn(Mono.error(new RuntimeException("smtp down")));
         when(bookingRepository.save(any())).thenAnswer(inv -> {
             Booking b = inv.getArgument(0);
             ReflectionTestUtils.setField(b, "bookingId", "B3");
@@ -227,8 +280,7 @@ class BookingServiceTests {
         request.setReturnFlightId("F2");
         request.getPassengers().forEach(p -> p.setSeatReturn("R1"));
 
-        when(flightClient.getFlight("F1")).thenReturn(Mono.just(flightDto));
-        when(flightClient.getFlight("F2")).thenReturn(Mono.empty());
+        when(flightClient.getFlights(List.of("F1", "F2"))).thenReturn(Flux.just(flightDto));
 
         StepVerifier.create(bookingService.bookFlight("F1", request))
                 .verifyError(ResourceNotFoundException.class);
@@ -244,8 +296,7 @@ class BookingServiceTests {
         returnDto.setFlightId("F2");
         returnDto.setAvailableSeats(1);
 
-        when(flightClient.getFlight("F1")).thenReturn(Mono.just(flightDto));
-        when(flightClient.getFlight("F2")).thenReturn(Mono.just(returnDto));
+        when(flightClient.getFlights(List.of("F1", "F2"))).thenReturn(Flux.just(flightDto, returnDto));
 
         StepVerifier.create(bookingService.bookFlight("F1", request))
                 .verifyError(ValidationException.class);
@@ -260,13 +311,15 @@ class BookingServiceTests {
         booking.setStatus(BookingStatus.CONFIRMED);
 
         when(bookingRepository.findByPnrOutbound("PNR123")).thenReturn(Mono.just(booking));
-        when(bookingRepository.save(any())).thenReturn(Mono.just(booking));
+        when(bookingRepository.cancel(eq("B1"), any())).thenReturn(Mono.just(booking));
         when(flightClient.releaseSeats(anyString(), anyInt())).thenReturn(Mono.empty());
         StepVerifier.create(bookingService.cancelTicket("PNR123"))
                 .assertNext(map -> assertEquals("Booking cancelled", map.get("message")))
                 .verifyComplete();
 
-        verify(eventProducer, times(1)).publish(any());
+        verify(bookingRepository).cancel(eq("B1"),
+                argThat(event -> event.getEventType() == BookingEventType.CANCELLED));
+        verify(bookingRepository, never()).save(any());
         verify(emailService, times(1)).sendBookingNotification(any(), any());
     }
 
@@ -280,7 +333,7 @@ class BookingServiceTests {
         booking.setStatus(BookingStatus.CONFIRMED);
 
         when(bookingRepository.findByPnrOutbound("PNR123")).thenReturn(Mono.just(booking));
-        when(bookingRepository.save(any())).thenReturn(Mono.just(booking));
+        when(bookingRepository.cancel(eq("B1"), any())).thenReturn(Mono.just(booking));
         when(flightClient.releaseSeats(anyString(), anyInt())).thenReturn(Mono.empty());
         StepVerifier.create(bookingService.cancelTicket("PNR123"))
                 .assertNext(map -> assertEquals("Booking cancelled", map.get("message")))
@@ -321,6 +374,64 @@ class BookingServiceTests {
                 .verifyError(ValidationException.class);
     }
 
+    @Test
+    void historyPage_returnsCursorWhenMoreBookingsFollow() {
+        when(bookingRepository.findByContactEmailOrderByBookingIdAsc(eq("a@b.com"), any(Pageable.class)))
+                .thenReturn(Flux.just(bookingWithId("b1"), bookingWithId("b2"), bookingWithId("b3")));
+
+        StepVerifier.create(bookingService.getHistoryPage("a@b.com", null, 2))
+                .assertNext(page -> {
+                    assertEquals(List.of("b1", "b2"),
+                            page.getBookings().stream().map(Booking::getBookingId).toList());
+                    assertNotNull(page.getNextCursor());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void historyPage_cursorContinuesAfterLastBooking() {
+        when(bookingRepository.findByContactEmailOrderByBookingIdAsc(eq("a@b.com"), any(Pageable.class)))
+                .thenReturn(Flux.just(bookingWithId("b1"), bookingWithId("b2")));
+        String cursor = bookingService.getHistoryPage("a@b.com", null, 1).block().getNextCursor();
+
+        when(bookingRepository.findByContactEmailAndBookingIdGreaterThanOrderByBookingIdAsc(
+                eq("a@b.com"), eq("b1"), any(Pageable.class)))
+                .thenReturn(Flux.just(bookingWithId("b2")));
+
+        StepVerifier.create(bookingService.getHistoryPage("a@b.com", cursor, 1))
+                .assertNext(page -> {
+                    assertEquals("b2", page.getBookings().get(0).getBookingId());
+                    assertNull(page.getNextCursor());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void historyPage_rejectsBadCursorAndSize() {
+        StepVerifier.create(bookingService.getHistoryPage("a@b.com", "%%%", 10))
+                .verifyError(ValidationException.class);
+        StepVerifier.create(bookingService.getHistoryPage("a@b.com", null, 0))
+                .verifyError(ValidationException.class);
+        StepVerifier.create(bookingService.getHistoryPage(" ", null, 10))
+                .verifyError(ValidationException.class);
+    }
+
+    @Test
+    void streamHistory_returnsBookingsInIdOrder() {
+        when(bookingRepository.findByContactEmailOrderByBookingIdAsc("a@b.com"))
+                .thenReturn(Flux.just(bookingWithId("b1"), bookingWithId("b2")));
+
+        StepVerifier.create(bookingService.streamHistory("a@b.com"))
+                .expectNextCount(2)
+                .verifyComplete();
+    }
+
+    private Booking bookingWithId(String id) {
+        Booking booking = new Booking();
+        booking.setBookingId(id);
+        return booking;
+    }
+
     @Test
     void history_success() {
         when(bookingRepository.findByContactEmail("a@b.com"))
@@ -7,34 +7,34 @@ import static org.mockito.Mockito.verify;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 
 import com.bookingservice.model.Booking;
 import com.bookingservice.model.BookingEventType;
 import com.bookingservice.model.BookingStatus;
 import com.bookingservice.model.TripType;
 import com.bookingservice.service.EmailService;
+import com.bookingservice.service.MailDispatcher;
 
 class EmailServiceTest {
 
-    private final JavaMailSender sender = org.mockito.Mockito.mock(JavaMailSender.class);
+    private final MailDispatcher dispatcher = org.mockito.Mockito.mock(MailDispatcher.class);
 
     private EmailService service(boolean enabled, String from) {
-        return new EmailService(sender, enabled, from);
+        return new EmailService(dispatcher, enabled, from);
     }
 
     @Test
     void sendsWhenEnabledAndEmailPresent() {
         EmailService svc = service(true, "from@test.com");
         svc.sendBookingNotification(sampleBooking(), BookingEventType.BOOKED).block();
-        verify(sender, times(1)).send(any(SimpleMailMessage.class));
+        verify(dispatcher, times(1)).submit(any(SimpleMailMessage.class));
     }
 
     @Test
     void skipsWhenDisabled() {
         EmailService svc = service(false, "from@test.com");
         svc.sendBookingNotification(sampleBooking(), BookingEventType.CANCELLED).block();
-        verify(sender, never()).send(any(SimpleMailMessage.class));
+        verify(dispatcher, never()).submit(any(SimpleMailMessage.class));
     }
 
     @Test
@@ -43,7 +43,7 @@ class EmailServiceTest {
         Booking b = sampleBooking();
         b.setContactEmail(null);
         svc.sendBookingNotification(b, BookingEventType.BOOKED).block();
-        verify(sender, never()).send(any(SimpleMailMessage.class));
+        verify(dispatcher, never()).submit(any(SimpleMailMessage.class));
     }
 
     private Booking sampleBooking() {
@@ -3,6 +3,7 @@ package com.bookingservice;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import java.net.URI;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
@@ -16,10 +17,13 @@ import org.springframework.web.reactive.function.client.ExchangeFunction;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.bookingservice.client.FlightCache;
 import com.bookingservice.client.FlightClient;
 import com.bookingservice.client.FlightDto;
+import com.bookingservice.exceptions.ValidationException;
 
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
@@ -31,22 +35,33 @@ class FlightClientTest {
     void setup() {
         ExchangeFunction exchangeFunction = this::mockExchange;
         WebClient.Builder builder = WebClient.builder().exchangeFunction(exchangeFunction);
-        client = new FlightClient(builder, CircuitBreakerRegistry.ofDefaults());
+        client = new FlightClient(builder, CircuitBreakerRegistry.ofDefaults(), newCache());
+    }
+
+    private static FlightCache newCache() {
+        return new FlightCache(100, Duration.ofSeconds(5), new SimpleMeterRegistry());
     }
 
     private Mono<ClientResponse> mockExchange(ClientRequest request) {
         URI uri = request.url();
         String path = uri.getPath();
 
-        if (path.contains("/getAllFlights")) {
-            List<Map<String, Object>> flights = List.of(
-                    Map.of("flightId", "F1", "availableSeats", 3),
-                    Map.of("flightId", "F2", "availableSeats", 0));
+        if (path.contains("/getFlight/")) {
+            Map<String, Map<String, Object>> flights = Map.of(
+                    "F1", Map.of("flightId", "F1", "availableSeats", 3),
+                    "F2", Map.of("flightId", "F2", "availableSeats", 0));
+            Map<String, Object> flight = flights.get(path.substring(path.lastIndexOf('/') + 1));
+            if (flight == null) {
+                return Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND)
+                        .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                        .body("{\"error\":\"Flight not found\"}")
+                        .build());
+            }
             String json;
             try {
-                json = new com.fasterxml.jackson.databind.ObjectMapper().writeValueAsString(flights);
+                json = new com.fasterxml.jackson.databind.ObjectMapper().writeValueAsString(flight);
             } catch (Exception e) {
-                json = "[]";
+                json = "{}";
             }
             return Mono.just(ClientResponse.create(HttpStatus.OK)
                     .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
@@ -54,6 +69,13 @@ class FlightClientTest {
                     .build());
         }
 
+        if (path.contains("/getFlights")) {
+            return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                    .body("[{\"flightId\":\"F1\",\"availableSeats\":3},{\"flightId\":\"F2\",\"availableSeats\":0}]")
+                    .build());
+        }
+
         if (path.contains("/reserve") || path.contains("/release")) {
             // simulate success
             return Mono.just(ClientResponse.create(HttpStatus.OK)
@@ -80,6 +102,20 @@ class FlightClientTest {
                 .verifyComplete();
     }
 
+    @Test
+    void getFlightsFetchesAllIdsInOneCall() {
+        StepVerifier.create(client.getFlights(List.of("F1", "F2")))
+                .assertNext(dto -> assertEquals("F1", dto.getFlightId()))
+                .assertNext(dto -> assertEquals("F2", dto.getFlightId()))
+                .verifyComplete();
+    }
+
+    @Test
+    void getFlightsWithNoIdsSkipsTheCall() {
+        StepVerifier.create(client.getFlights(List.of()))
+                .verifyComplete();
+    }
+
     @Test
     void reserveSeatsCompletes() {
         StepVerifier.create(client.reserveSeats("F1", 2))
@@ -91,7 +127,7 @@ class FlightClientTest {
         // force error path by using unmatched path to hit default 500
         ExchangeFunction errorExchange = req -> Mono.just(ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).build());
         FlightClient errorClient = new FlightClient(WebClient.builder().exchangeFunction(errorExchange),
-                CircuitBreakerRegistry.ofDefaults());
+                CircuitBreakerRegistry.ofDefaults(), newCache());
 
         StepVerifier.create(errorClient.releaseSeats("F_ERR", 1))
                 .verifyComplete();
@@ -101,7 +137,7 @@ class FlightClientTest {
     void getFlightReturnsUnavailableOnError() {
         ExchangeFunction errorExchange = req -> Mono.error(new RuntimeException("down"));
         FlightClient errorClient = new FlightClient(WebClient.builder().exchangeFunction(errorExchange),
-                CircuitBreakerRegistry.ofDefaults());
+                CircuitBreakerRegistry.ofDefaults(), newCache());
 
         StepVerifier.create(errorClient.getFlight("ANY"))
                 .expectErrorMatches(ex ->
@@ -115,7 +151,7 @@ class FlightClientTest {
     void reserveSeatsPropagatesFailure() {
         ExchangeFunction errorExchange = req -> Mono.error(new RuntimeException("down"));
         FlightClient errorClient = new FlightClient(WebClient.builder().exchangeFunction(errorExchange),
-                CircuitBreakerRegistry.ofDefaults());
+                CircuitBreakerRegistry.ofDefaults(), newCache());
 
         StepVerifier.create(errorClient.reserveSeats("F1", 1))
                 .expectErrorMatches(ex ->
@@ -124,4 +160,20 @@ class FlightClientTest {
                                 && "Seat reservation failed".equals(rsx.getReason()))
                 .verify();
     }
+
+    @Test
+    void reserveSeatsSoldOutIsValidationError() {
+        ExchangeFunction soldOut = req -> Mono.just(ClientResponse.create(HttpStatus.BAD_REQUEST)
+                .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                .body("{\"error\":\"Not enough seats\"}")
+                .build());
+        FlightClient soldOutClient = new FlightClient(WebClient.builder().exchangeFunction(soldOut),
+                CircuitBreakerRegistry.ofDefaults(), newCache());
+
+        StepVerifier.create(soldOutClient.reserveSeats("F1", 1))
+                .expectErrorMatches(ex ->
+                        ex instanceof ValidationException
+                                && "Not enough seats".equals(ex.getMessage()))
+                .verify();
+    }
 }
@@ -0,0 +1,115 @@
+package com.bookingservice;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import com.bookingservice.service.MailDispatcher;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class MailDispatcherTest {
+
+    private final JavaMailSender sender = mock(JavaMailSender.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private MailDispatcher dispatcher(int capacity, int batchSize) {
+        return new MailDispatcher(sender, true, capacity, 1, batchSize, meterRegistry);
+    }
+
+    @Test
+    void queuedMessagesAreSentTogetherInOneBatch() throws Exception {
+        MailDispatcher dispatcher = dispatcher(10, 10);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(dispatcher.submit(message("user" + i + "@example.com")));
+        }
+
+        dispatcher.start();
+        ArgumentCaptor<SimpleMailMessage[]> batch = ArgumentCaptor.forClass(SimpleMailMessage[].class);
+        verify(sender, timeout(2000)).send(batch.capture());
+        dispatcher.stop();
+
+        assertEquals(5, batch.getValue().length);
+        assertEquals(5.0, meterRegistry.get("booking.email.sent").counter().count());
+    }
+
+    @Test
+    void submitDropsWhenQueueIsFull() {
+        MailDispatcher dispatcher = dispatcher(2, 10);
+
+        assertTrue(dispatcher.submit(message("a@example.com")));
+        assertTrue(dispatcher.submit(message("b@example.com")));
+        assertFalse(dispatcher.submit(message("c@example.com")));
+
+        assertEquals(1.0, meterRegistry.get("booking.email.dropped").counter().count());
+        assertEquals(2.0, meterRegistry.get("booking.email.queue.size").gauge().value());
+    }
+
+    @Test
+    void failedSendsAreCountedAndWorkerKeepsRunning() throws Exception {
+        SimpleMailMessage bad = message("bad@example.com");
+        doThrow(new MailSendException(Map.of(bad, new RuntimeException("rejected"))))
+                .when(sender).send(any(SimpleMailMessage[].class));
+
+        MailDispatcher dispatcher = dispatcher(10, 10);
+        dispatcher.submit(bad);
+        dispatcher.submit(message("good@example.com"));
+        dispatcher.start();
+        dispatcher.stop();
+
+        assertEquals(1.0, meterRegistry.get("booking.email.failed").counter().count());
+        assertEquals(1.0, meterRegistry.get("booking.email.sent").counter().count());
+    }
+
+    @Test
+    void workerSurvivesAnUnexpectedException() throws Exception {
+        doThrow(new IllegalStateException("transport closed"))
+                .doNothing()
+                .when(sender).send(any(SimpleMailMessage[].class));
+
+        MailDispatcher dispatcher = dispatcher(10, 1);
+        dispatcher.submit(message("first@example.com"));
+        dispatcher.submit(message("second@example.com"));
+        dispatcher.start();
+        verify(sender, timeout(2000).times(2)).send(any(SimpleMailMessage[].class));
+        dispatcher.stop();
+
+        assertEquals(1.0, meterRegistry.get("booking.email.failed").counter().count());
+        assertEquals(1.0, meterRegistry.get("booking.email.sent").counter().count());
+    }
+
+    @Test
+    void nothingIsQueuedOrSentWhenEmailIsDisabled() throws Exception {
+        MailDispatcher dispatcher = new MailDispatcher(sender, false, 10, 1, 10, meterRegistry);
+        dispatcher.start();
+
+        assertFalse(dispatcher.submit(message("user@example.com")));
+        dispatcher.stop();
+
+        verify(sender, never()).send(any(SimpleMailMessage[].class));
+        assertEquals(0.0, meterRegistry.get("booking.email.queue.size").gauge().value());
+    }
+
+    private SimpleMailMessage message(String to) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(to);
+        message.setSubject("Ticket booked");
+        message.setText("body");
+        return message;
+    }
+}
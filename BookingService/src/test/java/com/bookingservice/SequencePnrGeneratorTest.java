@@ -0,0 +1,156 @@
+package com.bookingservice;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.env.SystemEnvironmentPropertySource;
+
+import com.bookingservice.service.PnrGenerator;
+import com.bookingservice.service.SequencePnrGenerator;
+
+class SequencePnrGeneratorTest {
+
+    private static final int NODES = 8;
+    private static final int THREADS_PER_NODE = 4;
+    private static final int PNRS_PER_THREAD = 25_000;
+    private static final int SEQUENCE_SIZE = 1 << 26;
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(SequencePnrGenerator.class);
+
+    @Test
+    void generatorBeanTakesTheNodeIdFromProperties() {
+        contextRunner.withPropertyValues("booking.pnr.node-id=5")
+                .run(context -> assertEquals(6, context.getBean(PnrGenerator.class).next().length()));
+    }
+
+    @Test
+    void generatorBeanTakesTheNodeIdFromTheEnvironment() {
+        contextRunner.withInitializer(context -> context.getEnvironment().getPropertySources()
+                        .addFirst(new SystemEnvironmentPropertySource("env", Map.of("BOOKING_PNR_NODE_ID", "7"))))
+                .run(context -> assertEquals(6, context.getBean(PnrGenerator.class).next().length()));
+    }
+
+    @Test
+    void startupFailsWithoutANodeId() {
+        contextRunner.run(context -> {
+            Throwable failure = context.getStartupFailure();
+            assertNotNull(failure);
+            assertTrue(rootCause(failure).getMessage().contains("booking.pnr.node-id"), failure.toString());
+        });
+    }
+
+    @Test
+    void startupFailsWithANodeIdOutOfRange() {
+        contextRunner.withPropertyValues("booking.pnr.node-id=32")
+                .run(context -> assertTrue(rootCause(context.getStartupFailure()) instanceof IllegalArgumentException));
+    }
+
+    private static Throwable rootCause(Throwable failure) {
+        Throwable cause = failure;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    @Test
+    void pnrsAreSixAlphanumericCharacters() {
+        SequencePnrGenerator generator = new SequencePnrGenerator(3, new Random());
+        for (int i = 0; i < 1000; i++) {
+            String pnr = generator.next();
+            assertEquals(6, pnr.length());
+            assertTrue(pnr.matches("^[A-Z0-9]+$"), pnr);
+        }
+    }
+
+    @Test
+    void consecutivePnrsAreNotNeighbours() {
+        SequencePnrGenerator generator = new SequencePnrGenerator(0, 0);
+        String first = generator.next();
+        String second = generator.next();
+
+        assertNotEquals(first.substring(0, 5), second.substring(0, 5));
+    }
+
+    // every node starts from the same point, so only the node bits keep them apart
+    @Test
+    void concurrentNodesNeverIssueTheSamePnr() throws Exception {
+        int start = new Random().nextInt(SEQUENCE_SIZE);
+        Set<String> issued = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(NODES * THREADS_PER_NODE);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int node = 0; node < NODES; node++) {
+            SequencePnrGenerator generator = new SequencePnrGenerator(node, start);
+            for (int t = 0; t < THREADS_PER_NODE; t++) {
+                futures.add(pool.submit(() -> {
+                    go.await();
+                    for (int i = 0; i < PNRS_PER_THREAD; i++) {
+                        if (!issued.add(generator.next())) {
+                            duplicates.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+        }
+
+        go.countDown();
+        for (Future<?> f : futures) {
+            f.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(0, duplicates.get());
+        assertEquals(NODES * THREADS_PER_NODE * PNRS_PER_THREAD, issued.size());
+    }
+
+    @Test
+    void sequenceWrapsWithinTheNode() {
+        SequencePnrGenerator last = new SequencePnrGenerator(5, SEQUENCE_SIZE - 1);
+        SequencePnrGenerator first = new SequencePnrGenerator(5, 0);
+        last.next();
+
+        assertEquals(first.next(), last.next());
+    }
+
+    @Test
+    void reseedJumpsToARandomPoint() {
+        Random random = new Random(42);
+        SequencePnrGenerator generator = new SequencePnrGenerator(1, random);
+        SequencePnrGenerator sameStart = new SequencePnrGenerator(1, new Random(42));
+        generator.next();
+        sameStart.next();
+
+        generator.reseed();
+
+        assertNotEquals(sameStart.next(), generator.next());
+    }
+
+    @Test
+    void nodeIdOutOfRangeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new SequencePnrGenerator(32, 0));
+        assertThrows(IllegalArgumentException.class, () -> new SequencePnrGenerator(-1, 0));
+    }
+}
@@ -2,7 +2,6 @@ package com.bookingservice;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 
 import org.junit.jupiter.api.Test;
@@ -54,8 +53,7 @@ class TicketServiceTest {
     void returnsBookingWhenFound() {
         Booking booking = new Booking();
         booking.setPnrOutbound("ABC123");
-        when(bookingRepository.findByPnrOutbound("ABC123")).thenReturn(Mono.just(booking));
-        when(bookingRepository.findByPnrReturn("ABC123")).thenReturn(Mono.empty());
+        when(bookingRepository.findFirstByPnrOutboundOrPnrReturn("ABC123", "ABC123")).thenReturn(Mono.just(booking));
 
         StepVerifier.create(ticketService.getTicketByPnr("ABC123"))
                 .assertNext(b -> {
@@ -69,8 +67,7 @@ class TicketServiceTest {
     void fallsBackToReturnPnr() {
         Booking booking = new Booking();
         booking.setPnrReturn("RET123");
-        when(bookingRepository.findByPnrOutbound(anyString())).thenReturn(Mono.empty());
-        when(bookingRepository.findByPnrReturn("RET123")).thenReturn(Mono.just(booking));
+        when(bookingRepository.findFirstByPnrOutboundOrPnrReturn("RET123", "RET123")).thenReturn(Mono.just(booking));
 
         StepVerifier.create(ticketService.getTicketByPnr("RET123"))
                 .assertNext(b -> assertEquals("RET123", b.getPnrReturn()))
@@ -79,8 +76,7 @@ class TicketServiceTest {
 
     @Test
     void notFoundAnywhereThrows() {
-        when(bookingRepository.findByPnrOutbound("ABC123")).thenReturn(Mono.empty());
-        when(bookingRepository.findByPnrReturn("ABC123")).thenReturn(Mono.empty());
+        when(bookingRepository.findFirstByPnrOutboundOrPnrReturn("ABC123", "ABC123")).thenReturn(Mono.empty());
 
         StepVerifier.create(ticketService.getTicketByPnr("ABC123"))
                 .verifyError(ResourceNotFoundException.class);
@@ -0,0 +1,85 @@
+package com.bookingservice.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import com.bookingservice.BookingEventFixtures;
+import com.bookingservice.kafka.BookingEventBinarySerializer;
+import com.bookingservice.kafka.BookingEventDeserializer;
+import com.bookingservice.model.BookingEvent;
+
+/**
+ * JSON vs binary encoding of a booking event. Run {@link #main} from the
+ * test classpath for the serialize/deserialize throughput; the size of each
+ * format is checked in BookingEventSerializationTest on the same
+ * {@link BookingEventFixtures#sampleEvent() fixture}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingEventSerializationBenchmark {
+
+    private static final String TOPIC = "booking-events";
+
+    private final JsonSerializer<BookingEvent> jsonSerializer = new JsonSerializer<BookingEvent>().noTypeInfo();
+    private final BookingEventBinarySerializer binarySerializer = new BookingEventBinarySerializer();
+    private final BookingEventDeserializer deserializer = new BookingEventDeserializer();
+
+    private BookingEvent event;
+    private RecordHeaders jsonHeaders;
+    private RecordHeaders binaryHeaders;
+    private byte[] jsonBytes;
+    private byte[] binaryBytes;
+
+    @Setup
+    public void setup() {
+        event = BookingEventFixtures.sampleEvent();
+        jsonHeaders = new RecordHeaders();
+        binaryHeaders = new RecordHeaders();
+        jsonBytes = jsonSerializer.serialize(TOPIC, jsonHeaders, event);
+        binaryBytes = binarySerializer.serialize(TOPIC, binaryHeaders, event);
+    }
+
+    @Benchmark
+    public byte[] serializeJson() {
+        return jsonSerializer.serialize(TOPIC, new RecordHeaders(), event);
+    }
+
+    @Benchmark
+    public byte[] serializeBinary() {
+        return binarySerializer.serialize(TOPIC, new RecordHeaders(), event);
+    }
+
+    @Benchmark
+    public BookingEvent deserializeJson() {
+        return deserializer.deserialize(TOPIC, jsonHeaders, jsonBytes);
+    }
+
+    @Benchmark
+    public BookingEvent deserializeBinary() {
+        return deserializer.deserialize(TOPIC, binaryHeaders, binaryBytes);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(BookingEventSerializationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,167 @@
+package com.bookingservice.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+
+import com.bookingservice.model.Booking;
+import com.bookingservice.model.BookingStatus;
+import com.bookingservice.model.TripType;
+import com.bookingservice.repository.BookingRepository;
+import com.bookingservice.repository.BookingRepositoryCustomImpl;
+import com.mongodb.ConnectionString;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import reactor.core.publisher.Flux;
+
+/**
+ * Booking lookups against one million bookings, with and without the indexes
+ * declared on {@link Booking}. Point it at a MongoDB server with
+ * {@code -Dbenchmark.mongo.uri=mongodb://host:27017/bookingBenchmark}; the
+ * collection is seeded on first run and reused afterwards. Without a URI it
+ * runs against an in-process mongo-java-server, which checks the benchmark
+ * end to end but does not plan queries like MongoDB, so only a real server
+ * says anything about the indexes.
+ *
+ * Lookups use return-leg PNRs, the worst case for the old outbound-then-return
+ * fallback, which needs both queries to find them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingLookupBenchmark {
+
+    private static final int BOOKINGS = 1_000_000;
+    private static final int CONTACTS = 50_000;
+    private static final String URI = System.getProperty("benchmark.mongo.uri");
+
+    @Param({"false", "true"})
+    public boolean indexed;
+
+    private MongoServer server;
+    private MongoClient client;
+    private BookingRepository repository;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        String uri = URI;
+        if (uri == null) {
+            server = new MongoServer(new MemoryBackend());
+            uri = server.bindAndGetConnectionString() + "/bookingBenchmark";
+        }
+        client = MongoClients.create(uri);
+        ReactiveMongoTemplate template =
+                new ReactiveMongoTemplate(client, new ConnectionString(uri).getDatabase());
+        repository = new ReactiveMongoRepositoryFactory(template).getRepository(BookingRepository.class,
+                RepositoryFragments.just(new BookingRepositoryCustomImpl(template)));
+
+        if (template.count(new Query(), Booking.class).block() < BOOKINGS) {
+            template.dropCollection(Booking.class).block();
+            Flux.range(0, BOOKINGS)
+                    .map(BookingLookupBenchmark::booking)
+                    .buffer(10_000)
+                    .concatMap(batch -> template.insert(batch, Booking.class))
+                    .blockLast();
+        }
+
+        ReactiveIndexOperations indexOps = template.indexOps(Booking.class);
+        indexOps.dropAllIndexes().block();
+        if (indexed) {
+            new MongoPersistentEntityIndexResolver(template.getConverter().getMappingContext())
+                    .resolveIndexFor(Booking.class)
+                    .forEach(index -> indexOps.ensureIndex(index).block());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        if (server != null) {
+            server.shutdown();
+        }
+    }
+
+    @Benchmark
+    public Booking pnrOutboundThenReturn() {
+        String pnr = randomReturnPnr();
+        return repository.findByPnrOutbound(pnr)
+                .switchIfEmpty(repository.findByPnrReturn(pnr))
+                .block();
+    }
+
+    @Benchmark
+    public Booking pnrSingleOrQuery() {
+        String pnr = randomReturnPnr();
+        return repository.findFirstByPnrOutboundOrPnrReturn(pnr, pnr).block();
+    }
+
+    @Benchmark
+    public Long historyByEmail() {
+        return repository.findByContactEmail(email(ThreadLocalRandom.current().nextInt(CONTACTS)))
+                .count()
+                .block();
+    }
+
+    private static String randomReturnPnr() {
+        return pnr('R', ThreadLocalRandom.current().nextInt(BOOKINGS / 2) * 2);
+    }
+
+    // every other booking is a round trip
+    private static Booking booking(int i) {
+        Booking booking = new Booking();
+        booking.setTripType(i % 2 == 0 ? TripType.ROUND_TRIP : TripType.ONE_WAY);
+        booking.setOutboundFlightId("F" + (i % 500));
+        booking.setPnrOutbound(pnr('O', i));
+        if (i % 2 == 0) {
+            booking.setReturnFlight("F" + ((i + 1) % 500));
+            booking.setPnrReturn(pnr('R', i));
+        }
+        booking.setContactName("Contact " + (i % CONTACTS));
+        booking.setContactEmail(email(i % CONTACTS));
+        booking.setTotalPassengers(1 + i % 4);
+        booking.setStatus(BookingStatus.CONFIRMED);
+        return booking;
+    }
+
+    private static String pnr(char prefix, int i) {
+        String digits = Integer.toString(i, 36).toUpperCase();
+        return prefix + "0".repeat(5 - digits.length()) + digits;
+    }
+
+    private static String email(int contact) {
+        return "user" + contact + "@example.com";
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(BookingLookupBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,53 @@
+package com.bookingservice.benchmark;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.bookingservice.service.SequencePnrGenerator;
+
+/**
+ * Old UUID substring PNRs vs the sequence generator, with four threads
+ * sharing one generator as request threads do. Run {@link #main} from the
+ * test classpath, add {@code -prof gc} to the options for allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class PnrGeneratorBenchmark {
+
+    private final SequencePnrGenerator generator = new SequencePnrGenerator(0, new SecureRandom());
+
+    @Benchmark
+    public String uuidSubstring() {
+        return UUID.randomUUID().toString().substring(0, 6).toUpperCase();
+    }
+
+    @Benchmark
+    public String sequence() {
+        return generator.next();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(PnrGeneratorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
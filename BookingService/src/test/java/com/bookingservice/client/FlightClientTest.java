@@ -3,6 +3,9 @@ package com.bookingservice.client;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpHeaders;
@@ -15,7 +18,8 @@ import org.springframework.web.reactive.function.client.ExchangeFunction;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 
-import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;  
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -24,15 +28,20 @@ import reactor.test.StepVerifier;
 class FlightClientTest {
 
     private final CircuitBreakerRegistry registry =
-            CircuitBreakerRegistry.ofDefaults();  
+            CircuitBreakerRegistry.ofDefaults();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final StubExchangeFunction exchange = new StubExchangeFunction();
 
     private final FlightClient flightClient = new FlightClient(
-            WebClient.builder().exchangeFunction(new StubExchangeFunction()),
-            registry                                           
+            WebClient.builder().exchangeFunction(exchange),
+            registry,
+            new FlightCache(100, Duration.ofSeconds(30), meterRegistry)
     );
 
     @Test
-    void getFlight_returnsFilteredFlight() {
+    void getFlight_returnsRequestedFlight() {
         StepVerifier.create(flightClient.getFlight("MATCH"))
                 .assertNext(dto -> {
                     assertEquals("MATCH", dto.getFlightId());
@@ -50,27 +59,85 @@ class FlightClientTest {
                 .verifyComplete();
     }
 
+    @Test
+    void getFlight_repeatedLookupsAreServedFromCache() {
+        flightClient.getFlight("MATCH").block();
+        flightClient.getFlight("MATCH").block();
+        flightClient.getFlight("MATCH").block();
+
+        assertEquals(1, exchange.flightLookups.get());
+        assertEquals(2.0, meterRegistry.get("cache.gets")
+                .tag("cache", FlightCache.CACHE_NAME).tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets")
+                .tag("cache", FlightCache.CACHE_NAME).tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void getFlight_reserveAndReleaseInvalidateCachedEntry() {
+        flightClient.getFlight("MATCH").block();
+        flightClient.reserveSeats("MATCH", 1).block();
+        flightClient.getFlight("MATCH").block();
+        flightClient.releaseSeats("MATCH", 1).block();
+        flightClient.getFlight("MATCH").block();
+
+        assertEquals(3, exchange.flightLookups.get());
+    }
+
+    @Test
+    void getFlight_unknownFlightIsNotCached() {
+        StepVerifier.create(flightClient.getFlight("UNKNOWN")).verifyComplete();
+        StepVerifier.create(flightClient.getFlight("UNKNOWN")).verifyComplete();
+
+        assertEquals(2, exchange.flightLookups.get());
+    }
+
+    @Test
+    void getFlights_onlyMissingIdsAreFetched() {
+        flightClient.getFlight("MATCH").block();
+
+        StepVerifier.create(flightClient.getFlights(List.of("MATCH", "OTHER")).collectList())
+                .assertNext(flights -> assertEquals(2, flights.size()))
+                .verifyComplete();
+
+        assertEquals("ids=OTHER", exchange.lastBatchQuery);
+    }
+
     private static class StubExchangeFunction implements ExchangeFunction {
+
+        private final AtomicInteger flightLookups = new AtomicInteger();
+        private volatile String lastBatchQuery;
+
         @Override
         public Mono<ClientResponse> exchange(ClientRequest request) {
-            if (request.method() == HttpMethod.GET) {
-                String json = """
-                        [
-                          {"flightId":"MATCH","availableSeats":5},
-                          {"flightId":"OTHER","availableSeats":2}
-                        ]
-                        """;
-                var buffer = new DefaultDataBufferFactory()
-                        .wrap(json.getBytes(StandardCharsets.UTF_8));
-                ClientResponse response = ClientResponse.create(HttpStatus.OK)
-                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-                        .body(Flux.just(buffer))
-                        .build();
-                return Mono.just(response);
+            String path = request.url().getPath();
+            if (request.method() == HttpMethod.GET && path.contains("/getFlight/")) {
+                flightLookups.incrementAndGet();
+                if (!path.endsWith("/getFlight/MATCH")) {
+                    return Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND).build());
+                }
+                return json("""
+                        {"flightId":"MATCH","availableSeats":5}
+                        """);
+            }
+            if (request.method() == HttpMethod.GET && path.endsWith("/getFlights")) {
+                lastBatchQuery = request.url().getQuery();
+                return json("""
+                        [{"flightId":"OTHER","availableSeats":2}]
+                        """);
             }
 
             ClientResponse response = ClientResponse.create(HttpStatus.OK).build();
             return Mono.just(response);
         }
+
+        private static Mono<ClientResponse> json(String json) {
+            var buffer = new DefaultDataBufferFactory()
+                    .wrap(json.getBytes(StandardCharsets.UTF_8));
+            ClientResponse response = ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body(Flux.just(buffer))
+                    .build();
+            return Mono.just(response);
+        }
     }
 }
@@ -19,10 +19,12 @@ import com.bookingservice.model.BookingStatus;
 import com.bookingservice.model.TripType;
 import com.bookingservice.requests.BookingRequest;
 import com.bookingservice.requests.PassengerRequest;
+import com.bookingservice.responses.BookingHistoryPage;
 import com.bookingservice.service.BookingService;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
 @WebFluxTest(controllers = MainController.class)
 class MainControllerTest {
@@ -86,6 +88,41 @@ class MainControllerTest {
                 .jsonPath("$[0].bookingId").isEqualTo("b-1");
     }
 
+    @Test
+    void getHistoryPage_returnsBookingsAndCursor() {
+        when(bookingService.getHistoryPage("user@example.com", "YjE", 1))
+                .thenReturn(Mono.just(new BookingHistoryPage(List.of(booking()), "Yi0x")));
+
+        webTestClient.get()
+                .uri("/api/booking/history/user@example.com/page?cursor=YjE&size=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.bookings[0].bookingId").isEqualTo("b-1")
+                .jsonPath("$.nextCursor").isEqualTo("Yi0x");
+    }
+
+    @Test
+    void streamHistory_writesNdjson() {
+        Booking second = booking();
+        second.setBookingId("b-2");
+        when(bookingService.streamHistory("user@example.com"))
+                .thenReturn(Flux.just(booking(), second));
+
+        webTestClient.get()
+                .uri("/api/booking/history/user@example.com/stream")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Booking.class)
+                .getResponseBody()
+                .as(StepVerifier::create)
+                .expectNextMatches(b -> b.getBookingId().equals("b-1"))
+                .expectNextMatches(b -> b.getBookingId().equals("b-2"))
+                .verifyComplete();
+    }
+
     @Test
     void cancelBooking_returnsMessage() {
         when(bookingService.cancelTicket("PNR001"))
@@ -1,9 +1,18 @@
 package com.bookingservice.model;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
+import java.util.stream.StreamSupport;
+
+import org.bson.Document;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
 
 class ModelCoverageTest {
 
@@ -67,7 +76,12 @@ class ModelCoverageTest {
                 "Alex",
                 "alex@example.com",
                 1,
-                BookingStatus.CANCELLED);
+                BookingStatus.CANCELLED,
+                null,
+                false,
+                null,
+                0,
+                null);
         assertEquals("b2", booking.getBookingId());
         assertEquals("alex@example.com", booking.getContactEmail());
         assertEquals(BookingStatus.CANCELLED, booking.getStatus());
@@ -91,4 +105,22 @@ class ModelCoverageTest {
         assertNotNull(Meal.valueOf("VEG"));
         assertEquals(2, Meal.values().length);
     }
+
+    @Test
+    void outboxPollIndexHoldsOnlyBookingsWithQueuedEvents() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        Document options = StreamSupport.stream(new MongoPersistentEntityIndexResolver(mappingContext)
+                        .resolveIndexFor(Booking.class).spliterator(), false)
+                .filter(index -> "outbox_pending".equals(index.getIndexOptions().get("name")))
+                .findFirst().orElseThrow()
+                .getIndexOptions();
+
+        assertEquals(new Document("outboxPending", true), options.get("partialFilterExpression"));
+
+        Booking booking = new Booking();
+        assertFalse(booking.isOutboxPending());
+        booking.addPendingEvent(new BookingEvent());
+        assertTrue(booking.isOutboxPending());
+    }
 }
\ No newline at end of file
@@ -22,6 +22,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
@@ -31,11 +32,14 @@ import com.bookingservice.client.FlightDto;
 import com.bookingservice.exceptions.ResourceNotFoundException;
 import com.bookingservice.exceptions.ValidationException;
 import com.bookingservice.model.Booking;
+import com.bookingservice.model.BookingEvent;
+import com.bookingservice.model.BookingEventType;
 import com.bookingservice.model.BookingStatus;
 import com.bookingservice.model.Gender;
 import com.bookingservice.model.TripType;
-import com.bookingservice.service.BookingEventProducer;
 import com.bookingservice.service.EmailService;
+import com.bookingservice.service.PnrGenerator;
+import com.bookingservice.service.SequencePnrGenerator;
 import com.bookingservice.repository.BookingRepository;
 import com.bookingservice.repository.PassengerRepository;
 import com.bookingservice.requests.BookingRequest;
@@ -58,12 +62,12 @@ class BookingServiceTest {
     @Mock
     private FlightClient flightClient;
 
-    @Mock
-    private BookingEventProducer eventProducer;
-
     @Mock
     private EmailService emailService;
 
+    @Spy
+    private PnrGenerator pnrGenerator = new SequencePnrGenerator(0, 0);
+
     @InjectMocks
     private BookingService bookingService;
 
@@ -73,7 +77,6 @@ class BookingServiceTest {
     void setUp() {
         bookingIdSequence = new AtomicInteger();
         when(passengerRepository.saveAll(any(Flux.class))).thenReturn(Flux.empty());
-        when(eventProducer.publish(any())).thenReturn(Mono.empty());
         when(emailService.sendBookingNotification(any(), any())).thenReturn(Mono.empty());
         when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> {
             Booking toSave = invocation.getArgument(0);
@@ -116,8 +119,7 @@ class BookingServiceTest {
         FlightDto outbound = flight("OUT-2", 4);
         FlightDto inbound = flight("RET-2", 4);
 
-        when(flightClient.getFlight("OUT-2")).thenReturn(Mono.just(outbound));
-        when(flightClient.getFlight("RET-2")).thenReturn(Mono.just(inbound));
+        when(flightClient.getFlights(List.of("OUT-2", "RET-2"))).thenReturn(Flux.just(outbound, inbound));
         when(flightClient.reserveSeats(anyString(), anyInt())).thenReturn(Mono.empty());
 
         StepVerifier.create(bookingService.bookFlight("OUT-2", request))
@@ -134,6 +136,7 @@ class BookingServiceTest {
         verify(flightClient, times(1))
                 .reserveSeats("RET-2", request.getPassengers().size());
         verify(passengerRepository, times(1)).saveAll(any(Flux.class));
+        verify(flightClient, never()).getFlight(anyString());
     }
 
     @Test
@@ -192,8 +195,8 @@ class BookingServiceTest {
         request.getPassengers().forEach(p -> p.setSeatReturn(null));
         request.setReturnFlightId("RET-12");
 
-        when(flightClient.getFlight("OUT-12")).thenReturn(Mono.just(flight("OUT-12", 5)));
-        when(flightClient.getFlight("RET-12")).thenReturn(Mono.just(flight("RET-12", 5)));
+        when(flightClient.getFlights(List.of("OUT-12", "RET-12")))
+                .thenReturn(Flux.just(flight("OUT-12", 5), flight("RET-12", 5)));
 
         StepVerifier.create(bookingService.bookFlight("OUT-12", request))
                 .expectErrorSatisfies(error -> {
@@ -208,8 +211,8 @@ class BookingServiceTest {
         BookingRequest request = buildRequest(TripType.ROUND_TRIP, true);
         request.setReturnFlightId("RET-13");
 
-        when(flightClient.getFlight("OUT-13")).thenReturn(Mono.just(flight("OUT-13", 5)));
-        when(flightClient.getFlight("RET-13")).thenReturn(Mono.just(flight("RET-13", 1)));
+        when(flightClient.getFlights(List.of("OUT-13", "RET-13")))
+                .thenReturn(Flux.just(flight("OUT-13", 5), flight("RET-13", 1)));
 
         StepVerifier.create(bookingService.bookFlight("OUT-13", request))
                 .expectErrorSatisfies(error -> {
@@ -285,8 +288,8 @@ class BookingServiceTest {
     void bookFlight_roundTripReturnNotFound_throwsResourceNotFound() {
         BookingRequest request = buildRequest(TripType.ROUND_TRIP, true);
         request.setReturnFlightId("RET-17");
-        when(flightClient.getFlight("OUT-17")).thenReturn(Mono.just(flight("OUT-17", 5)));
-        when(flightClient.getFlight("RET-17")).thenReturn(Mono.empty());
+        when(flightClient.getFlights(List.of("OUT-17", "RET-17")))
+                .thenReturn(Flux.just(flight("OUT-17", 5)));
 
         StepVerifier.create(bookingService.bookFlight("OUT-17", request))
                 .expectError(ResourceNotFoundException.class)
@@ -305,7 +308,12 @@ class BookingServiceTest {
                 "Jane Doe",
                 "jane@example.com",
                 1,
-                BookingStatus.CONFIRMED
+                BookingStatus.CONFIRMED,
+                null,
+                false,
+                null,
+                0,
+                null
         );
 
         when(bookingRepository.findByPnrOutbound("PNR123")).thenReturn(Mono.just(booking));
@@ -336,19 +344,27 @@ class BookingServiceTest {
                 "Alex Roe",
                 "alex@example.com",
                 2,
-                BookingStatus.CONFIRMED
+                BookingStatus.CONFIRMED,
+                null,
+                false,
+                null,
+                0,
+                null
         );
 
         when(bookingRepository.findByPnrOutbound("PNR456")).thenReturn(Mono.just(booking));
+        when(bookingRepository.cancel(eq("booking-6"), any())).thenReturn(Mono.just(booking));
         when(flightClient.releaseSeats(anyString(), anyInt())).thenReturn(Mono.empty());
 
         StepVerifier.create(bookingService.cancelTicket("PNR456"))
                 .expectNextMatches(result -> "Booking cancelled".equals(result.get("message")))
                 .verifyComplete();
 
-        ArgumentCaptor<Booking> captor = ArgumentCaptor.forClass(Booking.class);
-        verify(bookingRepository, times(1)).save(captor.capture());
+        ArgumentCaptor<BookingEvent> captor = ArgumentCaptor.forClass(BookingEvent.class);
+        verify(bookingRepository, times(1)).cancel(eq("booking-6"), captor.capture());
+        assertEquals(BookingEventType.CANCELLED, captor.getValue().getEventType());
         assertEquals(BookingStatus.CANCELLED, captor.getValue().getStatus());
+        verify(bookingRepository, never()).save(any());
 
         verify(flightClient, times(1)).releaseSeats("OUT-6", 2);
         verify(flightClient, times(1)).releaseSeats("RET-6", 2);
@@ -366,10 +382,16 @@ class BookingServiceTest {
                 "Taylor",
                 "taylor@example.com",
                 1,
-                BookingStatus.CONFIRMED
+                BookingStatus.CONFIRMED,
+                null,
+                false,
+                null,
+                0,
+                null
         );
 
         when(bookingRepository.findByPnrOutbound("PNR111")).thenReturn(Mono.just(booking));
+        when(bookingRepository.cancel(eq("booking-8"), any())).thenReturn(Mono.just(booking));
         when(flightClient.releaseSeats("OUT-8", 1)).thenReturn(Mono.empty());
 
         StepVerifier.create(bookingService.cancelTicket("PNR111"))
@@ -392,7 +414,12 @@ class BookingServiceTest {
                 "Chris Smith",
                 "chris@example.com",
                 1,
-                BookingStatus.CANCELLED
+                BookingStatus.CANCELLED,
+                null,
+                false,
+                null,
+                0,
+                null
         );
 
         when(bookingRepository.findByPnrOutbound("PNR000")).thenReturn(Mono.just(booking));
@@ -405,6 +432,24 @@ class BookingServiceTest {
                 .verify();
     }
 
+    @Test
+    void cancelTicket_cancelledConcurrentlyThrowsValidationExceptionWithoutReleasingSeats() {
+        Booking booking = new Booking();
+        booking.setBookingId("booking-9");
+        booking.setOutboundFlightId("OUT-9");
+        booking.setTotalPassengers(1);
+        booking.setStatus(BookingStatus.CONFIRMED);
+
+        when(bookingRepository.findByPnrOutbound("PNR222")).thenReturn(Mono.just(booking));
+        when(bookingRepository.cancel(eq("booking-9"), any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(bookingService.cancelTicket("PNR222"))
+                .expectErrorMessage("Already cancelled")
+                .verify();
+
+        verify(flightClient, never()).releaseSeats(anyString(), anyInt());
+    }
+
     @Test
     void cancelTicket_notFoundThrowsResourceNotFound() {
         when(bookingRepository.findByPnrOutbound("UNKNOWN")).thenReturn(Mono.empty());
@@ -60,8 +60,7 @@ class TicketServiceTest {
     @Test
     void getTicketByPnr_returnsOutboundBooking() {
         Booking booking = booking("ABC123");
-        when(bookingRepository.findByPnrOutbound("ABC123")).thenReturn(Mono.just(booking));
-        when(bookingRepository.findByPnrReturn("ABC123")).thenReturn(Mono.empty());
+        when(bookingRepository.findFirstByPnrOutboundOrPnrReturn("ABC123", "ABC123")).thenReturn(Mono.just(booking));
 
         StepVerifier.create(ticketService.getTicketByPnr("ABC123"))
                 .expectNext(booking)
@@ -71,8 +70,7 @@ class TicketServiceTest {
     @Test
     void getTicketByPnr_returnsReturnBookingWhenOutboundEmpty() {
         Booking booking = booking("XYZ999");
-        when(bookingRepository.findByPnrOutbound("XYZ999")).thenReturn(Mono.empty());
-        when(bookingRepository.findByPnrReturn("XYZ999")).thenReturn(Mono.just(booking));
+        when(bookingRepository.findFirstByPnrOutboundOrPnrReturn("XYZ999", "XYZ999")).thenReturn(Mono.just(booking));
 
         StepVerifier.create(ticketService.getTicketByPnr("XYZ999"))
                 .expectNext(booking)
@@ -81,8 +79,7 @@ class TicketServiceTest {
 
     @Test
     void getTicketByPnr_notFoundRaisesResourceNotFound() {
-        when(bookingRepository.findByPnrOutbound("MISS12")).thenReturn(Mono.empty());
-        when(bookingRepository.findByPnrReturn("MISS12")).thenReturn(Mono.empty());
+        when(bookingRepository.findFirstByPnrOutboundOrPnrReturn("MISS12", "MISS12")).thenReturn(Mono.empty());
 
         StepVerifier.create(ticketService.getTicketByPnr("MISS12"))
                 .expectError(ResourceNotFoundException.class)
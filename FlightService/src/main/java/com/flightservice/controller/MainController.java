@@ -5,18 +5,33 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
 import java.util.Map;
+import com.flightservice.model.Cities;
 import com.flightservice.model.Flights;
 import com.flightservice.request.SearchFlightRequest;
 import com.flightservice.request.AddFlightRequest;
+import com.flightservice.request.FlightListRequest;
+import com.flightservice.request.RecurringScheduleRequest;
+import com.flightservice.responses.BulkImportResult;
+import com.flightservice.responses.Itinerary;
+import com.flightservice.responses.RecurringScheduleResponse;
+import com.flightservice.responses.RoundTripSearchResponse;
+import com.flightservice.responses.SeatMapResponse;
+import com.flightservice.responses.Versioned;
 import com.flightservice.service.FlightService;
 
 import jakarta.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import com.flightservice.service.AirlineService;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -51,18 +66,25 @@ public class MainController {
 	        return airlineService.addAirline(req);
 	    }
 
-	    // to get airlines in db
+	    // to get airlines in db, tagged with the catalog version so a matching If-None-Match gets a 304;
+	    // before the first catalog load there is no version to tag
 	    @GetMapping("/getAllAirlines")
-	    @ResponseStatus(HttpStatus.OK)
-	    public Flux<Airline> getAllAirlines() {
-	        return airlineService.getAllAirlines();
+	    public Mono<ResponseEntity<List<Airline>>> getAllAirlines() {
+	        return airlineService.getAllAirlines().map(MainController::tagged);
 	    }
 
-	    // to get airline with its code
+	    // to get airline with its code, tagged like the list when the catalog holds it
 	    @GetMapping("/getAirline/{code}")
-	    @ResponseStatus(HttpStatus.OK)
-	    public Mono<Airline> getAirline(@PathVariable String code) {
-	        return airlineService.getAirline(code);
+	    public Mono<ResponseEntity<Airline>> getAirline(@PathVariable String code) {
+	        return airlineService.getAirline(code).map(MainController::tagged);
+	    }
+
+	    private static <T> ResponseEntity<T> tagged(Versioned<T> versioned) {
+	        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+	        if (versioned.getVersion() != null) {
+	            ok.eTag(versioned.getVersion());
+	        }
+	        return ok.body(versioned.getBody());
 	    }
 	    
 	    // to add a flight
@@ -72,18 +94,127 @@ public class MainController {
 		    return flightService.addInventory(request);
 		}
 
+	    // to add many flights from NDJSON, one AddFlightRequest per line, streaming back one result per line
+		@PostMapping(value = "/airline/inventory/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+				produces = MediaType.APPLICATION_NDJSON_VALUE)
+		@ResponseStatus(HttpStatus.OK)
+		public Flux<BulkImportResult> importFlights(@RequestBody Flux<String> lines) {
+		    return flightService.importInventory(lines);
+		}
+
+	    // to add every departure of a flight operated on set weekdays between two dates
+		@PostMapping("/airline/inventory/schedule")
+		@ResponseStatus(HttpStatus.CREATED)
+		public Mono<RecurringScheduleResponse> addSchedule(@RequestBody RecurringScheduleRequest request) {
+		    return flightService.addSchedule(request);
+		}
+
 	    // to search a flight
 	    @PostMapping("/search")
 	    @ResponseStatus(HttpStatus.OK)
 	    public Flux<Flights> searchFlights(@Valid @RequestBody SearchFlightRequest req) {
 	        return searchService.searchFlights(req);
 	    }
+
+	    // to search outbound and return flights of a round trip in one call
+	    @PostMapping("/search/roundtrip")
+	    @ResponseStatus(HttpStatus.OK)
+	    public Mono<RoundTripSearchResponse> searchRoundTrip(@Valid @RequestBody SearchFlightRequest req) {
+	        return searchService.searchRoundTrip(req);
+	    }
+
+	    // to search the days either side of the travel date, grouped by date
+	    @PostMapping("/search/flexible")
+	    @ResponseStatus(HttpStatus.OK)
+	    public Mono<Map<LocalDate, List<Flights>>> searchFlexibleDates(@Valid @RequestBody SearchFlightRequest req) {
+	        return searchService.searchFlexibleDates(req);
+	    }
+
+	    // to search direct and connecting itineraries with up to maxStops stops
+	    @PostMapping("/search/connections")
+	    @ResponseStatus(HttpStatus.OK)
+	    public Flux<Itinerary> searchConnections(@Valid @RequestBody SearchFlightRequest req,
+	    		@RequestParam(defaultValue = "2") int maxStops) {
+	        return searchService.searchConnections(req, maxStops);
+	    }
 	    
-	    //to get all flights
+	    // to get the lowest fare per day of a month on a route, month as yyyy-MM and this month by default
+	    @GetMapping("/fares/{sourceCity}/{destinationCity}")
+	    @ResponseStatus(HttpStatus.OK)
+	    public Mono<Map<LocalDate, Double>> getFareCalendar(@PathVariable Cities sourceCity,
+	    		@PathVariable Cities destinationCity, @RequestParam(required = false) YearMonth month) {
+	        return searchService.getFareCalendar(sourceCity, destinationCity, month == null ? YearMonth.now() : month);
+	    }
+
+	    //to get all flights, optionally paged, filtered to upcoming departures or cut down to some fields
 	    @GetMapping("/getAllFlights")
 	    @ResponseStatus(HttpStatus.OK)
-	    public Flux<Flights>getAllFlights(){
-	    	return flightService.getAllFlights();
+	    public Flux<?> getAllFlights(FlightListRequest query) {
+	    	return listFlights(query);
+	    }
+
+	    // the same as getAllFlights, streamed as NDJSON
+	    @GetMapping(value = "/getAllFlights/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	    @ResponseStatus(HttpStatus.OK)
+	    public Flux<?> streamAllFlights(FlightListRequest query) {
+	    	return listFlights(query);
+	    }
+
+	    private Flux<?> listFlights(FlightListRequest query) {
+	    	if (query.getFields() == null || query.getFields().isBlank()) {
+	    		return flightService.listFlights(query);
+	    	}
+	    	return flightService.listFlightFields(query);
+	    }
+
+	    // to get a flight with its id
+	    @GetMapping("/getFlight/{flightId}")
+	    @ResponseStatus(HttpStatus.OK)
+	    public Mono<Flights> getFlight(@PathVariable String flightId) {
+	        return flightService.getFlight(flightId);
+	    }
+
+	    // to get several flights with their ids in one call
+	    @GetMapping("/getFlights")
+	    @ResponseStatus(HttpStatus.OK)
+	    public Flux<Flights> getFlights(@RequestParam List<String> ids) {
+	        return flightService.getFlights(ids);
+	    }
+
+	    // to reserve seats on a flight
+	    @PostMapping("/{flightId}/reserve")
+	    @ResponseStatus(HttpStatus.OK)
+	    public Mono<Flights> reserveSeats(@PathVariable String flightId, @RequestParam int seats) {
+	        return flightService.reserveSeats(flightId, seats);
+	    }
+
+	    // to release seats on a flight
+	    @PostMapping("/{flightId}/release")
+	    @ResponseStatus(HttpStatus.OK)
+	    public Mono<Flights> releaseSeats(@PathVariable String flightId, @RequestParam int seats) {
+	        return flightService.releaseSeats(flightId, seats);
+	    }
+
+	    // to get the seat map of a flight
+	    @GetMapping("/{flightId}/seats")
+	    @ResponseStatus(HttpStatus.OK)
+	    public Mono<SeatMapResponse> getSeatMap(@PathVariable String flightId) {
+	        return flightService.getSeatMap(flightId);
+	    }
+
+	    // to book specific seats on a flight, e.g. ?seatNos=S1,S2
+	    @PostMapping("/{flightId}/seats/book")
+	    @ResponseStatus(HttpStatus.OK)
+	    public Mono<SeatMapResponse> bookSeats(@PathVariable String flightId, @RequestParam List<String> seatNos) {
+	        return flightService.bookSeats(flightId, seatNos);
+	    }
+
+	    // to free specific seats on a flight
+	    @PostMapping("/{flightId}/seats/release")
+	    @ResponseStatus(HttpStatus.OK)
+	    public Mono<SeatMapResponse> releaseSeatNumbers(@PathVariable String flightId,
+	    		@RequestParam List<String> seatNos) {
+	        return flightService.releaseSeatNumbers(flightId, seatNos);
 	    }
 	
 
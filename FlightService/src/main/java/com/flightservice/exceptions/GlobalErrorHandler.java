@@ -5,8 +5,10 @@ import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.bind.support.WebExchangeBindException;
 
@@ -23,6 +25,7 @@ public class GlobalErrorHandler {
     private static final String DATE_ERROR = "Invalid date format. Use yyyy-MM-dd";
     private static final String BOOLEAN_ERROR = "Invalid boolean value. Allowed values: true or false";
 
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(WebExchangeBindException.class)
     public Mono<Map<String, String>> handleValidationErrors(WebExchangeBindException exception) {
         Map<String, String> errorMap = new LinkedHashMap<>();
@@ -30,22 +33,32 @@ public class GlobalErrorHandler {
         return Mono.just(errorMap);
     }
 
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(ValidationException.class)
     public Mono<Map<String, String>> handleCustomValidation(ValidationException ex) {
         return Mono.just(Map.of(ERROR_MESSAGE, ex.getMessage()));
     }
 
+    @ResponseStatus(HttpStatus.NOT_FOUND)
     @ExceptionHandler(ResourceNotFoundException.class)
     public Mono<Map<String, String>> handleNotFound(ResourceNotFoundException ex) {
         return Mono.just(Map.of(ERROR_MESSAGE, ex.getMessage()));
     }
 
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public Mono<Map<String, String>> handleUnavailable(ServiceUnavailableException ex) {
+        return Mono.just(Map.of(ERROR_MESSAGE, ex.getMessage()));
+    }
+
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(HttpMessageNotReadableException.class)
     public Mono<Map<String, String>> handleInvalidJson(HttpMessageNotReadableException ex) {
         String message = resolveMessage(ex.getCause());
         return Mono.just(Map.of(ERROR_MESSAGE, message));
     }
 
+    @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     @ExceptionHandler(Exception.class)
     public Mono<Map<String, String>> handleOthers(Exception ex) {
         return Mono.just(Map.of(ERROR_MESSAGE, ex.getMessage()));
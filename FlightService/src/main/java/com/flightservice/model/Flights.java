@@ -1,6 +1,8 @@
 package com.flightservice.model;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -8,6 +10,12 @@ import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 
 @Document(collection="flights")
+@CompoundIndexes({
+	// flight search
+	@CompoundIndex(name = "route_date", def = "{'sourceCity': 1, 'destinationCity': 1, 'departureDate': 1}"),
+	// one flight number per departure date, inserts of a second one fail with a duplicate key error
+	@CompoundIndex(name = "flightNumber_date", def = "{'flightNumber': 1, 'departureDate': 1}", unique = true)
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,65 @@
+package com.flightservice.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// one document per flight, seat Sn is bit n-1 of booked, 64 seats to a word
+@Document(collection="seatMaps")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatMap {
+
+	public static final String SEAT_PREFIX = "S";
+
+	@Id
+	private String flightId;
+	private int totalSeats;
+	private long[] booked;
+
+	public static SeatMap empty(String flightId, int totalSeats) {
+		return new SeatMap(flightId, totalSeats, new long[words(totalSeats)]);
+	}
+
+	public static int words(int totalSeats) {
+		return (totalSeats + Long.SIZE - 1) / Long.SIZE;
+	}
+
+	public static int word(int seatIndex) {
+		return seatIndex / Long.SIZE;
+	}
+
+	public static long mask(int seatIndex) {
+		return 1L << (seatIndex % Long.SIZE);
+	}
+
+	// zero based seat index for a seat number like S12, -1 when it is not one
+	public static int seatIndex(String seatNo) {
+		if (seatNo == null || !seatNo.startsWith(SEAT_PREFIX) || seatNo.length() == SEAT_PREFIX.length()
+				|| seatNo.length() > SEAT_PREFIX.length() + 4) {
+			return -1;
+		}
+		int number = 0;
+		for (int i = SEAT_PREFIX.length(); i < seatNo.length(); i++) {
+			char c = seatNo.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			number = number * 10 + (c - '0');
+		}
+		return number - 1;
+	}
+
+	public static String seatNo(int seatIndex) {
+		return SEAT_PREFIX + (seatIndex + 1);
+	}
+
+	public boolean isBooked(int seatIndex) {
+		int word = word(seatIndex);
+		return booked != null && word < booked.length && (booked[word] & mask(seatIndex)) != 0;
+	}
+}
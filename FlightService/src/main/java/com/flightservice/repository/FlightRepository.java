@@ -1,20 +1,29 @@
 package com.flightservice.repository;
 
 import java.time.LocalDate;
-import java.util.Map;
 
+import org.springframework.data.domain.Range;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 
 import com.flightservice.model.Cities;
 import com.flightservice.model.Flights;
 
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.Mono;
 
-public interface FlightRepository extends ReactiveMongoRepository<Flights,String> {
+public interface FlightRepository extends ReactiveMongoRepository<Flights,String>, FlightRepositoryCustom {
 
-	Mono<Map<String, String>> findFirstByFlightNumberAndDepartureDate(String flightNumber, LocalDate departureDate);
+	// dates a recurring schedule already has, only indexed fields and no _id so the
+	// flightNumber_date index answers it alone
+	@Query(fields = "{ '_id': 0, 'flightNumber': 1, 'departureDate': 1 }")
+	Flux<Flights> findByFlightNumberAndDepartureDateBetween(String flightNumber, Range<LocalDate> departureDates);
 
 	Flux<Flights> findBySourceCityAndDestinationCityAndDepartureDate(Cities sourceCity, Cities destinationCity,
 			LocalDate travelDate);
+
+	// one range scan on the route_date index for flexible-date search
+	Flux<Flights> findBySourceCityAndDestinationCityAndDepartureDateBetween(Cities sourceCity,
+			Cities destinationCity, Range<LocalDate> departureDates);
+
+	Flux<Flights> findByDepartureDateGreaterThanEqual(LocalDate departureDate);
 }
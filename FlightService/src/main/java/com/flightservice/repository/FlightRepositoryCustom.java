@@ -0,0 +1,28 @@
+package com.flightservice.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import com.flightservice.model.Flights;
+import com.mongodb.bulk.BulkWriteError;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface FlightRepositoryCustom {
+
+	// decrements availableSeats only if enough seats remain, empty otherwise
+	Mono<Flights> reserveSeats(String flightId, int seats);
+
+	// flights in flightId order after the given id, limit 0 for no limit and empty fields for every field
+	Flux<Flights> findPage(LocalDate departingFrom, String afterFlightId, long skip, int limit,
+			Collection<String> fields);
+
+	// increments availableSeats only if it stays within totalSeats, empty otherwise
+	Mono<Flights> releaseSeats(String flightId, int seats);
+
+	// one unordered bulk insert, flights without an id get one first; the rows Mongo rejected
+	// come back by their index in the list and every other row is written
+	Mono<List<BulkWriteError>> insertUnordered(List<Flights> flights);
+}
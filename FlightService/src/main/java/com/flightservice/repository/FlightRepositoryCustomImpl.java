@@ -0,0 +1,107 @@
+package com.flightservice.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.flightservice.model.Flights;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public class FlightRepositoryCustomImpl implements FlightRepositoryCustom {
+
+	private static final String FLIGHT_ID = "flightId";
+	private static final String AVAILABLE_SEATS = "availableSeats";
+	private static final String TOTAL_SEATS = "totalSeats";
+	private static final String DEPARTURE_DATE = "departureDate";
+
+	private final ReactiveMongoTemplate mongoTemplate;
+
+	public FlightRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+		this.mongoTemplate = mongoTemplate;
+	}
+
+	@Override
+	public Mono<Flights> reserveSeats(String flightId, int seats) {
+		Query query = Query.query(Criteria.where(FLIGHT_ID).is(flightId)
+				.and(AVAILABLE_SEATS).gte(seats));
+		return incrementSeats(query, -seats);
+	}
+
+	@Override
+	public Mono<Flights> releaseSeats(String flightId, int seats) {
+		Query query = Query.query(Criteria.where(FLIGHT_ID).is(flightId)
+				.andOperator(Criteria.expr(
+						ComparisonOperators.valueOf(ArithmeticOperators.valueOf(AVAILABLE_SEATS).add(seats))
+								.lessThanEqualTo(TOTAL_SEATS))));
+		return incrementSeats(query, seats);
+	}
+
+	@Override
+	public Flux<Flights> findPage(LocalDate departingFrom, String afterFlightId, long skip, int limit,
+			Collection<String> fields) {
+		Criteria criteria = new Criteria();
+		if (departingFrom != null) {
+			criteria.and(DEPARTURE_DATE).gte(departingFrom);
+		}
+		if (afterFlightId != null) {
+			criteria.and(FLIGHT_ID).gt(new ObjectId(afterFlightId));
+		}
+		// keyset pages walk the _id index, so no page is more expensive than the first
+		Query query = Query.query(criteria)
+				.with(Sort.by(FLIGHT_ID))
+				.skip(skip)
+				.limit(limit);
+		fields.forEach(field -> query.fields().include(field));
+		return mongoTemplate.find(query, Flights.class);
+	}
+
+	@Override
+	public Mono<List<BulkWriteError>> insertUnordered(List<Flights> flights) {
+		if (flights.isEmpty()) {
+			return Mono.just(List.of());
+		}
+		flights.stream()
+				.filter(flight -> flight.getFlightId() == null)
+				.forEach(flight -> flight.setFlightId(new ObjectId().toHexString()));
+		return mongoTemplate.bulkOps(BulkMode.UNORDERED, Flights.class)
+				.insert(flights)
+				.execute()
+				.<List<BulkWriteError>>thenReturn(List.of())
+				.onErrorResume(ex -> bulkWriteFailure(ex) != null,
+						ex -> Mono.just(bulkWriteFailure(ex).getWriteErrors()));
+	}
+
+	// the template translates the driver's exception, which stays the cause and keeps the per-row errors
+	private static MongoBulkWriteException bulkWriteFailure(Throwable ex) {
+		for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+			if (cause instanceof MongoBulkWriteException bulk) {
+				return bulk;
+			}
+		}
+		return null;
+	}
+
+	// single conditional update, the filter decides whether the change applies
+	private Mono<Flights> incrementSeats(Query query, int delta) {
+		return mongoTemplate.findAndModify(
+				query,
+				new Update().inc(AVAILABLE_SEATS, delta),
+				FindAndModifyOptions.options().returnNew(true),
+				Flights.class);
+	}
+}
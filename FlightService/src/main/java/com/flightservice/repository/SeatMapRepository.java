@@ -0,0 +1,9 @@
+package com.flightservice.repository;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+import com.flightservice.model.SeatMap;
+
+public interface SeatMapRepository extends ReactiveMongoRepository<SeatMap,String>, SeatMapRepositoryCustom {
+
+}
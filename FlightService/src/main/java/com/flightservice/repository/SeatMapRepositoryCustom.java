@@ -0,0 +1,19 @@
+package com.flightservice.repository;
+
+import java.util.Collection;
+
+import com.flightservice.model.SeatMap;
+
+import reactor.core.publisher.Mono;
+
+public interface SeatMapRepositoryCustom {
+
+	// sets the bits of all the seats only if every one of them is free and on the flight, empty otherwise
+	Mono<SeatMap> bookSeats(String flightId, Collection<Integer> seatIndexes);
+
+	// inserts a map with every seat free unless the flight already has one
+	Mono<Void> createIfAbsent(String flightId, int totalSeats);
+
+	// clears the bits of all the seats only if every one of them is booked, empty otherwise
+	Mono<SeatMap> releaseSeats(String flightId, Collection<Integer> seatIndexes);
+}
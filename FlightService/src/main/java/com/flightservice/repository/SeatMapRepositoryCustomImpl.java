@@ -0,0 +1,93 @@
+package com.flightservice.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.flightservice.model.SeatMap;
+
+import reactor.core.publisher.Mono;
+
+public class SeatMapRepositoryCustomImpl implements SeatMapRepositoryCustom {
+
+	private static final String FLIGHT_ID = "flightId";
+	private static final String TOTAL_SEATS = "totalSeats";
+	private static final String BOOKED_WORDS = "booked";
+	private static final String BOOKED = BOOKED_WORDS + ".";
+
+	private final ReactiveMongoTemplate mongoTemplate;
+
+	public SeatMapRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+		this.mongoTemplate = mongoTemplate;
+	}
+
+	@Override
+	public Mono<SeatMap> bookSeats(String flightId, Collection<Integer> seatIndexes) {
+		Criteria criteria = Criteria.where(FLIGHT_ID).is(flightId)
+				.and(TOTAL_SEATS).gt(seatIndexes.stream().mapToInt(Integer::intValue).max().orElse(0));
+		Update update = new Update();
+		bitsByWord(seatIndexes).forEach((word, bits) -> {
+			criteria.and(BOOKED + word).bits().allClear(bits);
+			update.bitwise(BOOKED + word).or(mask(bits));
+		});
+		return modify(criteria, update);
+	}
+
+	@Override
+	public Mono<Void> createIfAbsent(String flightId, int totalSeats) {
+		Update update = new Update()
+				.setOnInsert(TOTAL_SEATS, totalSeats)
+				.setOnInsert(BOOKED_WORDS, Collections.nCopies(SeatMap.words(totalSeats), 0L));
+		return mongoTemplate.upsert(Query.query(Criteria.where(FLIGHT_ID).is(flightId)), update, SeatMap.class)
+				// lost a race with another first booking, the map is there either way
+				.onErrorResume(DuplicateKeyException.class, ex -> Mono.empty())
+				.then();
+	}
+
+	@Override
+	public Mono<SeatMap> releaseSeats(String flightId, Collection<Integer> seatIndexes) {
+		Criteria criteria = Criteria.where(FLIGHT_ID).is(flightId);
+		Update update = new Update();
+		bitsByWord(seatIndexes).forEach((word, bits) -> {
+			criteria.and(BOOKED + word).bits().allSet(bits);
+			update.bitwise(BOOKED + word).and(~mask(bits));
+		});
+		return modify(criteria, update);
+	}
+
+	// one findAndModify, the filter checks every word the update touches
+	private Mono<SeatMap> modify(Criteria criteria, Update update) {
+		return mongoTemplate.findAndModify(
+				Query.query(criteria),
+				update,
+				FindAndModifyOptions.options().returnNew(true),
+				SeatMap.class);
+	}
+
+	// bit positions within each word, the query operators take positions and the update a mask
+	private static Map<Integer, List<Integer>> bitsByWord(Collection<Integer> seatIndexes) {
+		Map<Integer, List<Integer>> bits = new TreeMap<>();
+		for (int seatIndex : seatIndexes) {
+			bits.computeIfAbsent(SeatMap.word(seatIndex), word -> new ArrayList<>()).add(seatIndex % Long.SIZE);
+		}
+		return bits;
+	}
+
+	private static long mask(List<Integer> bits) {
+		long mask = 0;
+		for (int bit : bits) {
+			mask |= 1L << bit;
+		}
+		return mask;
+	}
+}
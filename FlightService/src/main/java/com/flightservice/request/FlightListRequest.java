@@ -0,0 +1,56 @@
+package com.flightservice.request;
+
+// query parameters of getAllFlights, all optional and the whole collection is returned when none is set
+public class FlightListRequest {
+
+    private Integer page;  // zero based, cannot be combined with after
+
+    private Integer limit;
+
+    private String after;  // keyset cursor, the flightId of the last flight already seen
+
+    private Boolean upcomingOnly;
+
+    private String fields;  // comma separated, e.g. flightId,availableSeats
+
+    // getters and setters
+    public Integer getPage() {
+        return page;
+    }
+
+    public void setPage(Integer page) {
+        this.page = page;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
+    public String getAfter() {
+        return after;
+    }
+
+    public void setAfter(String after) {
+        this.after = after;
+    }
+
+    public Boolean getUpcomingOnly() {
+        return upcomingOnly;
+    }
+
+    public void setUpcomingOnly(Boolean upcomingOnly) {
+        this.upcomingOnly = upcomingOnly;
+    }
+
+    public String getFields() {
+        return fields;
+    }
+
+    public void setFields(String fields) {
+        this.fields = fields;
+    }
+}
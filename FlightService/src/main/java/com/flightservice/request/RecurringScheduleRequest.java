@@ -0,0 +1,159 @@
+package com.flightservice.request;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+
+import com.flightservice.model.Cities;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+// one flight number operated on the same weekdays at the same times between two dates
+public class RecurringScheduleRequest {
+
+	@NotBlank(message="Airline code is a required field")
+	private String airlineCode;
+
+	@NotBlank(message="Flight number is a required field")
+	private String flightNumber;
+
+	@NotNull(message="Source City cannot be empty")
+	private Cities sourceCity;
+
+	@NotNull(message="Destination city cannot be empty")
+	private Cities destinationCity;
+
+	@NotNull(message="Departure time cannot be empty")
+	private LocalTime departureTime;
+
+	@NotNull(message="Arrival time cannot be empty")
+	private LocalTime arrivalTime;
+
+	private int arrivalDayOffset; // 1 when the flight lands the day after it leaves
+
+	@NotNull(message="Start date cannot be empty")
+	private LocalDate startDate;
+
+	@NotNull(message="End date cannot be empty")
+	private LocalDate endDate; // inclusive
+
+	private Set<DayOfWeek> daysOfWeek; // days the flight operates, every day when empty
+
+	@NotNull(message="Total seats cannot be empty")
+	@Positive(message="Total Seats must be positive")
+	private Integer totalSeats;
+
+	@NotNull(message="Price cannot be empty")
+	@Positive(message="Price must be positive")
+	private Float price;
+
+	private boolean mealAvailable;
+
+	// getter and setters
+	public String getAirlineCode() {
+		return airlineCode;
+	}
+
+	public void setAirlineCode(String airlineCode) {
+		this.airlineCode = airlineCode;
+	}
+
+	public String getFlightNumber() {
+		return flightNumber;
+	}
+
+	public void setFlightNumber(String flightNumber) {
+		this.flightNumber = flightNumber;
+	}
+
+	public Cities getSourceCity() {
+		return sourceCity;
+	}
+
+	public void setSourceCity(Cities sourceCity) {
+		this.sourceCity = sourceCity;
+	}
+
+	public Cities getDestinationCity() {
+		return destinationCity;
+	}
+
+	public void setDestinationCity(Cities destinationCity) {
+		this.destinationCity = destinationCity;
+	}
+
+	public LocalTime getDepartureTime() {
+		return departureTime;
+	}
+
+	public void setDepartureTime(LocalTime departureTime) {
+		this.departureTime = departureTime;
+	}
+
+	public LocalTime getArrivalTime() {
+		return arrivalTime;
+	}
+
+	public void setArrivalTime(LocalTime arrivalTime) {
+		this.arrivalTime = arrivalTime;
+	}
+
+	public int getArrivalDayOffset() {
+		return arrivalDayOffset;
+	}
+
+	public void setArrivalDayOffset(int arrivalDayOffset) {
+		this.arrivalDayOffset = arrivalDayOffset;
+	}
+
+	public LocalDate getStartDate() {
+		return startDate;
+	}
+
+	public void setStartDate(LocalDate startDate) {
+		this.startDate = startDate;
+	}
+
+	public LocalDate getEndDate() {
+		return endDate;
+	}
+
+	public void setEndDate(LocalDate endDate) {
+		this.endDate = endDate;
+	}
+
+	public Set<DayOfWeek> getDaysOfWeek() {
+		return daysOfWeek;
+	}
+
+	public void setDaysOfWeek(Set<DayOfWeek> daysOfWeek) {
+		this.daysOfWeek = daysOfWeek;
+	}
+
+	public Integer getTotalSeats() {
+		return totalSeats;
+	}
+
+	public void setTotalSeats(Integer totalSeats) {
+		this.totalSeats = totalSeats;
+	}
+
+	public Float getPrice() {
+		return price;
+	}
+
+	public void setPrice(Float price) {
+		this.price = price;
+	}
+
+	public boolean isMealAvailable() {
+		return mealAvailable;
+	}
+
+	public void setMealAvailable(boolean mealAvailable) {
+		this.mealAvailable = mealAvailable;
+	}
+}
@@ -23,6 +23,8 @@ public class SearchFlightRequest {
 
     private LocalDate returnDate;  // only required for round-trip
 
+    private Integer flexibleDays;  // only for flexible-date search, days either side of travelDate
+
 
     // getters and setters
     public Cities getSourceCity() {
@@ -64,4 +66,12 @@ public class SearchFlightRequest {
     public void setReturnDate(LocalDate returnDate) {
         this.returnDate = returnDate;
     }
+
+    public Integer getFlexibleDays() {
+        return flexibleDays;
+    }
+
+    public void setFlexibleDays(Integer flexibleDays) {
+        this.flexibleDays = flexibleDays;
+    }
 }
@@ -0,0 +1,37 @@
+package com.flightservice.responses;
+
+// outcome of one line of a bulk flight import, row is the 1-based line number
+public class BulkImportResult {
+
+    private final long row;
+
+    private final String flightId;
+
+    private final String error;
+
+    private BulkImportResult(long row, String flightId, String error) {
+        this.row = row;
+        this.flightId = flightId;
+        this.error = error;
+    }
+
+    public static BulkImportResult imported(long row, String flightId) {
+        return new BulkImportResult(row, flightId, null);
+    }
+
+    public static BulkImportResult failed(long row, String error) {
+        return new BulkImportResult(row, null, error);
+    }
+
+    public long getRow() {
+        return row;
+    }
+
+    public String getFlightId() {
+        return flightId;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,58 @@
+package com.flightservice.responses;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.flightservice.model.Flights;
+
+public class Itinerary {
+
+    private final List<Flights> legs;
+
+    private final int stops;
+
+    private final LocalDateTime departure;
+
+    private final LocalDateTime arrival;
+
+    private final long durationMinutes;
+
+    private final double totalPrice;
+
+    // legs in travel order, each with departure and arrival date and time set
+    public Itinerary(List<Flights> legs) {
+        Flights first = legs.get(0);
+        Flights last = legs.get(legs.size() - 1);
+        this.legs = legs;
+        this.stops = legs.size() - 1;
+        this.departure = LocalDateTime.of(first.getDepartureDate(), first.getDepartureTime());
+        this.arrival = LocalDateTime.of(last.getArrivalDate(), last.getArrivalTime());
+        this.durationMinutes = Duration.between(departure, arrival).toMinutes();
+        this.totalPrice = legs.stream().mapToDouble(Flights::getPrice).sum();
+    }
+
+    public List<Flights> getLegs() {
+        return legs;
+    }
+
+    public int getStops() {
+        return stops;
+    }
+
+    public LocalDateTime getDeparture() {
+        return departure;
+    }
+
+    public LocalDateTime getArrival() {
+        return arrival;
+    }
+
+    public long getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public double getTotalPrice() {
+        return totalPrice;
+    }
+}
@@ -0,0 +1,34 @@
+package com.flightservice.responses;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+public class RecurringScheduleResponse {
+
+    private final String flightNumber;
+
+    // flightId of each departure written, by date
+    private final Map<LocalDate, String> created;
+
+    // dates the flight already existed on
+    private final List<LocalDate> skippedDates;
+
+    public RecurringScheduleResponse(String flightNumber, Map<LocalDate, String> created, List<LocalDate> skippedDates) {
+        this.flightNumber = flightNumber;
+        this.created = created;
+        this.skippedDates = skippedDates;
+    }
+
+    public String getFlightNumber() {
+        return flightNumber;
+    }
+
+    public Map<LocalDate, String> getCreated() {
+        return created;
+    }
+
+    public List<LocalDate> getSkippedDates() {
+        return skippedDates;
+    }
+}
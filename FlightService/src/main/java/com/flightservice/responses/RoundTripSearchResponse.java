@@ -0,0 +1,25 @@
+package com.flightservice.responses;
+
+import java.util.List;
+
+import com.flightservice.model.Flights;
+
+public class RoundTripSearchResponse {
+
+    private final List<Flights> outboundFlights;
+
+    private final List<Flights> returnFlights;
+
+    public RoundTripSearchResponse(List<Flights> outboundFlights, List<Flights> returnFlights) {
+        this.outboundFlights = outboundFlights;
+        this.returnFlights = returnFlights;
+    }
+
+    public List<Flights> getOutboundFlights() {
+        return outboundFlights;
+    }
+
+    public List<Flights> getReturnFlights() {
+        return returnFlights;
+    }
+}
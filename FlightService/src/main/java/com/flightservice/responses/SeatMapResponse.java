@@ -0,0 +1,37 @@
+package com.flightservice.responses;
+
+import java.util.List;
+
+public class SeatMapResponse {
+
+    private final String flightId;
+
+    private final int totalSeats;
+
+    private final List<String> bookedSeats;
+
+    private final List<String> availableSeats;
+
+    public SeatMapResponse(String flightId, int totalSeats, List<String> bookedSeats, List<String> availableSeats) {
+        this.flightId = flightId;
+        this.totalSeats = totalSeats;
+        this.bookedSeats = bookedSeats;
+        this.availableSeats = availableSeats;
+    }
+
+    public String getFlightId() {
+        return flightId;
+    }
+
+    public int getTotalSeats() {
+        return totalSeats;
+    }
+
+    public List<String> getBookedSeats() {
+        return bookedSeats;
+    }
+
+    public List<String> getAvailableSeats() {
+        return availableSeats;
+    }
+}
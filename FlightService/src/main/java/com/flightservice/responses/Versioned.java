@@ -0,0 +1,22 @@
+package com.flightservice.responses;
+
+// a response body with the catalog version it was read from, version is null when there is none to tag it with
+public class Versioned<T> {
+
+    private final T body;
+
+    private final String version;
+
+    public Versioned(T body, String version) {
+        this.body = body;
+        this.version = version;
+    }
+
+    public T getBody() {
+        return body;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+}
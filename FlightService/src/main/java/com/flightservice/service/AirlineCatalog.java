@@ -0,0 +1,131 @@
+package com.flightservice.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.flightservice.model.Airline;
+import com.flightservice.repository.AirlineRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The airline collection held in memory, so lookups and listings need no
+ * database call.
+ *
+ * Airlines added on this instance are applied straight away. Those added on
+ * other instances arrive with the next reload. Until then a lookup miss
+ * still reaches the database through the callers' fallback. The version is
+ * a hash of the content, so every instance holding the same airlines reports
+ * the same version, and clients can use it as an ETag.
+ */
+@Component
+public class AirlineCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(AirlineCatalog.class);
+
+    private final AirlineRepository airlineRepository;
+
+    private volatile Snapshot snapshot;
+
+    public AirlineCatalog(AirlineRepository airlineRepository) {
+        this.airlineRepository = airlineRepository;
+    }
+
+    // one consistent view: a version always describes the airlines it is read with
+    public record Snapshot(Map<String, Airline> byCode, List<Airline> all, String version) {
+
+        public static Snapshot of(Collection<Airline> airlines) {
+            Map<String, Airline> byCode = new TreeMap<>();
+            airlines.forEach(airline -> byCode.put(airline.getAirlineCode(), airline));
+            return new Snapshot(Map.copyOf(byCode), List.copyOf(byCode.values()), contentHash(byCode));
+        }
+    }
+
+    // until the first load completes callers should read the database
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    // null until the first load completes
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    public Optional<Airline> find(String code) {
+        Snapshot current = snapshot;
+        if (current == null || code == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(current.byCode().get(code));
+    }
+
+    // every airline, ordered by code
+    public List<Airline> all() {
+        Snapshot current = snapshot;
+        return current == null ? List.of() : current.all();
+    }
+
+    // to add an airline saved on this instance, or one found in the database after a miss
+    public synchronized void put(Airline airline) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        Map<String, Airline> byCode = new TreeMap<>(current.byCode());
+        byCode.put(airline.getAirlineCode(), airline);
+        snapshot = Snapshot.of(byCode.values());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload().subscribe();
+    }
+
+    @Scheduled(initialDelayString = "${flight.airline-catalog.refresh:PT30S}",
+            fixedDelayString = "${flight.airline-catalog.refresh:PT30S}")
+    public Mono<Void> reload() {
+        return Flux.defer(airlineRepository::findAll)
+                .collectList()
+                .doOnNext(airlines -> {
+                    Snapshot loaded = Snapshot.of(airlines);
+                    Snapshot previous = snapshot;
+                    snapshot = loaded;
+                    if (previous == null || !previous.version().equals(loaded.version())) {
+                        log.info("Airline catalog loaded with {} airlines, version {}", airlines.size(), loaded.version());
+                    }
+                })
+                .doOnError(ex -> log.warn("Airline catalog load failed, airlines stay on the database", ex))
+                .onErrorResume(ex -> Mono.empty())
+                .then();
+    }
+
+    private static String contentHash(Map<String, Airline> byCode) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byCode.values().forEach(airline -> {
+                digest.update(airline.getAirlineCode().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(String.valueOf(airline.getAirlineName()).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            });
+            return HexFormat.of().formatHex(digest.digest(), 0, 8);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
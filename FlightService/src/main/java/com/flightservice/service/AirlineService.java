@@ -1,5 +1,7 @@
 package com.flightservice.service;
 
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -8,8 +10,8 @@ import com.flightservice.exceptions.ValidationException;
 import com.flightservice.model.Airline;
 import com.flightservice.repository.AirlineRepository;
 import com.flightservice.request.AddAirlineRequest;
+import com.flightservice.responses.Versioned;
 
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Service
@@ -17,9 +19,12 @@ public class AirlineService {
     
     private final AirlineRepository airlineRepository;
 
+    private final AirlineCatalog airlineCatalog;
+
     @Autowired
-    public AirlineService(AirlineRepository airlineRepository) {
+    public AirlineService(AirlineRepository airlineRepository, AirlineCatalog airlineCatalog) {
         this.airlineRepository = airlineRepository;
+        this.airlineCatalog = airlineCatalog;
     }
 
     // add an airline
@@ -50,20 +55,43 @@ public class AirlineService {
                     airline.setAirlineCode(code);
                     airline.setAirlineName(req.getAirlineName());
 
-                    return airlineRepository.save(airline);
+                    return airlineRepository.save(airline)
+                            .doOnNext(airlineCatalog::put);
                 });
 
     }
 
-    // fetch all airlines
-    public Flux<Airline> getAllAirlines() {
-        return airlineRepository.findAll();
+    // fetch all airlines with the catalog version, both from one snapshot; before the first load
+    // they come from the database without a version
+    public Mono<Versioned<List<Airline>>> getAllAirlines() {
+        AirlineCatalog.Snapshot catalog = airlineCatalog.snapshot();
+        if (catalog == null) {
+            return airlineRepository.findAll()
+                    .collectList()
+                    .map(airlines -> new Versioned<>(airlines, null));
+        }
+        return Mono.just(new Versioned<>(catalog.all(), catalog.version()));
     }
 
-    // fetch airline by code
-    public Mono<Airline> getAirline(String code) {
-        return airlineRepository.findById(code.toUpperCase())
+    // fetch airline by code, with the catalog version when the snapshot holds it
+    public Mono<Versioned<Airline>> getAirline(String code) {
+        String key = code.toUpperCase();
+        AirlineCatalog.Snapshot catalog = airlineCatalog.snapshot();
+        Airline cached = catalog == null ? null : catalog.byCode().get(key);
+        if (cached != null) {
+            return Mono.just(new Versioned<>(cached, catalog.version()));
+        }
+        return findAirline(key)
+                .map(airline -> new Versioned<>(airline, null))
                 .switchIfEmpty(Mono.error(
                         new ResourceNotFoundException("Airline not found with code: " + code)));
     }
+
+    // from the catalog, a miss may be an airline another instance just added so it still goes to the database
+    public Mono<Airline> findAirline(String code) {
+        return airlineCatalog.find(code)
+                .map(Mono::just)
+                .orElseGet(() -> airlineRepository.findById(code)
+                        .doOnNext(airlineCatalog::put));
+    }
 }
@@ -0,0 +1,88 @@
+package com.flightservice.service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.OptionalDouble;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.flightservice.model.Cities;
+import com.flightservice.model.Flights;
+
+/**
+ * Lowest available fare per route per day, kept next to the {@link RouteIndex}
+ * so a month view is a map range instead of a scan over flights.
+ *
+ * The fares are updated one day at a time as the index changes. That covers a
+ * flight being added, a flight selling out, and seats being released on a
+ * flight that had sold out. On each change only that day's few flights are
+ * looked at again. A reload of the index rebuilds the whole calendar. The
+ * index makes these calls one at a time, and only after it has replayed the
+ * writes made during a reload, so a rebuild never misses a change.
+ */
+@Component
+public class FareCalendar implements RouteIndex.Listener {
+
+    private final RouteIndex routeIndex;
+
+    private volatile Map<Cities, EnumMap<Cities, ConcurrentSkipListMap<LocalDate, Double>>> fares = emptyFares();
+
+    @Autowired
+    public FareCalendar(RouteIndex routeIndex) {
+        this.routeIndex = routeIndex;
+        routeIndex.addListener(this);
+    }
+
+    public boolean isReady() {
+        return routeIndex.isReady();
+    }
+
+    // lowest fare for each day of the month that still has seats, days without any are absent
+    public NavigableMap<LocalDate, Double> month(Cities source, Cities destination, YearMonth month) {
+        return fares.get(source).get(destination).subMap(month.atDay(1), true, month.atEndOfMonth(), true);
+    }
+
+    @Override
+    public void dayChanged(Cities source, Cities destination, LocalDate date) {
+        ConcurrentSkipListMap<LocalDate, Double> days = fares.get(source).get(destination);
+        OptionalDouble lowest = lowestAvailable(routeIndex.find(source, destination, date));
+        if (lowest.isPresent()) {
+            days.put(date, lowest.getAsDouble());
+        } else {
+            days.remove(date);
+        }
+    }
+
+    @Override
+    public void reloaded() {
+        Map<Cities, EnumMap<Cities, ConcurrentSkipListMap<LocalDate, Double>>> rebuilt = emptyFares();
+        routeIndex.forEachDay((source, destination, date, flights) -> lowestAvailable(flights)
+                .ifPresent(price -> rebuilt.get(source).get(destination).put(date, price)));
+        fares = rebuilt;
+    }
+
+    private static OptionalDouble lowestAvailable(List<Flights> flights) {
+        return flights.stream()
+                .filter(flight -> flight.getAvailableSeats() > 0)
+                .mapToDouble(Flights::getPrice)
+                .min();
+    }
+
+    private static Map<Cities, EnumMap<Cities, ConcurrentSkipListMap<LocalDate, Double>>> emptyFares() {
+        EnumMap<Cities, EnumMap<Cities, ConcurrentSkipListMap<LocalDate, Double>>> fares = new EnumMap<>(Cities.class);
+        for (Cities source : Cities.values()) {
+            EnumMap<Cities, ConcurrentSkipListMap<LocalDate, Double>> destinations = new EnumMap<>(Cities.class);
+            for (Cities destination : Cities.values()) {
+                destinations.put(destination, new ConcurrentSkipListMap<>());
+            }
+            fares.put(source, destinations);
+        }
+        return fares;
+    }
+}
@@ -0,0 +1,62 @@
+package com.flightservice.service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.flightservice.exceptions.ValidationException;
+import com.flightservice.model.Flights;
+
+// the Flights properties a caller can ask for with fields=, in response order
+final class FlightFields {
+
+    private static final Map<String, Function<Flights, Object>> GETTERS = new LinkedHashMap<>();
+
+    static {
+        GETTERS.put("flightId", Flights::getFlightId);
+        GETTERS.put("flightNumber", Flights::getFlightNumber);
+        GETTERS.put("airlineCode", Flights::getAirlineCode);
+        GETTERS.put("sourceCity", Flights::getSourceCity);
+        GETTERS.put("destinationCity", Flights::getDestinationCity);
+        GETTERS.put("departureDate", Flights::getDepartureDate);
+        GETTERS.put("arrivalDate", Flights::getArrivalDate);
+        GETTERS.put("departureTime", Flights::getDepartureTime);
+        GETTERS.put("arrivalTime", Flights::getArrivalTime);
+        GETTERS.put("mealAvailable", Flights::isMealAvailable);
+        GETTERS.put("totalSeats", Flights::getTotalSeats);
+        GETTERS.put("availableSeats", Flights::getAvailableSeats);
+        GETTERS.put("price", Flights::getPrice);
+    }
+
+    private FlightFields() {
+    }
+
+    // empty when no fields were asked for, every field is returned then
+    static Set<String> parse(String csv) {
+        if (csv == null || csv.isBlank()) {
+            return Collections.emptySet();
+        }
+        Set<String> fields = new LinkedHashSet<>();
+        for (String field : csv.split(",")) {
+            String name = field.trim();
+            if (!GETTERS.containsKey(name)) {
+                throw new ValidationException("Unknown field: " + name + ". Allowed fields: " + GETTERS.keySet());
+            }
+            fields.add(name);
+        }
+        return fields;
+    }
+
+    static Map<String, Object> project(Flights flight, Set<String> fields) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        GETTERS.forEach((name, getter) -> {
+            if (fields.contains(name)) {
+                values.put(name, getter.apply(flight));
+            }
+        });
+        return values;
+    }
+}
@@ -0,0 +1,78 @@
+package com.flightservice.service;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.stereotype.Component;
+
+import com.flightservice.model.Flights;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Makes sure the unique flightNumber_date index exists before the service
+ * takes traffic. Adding a flight and the bulk import rely on it to reject a
+ * second flight number on the same date without reading first, while
+ * automatic index creation only logs a failure, for instance when the
+ * collection already holds duplicates. Startup fails instead of running
+ * without it.
+ */
+@Component
+@ConditionalOnProperty(name = "flight.index-check.enabled", havingValue = "true", matchIfMissing = true)
+public class FlightIndexCheck implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(FlightIndexCheck.class);
+
+    static final String INDEX_NAME = "flightNumber_date";
+    private static final List<String> INDEX_KEYS = List.of("flightNumber", "departureDate");
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final Duration timeout;
+
+    public FlightIndexCheck(ReactiveMongoTemplate mongoTemplate,
+                            @Value("${flight.index-check.timeout:PT30S}") Duration timeout) {
+        this.mongoTemplate = mongoTemplate;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        verify().block(timeout);
+    }
+
+    // creates the index if it is missing, errors if that fails or no unique index on the keys is there after
+    public Mono<Void> verify() {
+        ReactiveIndexOperations indexOps = mongoTemplate.indexOps(Flights.class);
+        Index index = new Index().named(INDEX_NAME).unique();
+        INDEX_KEYS.forEach(key -> index.on(key, Sort.Direction.ASC));
+
+        return indexOps.ensureIndex(index)
+                .thenMany(indexOps.getIndexInfo())
+                .any(FlightIndexCheck::isUniqueFlightNumberDate)
+                .flatMap(found -> {
+                    if (!found) {
+                        return Mono.error(new IllegalStateException("Unique index " + INDEX_NAME
+                                + " on " + INDEX_KEYS + " is missing from the flights collection"));
+                    }
+                    log.info("Unique index {} on flights is in place", INDEX_NAME);
+                    return Mono.<Void>empty();
+                });
+    }
+
+    static boolean isUniqueFlightNumberDate(IndexInfo info) {
+        return info.isUnique()
+                && info.getIndexFields().stream().map(IndexField::getKey).toList().equals(INDEX_KEYS);
+    }
+}
@@ -1,15 +1,25 @@
 package com.flightservice.service;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Range;
 import org.springframework.stereotype.Service;
 
 import com.flightservice.exceptions.ResourceNotFoundException;
+import com.flightservice.exceptions.ServiceUnavailableException;
 import com.flightservice.exceptions.ValidationException;
+import com.flightservice.model.Cities;
 import com.flightservice.model.Flights;
 import com.flightservice.repository.FlightRepository;
 import com.flightservice.request.SearchFlightRequest;
+import com.flightservice.responses.Itinerary;
+import com.flightservice.responses.RoundTripSearchResponse;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -17,42 +27,176 @@ import reactor.core.publisher.Mono;
 @Service
 public class FlightSearchService {
 
+    private static final int MAX_FLEXIBLE_DAYS = 7;
+
     private final FlightRepository flightInventoryRepository;
 
+    private final RouteIndex routeIndex;
+
+    private final ItineraryPlanner itineraryPlanner;
+
+    private final FareCalendar fareCalendar;
+
     @Autowired
-    public FlightSearchService(FlightRepository flightInventoryRepository) {
+    public FlightSearchService(FlightRepository flightInventoryRepository, RouteIndex routeIndex,
+                               ItineraryPlanner itineraryPlanner, FareCalendar fareCalendar) {
         this.flightInventoryRepository = flightInventoryRepository;
+        this.routeIndex = routeIndex;
+        this.itineraryPlanner = itineraryPlanner;
+        this.fareCalendar = fareCalendar;
     }
 
     // to search a flight 
     public Flux<Flights> searchFlights(SearchFlightRequest req) {
+        return validateSearch(req)
+                .thenMany(Flux.defer(() ->
+                        findOnRoute(req.getSourceCity(), req.getDestinationCity(), req.getTravelDate())))
+                .switchIfEmpty(Mono.error(new ResourceNotFoundException("No flights found")));
+    }
+
+    // to search both legs of a round trip, the outbound and reverse route are looked up concurrently
+    public Mono<RoundTripSearchResponse> searchRoundTrip(SearchFlightRequest req) {
+        return validateSearch(req)
+                // deferred, it compares against travelDate which validateSearch has to check first
+                .then(Mono.defer(() -> validateReturnDate(req)))
+                .then(Mono.defer(() -> Mono.zip(
+                        findOnRoute(req.getSourceCity(), req.getDestinationCity(), req.getTravelDate())
+                                .collectList(),
+                        findOnRoute(req.getDestinationCity(), req.getSourceCity(), req.getReturnDate())
+                                .collectList())))
+                .flatMap(legs -> {
+                    if (legs.getT1().isEmpty()) {
+                        return Mono.error(new ResourceNotFoundException("No outbound flights found"));
+                    }
+                    if (legs.getT2().isEmpty()) {
+                        return Mono.error(new ResourceNotFoundException("No return flights found"));
+                    }
+                    return Mono.just(new RoundTripSearchResponse(legs.getT1(), legs.getT2()));
+                });
+    }
+
+    // to search the days around travelDate in one lookup, every day of the window is present in date order
+    public Mono<Map<LocalDate, List<Flights>>> searchFlexibleDates(SearchFlightRequest req) {
+        return validateSearch(req)
+                .then(validateFlexibleDays(req))
+                .then(Mono.defer(() -> {
+                    LocalDate today = LocalDate.now();
+                    LocalDate from = req.getTravelDate().minusDays(req.getFlexibleDays());
+                    LocalDate to = req.getTravelDate().plusDays(req.getFlexibleDays());
+                    LocalDate first = from.isBefore(today) ? today : from;
+                    return findOnRoute(req.getSourceCity(), req.getDestinationCity(), first, to)
+                            .collect(() -> emptyDays(first, to),
+                                    (days, flight) -> days.get(flight.getDepartureDate()).add(flight));
+                }))
+                .flatMap(days -> days.values().stream().allMatch(List::isEmpty)
+                        ? Mono.error(new ResourceNotFoundException("No flights found"))
+                        : Mono.just(days));
+    }
+
+    // to search direct and connecting itineraries, answered from the route index only
+    public Flux<Itinerary> searchConnections(SearchFlightRequest req, int maxStops) {
+        if (maxStops < 0 || maxStops > ItineraryPlanner.MAX_STOPS) {
+            return Flux.error(new ValidationException(
+                    "Max stops must be between 0 and " + ItineraryPlanner.MAX_STOPS));
+        }
+        return validateSearch(req)
+                .then(Mono.fromCallable(() -> {
+                    if (!routeIndex.isReady()) {
+                        throw new ServiceUnavailableException("Connection search is not ready yet, try again shortly");
+                    }
+                    return itineraryPlanner.plan(
+                            req.getSourceCity(), req.getDestinationCity(), req.getTravelDate(), maxStops);
+                }))
+                .flatMapMany(Flux::fromIterable)
+                .switchIfEmpty(Mono.error(new ResourceNotFoundException("No itineraries found")));
+    }
+
+    // to get the lowest fare per day of a month on a route, read from the materialized calendar
+    public Mono<Map<LocalDate, Double>> getFareCalendar(Cities source, Cities destination, YearMonth month) {
+        if (source == null || destination == null) {
+            return Mono.error(new ValidationException("Source and destination city are required"));
+        }
+        if (source == destination) {
+            return Mono.error(new ValidationException("Source and destination cannot be the same"));
+        }
+        if (month == null) {
+            return Mono.error(new ValidationException("Month is required"));
+        }
+        return Mono.fromCallable(() -> {
+            if (!fareCalendar.isReady()) {
+                throw new ServiceUnavailableException("Fare calendar is not ready yet, try again shortly");
+            }
+            return fareCalendar.month(source, destination, month);
+        });
+    }
 
+    // validation logic shared by all searches
+    private Mono<Void> validateSearch(SearchFlightRequest req) {
         if (req.getSourceCity() == null) {
-            return Flux.error(new ValidationException("Source city is required"));
+            return Mono.error(new ValidationException("Source city is required"));
         }
 
         if (req.getDestinationCity() == null) {
-            return Flux.error(new ValidationException("Destination city is required"));
+            return Mono.error(new ValidationException("Destination city is required"));
         }
 
         if (req.getSourceCity().equals(req.getDestinationCity())) {
-            return Flux.error(new ValidationException("Source and destination cannot be the same"));
+            return Mono.error(new ValidationException("Source and destination cannot be the same"));
         }
 
         if (req.getTravelDate() == null) {
-            return Flux.error(new ValidationException("Travel date is required"));
+            return Mono.error(new ValidationException("Travel date is required"));
         }
 
         if (req.getTravelDate().isBefore(LocalDate.now())) {
-            return Flux.error(new ValidationException("Travel date cannot be in the past"));
+            return Mono.error(new ValidationException("Travel date cannot be in the past"));
         }
+        return Mono.empty();
+    }
+
+    private Mono<Void> validateReturnDate(SearchFlightRequest req) {
+        if (req.getReturnDate() == null) {
+            return Mono.error(new ValidationException("Return date is required for a round trip"));
+        }
+
+        if (req.getReturnDate().isBefore(req.getTravelDate())) {
+            return Mono.error(new ValidationException("Return date cannot be before travel date"));
+        }
+        return Mono.empty();
+    }
+
+    private Mono<Void> validateFlexibleDays(SearchFlightRequest req) {
+        if (req.getFlexibleDays() == null
+                || req.getFlexibleDays() < 1 || req.getFlexibleDays() > MAX_FLEXIBLE_DAYS) {
+            return Mono.error(new ValidationException(
+                    "Flexible days must be between 1 and " + MAX_FLEXIBLE_DAYS));
+        }
+        return Mono.empty();
+    }
 
+    private static Map<LocalDate, List<Flights>> emptyDays(LocalDate from, LocalDate to) {
+        Map<LocalDate, List<Flights>> days = new LinkedHashMap<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            days.put(day, new ArrayList<>());
+        }
+        return days;
+    }
+
+    // served from memory once the route index is loaded, from the database before that
+    private Flux<Flights> findOnRoute(Cities source, Cities destination, LocalDate date) {
+        if (routeIndex.isReady()) {
+            return Flux.fromIterable(routeIndex.find(source, destination, date));
+        }
         return flightInventoryRepository
-                .findBySourceCityAndDestinationCityAndDepartureDate(
-                        req.getSourceCity(),
-                        req.getDestinationCity(),
-                        req.getTravelDate()
-                )
-                .switchIfEmpty(Mono.error(new ResourceNotFoundException("No flights found")));
+                .findBySourceCityAndDestinationCityAndDepartureDate(source, destination, date);
+    }
+
+    private Flux<Flights> findOnRoute(Cities source, Cities destination, LocalDate from, LocalDate to) {
+        if (routeIndex.isReady()) {
+            return Flux.fromIterable(routeIndex.find(source, destination, from, to).values())
+                    .flatMapIterable(flights -> flights);
+        }
+        return flightInventoryRepository.findBySourceCityAndDestinationCityAndDepartureDateBetween(
+                source, destination, Range.closed(from, to));
     }
 }
@@ -1,19 +1,42 @@
 package com.flightservice.service;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Range;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.stereotype.Service;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.flightservice.exceptions.ResourceNotFoundException;
 import com.flightservice.exceptions.ValidationException;
+import com.flightservice.model.Airline;
 import com.flightservice.model.Flights;
-import com.flightservice.model.Seats;
-import com.flightservice.repository.AirlineRepository;
+import com.flightservice.model.SeatMap;
 import com.flightservice.repository.FlightRepository;
-import com.flightservice.repository.SeatsRepository;
+import com.flightservice.repository.SeatMapRepository;
 import com.flightservice.request.AddFlightRequest;
+import com.flightservice.request.FlightListRequest;
+import com.flightservice.request.RecurringScheduleRequest;
+import com.flightservice.responses.BulkImportResult;
+import com.flightservice.responses.RecurringScheduleResponse;
+import com.flightservice.responses.SeatMapResponse;
+import com.mongodb.bulk.BulkWriteError;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -21,20 +44,42 @@ import reactor.core.publisher.Mono;
 @Service
 public class FlightService {
 
+    private static final int MAX_BATCH_LOOKUP = 100;
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    // rows per bulk insert during an import or schedule expansion
+    private static final int IMPORT_CHUNK = 1000;
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    // a season is at most a year
+    private static final int MAX_SCHEDULE_DAYS = 366;
+
+    // same settings as request bodies, unknown fields are ignored and java.time is understood
+    private static final ObjectReader IMPORT_ROW_READER =
+            Jackson2ObjectMapperBuilder.json().build().readerFor(AddFlightRequest.class);
+
     private final FlightRepository flightInventoryRepository;
 
-    private final AirlineRepository airlineRepository;
+    private final SeatMapRepository seatMapRepository;
 
-    private final SeatsRepository seatRepository;
+    private final RouteIndex routeIndex;
+
+    private final AirlineService airlineService;
 
     @Autowired
     public FlightService(
             FlightRepository flightInventoryRepository,
-            AirlineRepository airlineRepository,
-            SeatsRepository seatRepository) {
+            AirlineService airlineService,
+            SeatMapRepository seatMapRepository,
+            RouteIndex routeIndex) {
         this.flightInventoryRepository = flightInventoryRepository;
-        this.airlineRepository = airlineRepository;
-        this.seatRepository = seatRepository;
+        this.airlineService = airlineService;
+        this.seatMapRepository = seatMapRepository;
+        this.routeIndex = routeIndex;
     }
 
     // add a flight in db
@@ -43,13 +88,12 @@ public class FlightService {
         return validateRequest(req)
                 .then(validateDates(req))
                 .then(
-                    airlineRepository.findById(req.getAirlineCode())
+                    airlineService.findAirline(req.getAirlineCode())
                         .switchIfEmpty(Mono.error(
                             new ResourceNotFoundException("Airline not found")
                         ))
                 )
-                .then(checkDuplicateFlight(req))
-                .switchIfEmpty(createInventory(req))     
+                .then(Mono.defer(() -> createInventory(req)))
                 .map(saved ->
                     Map.of("flightId", saved.getFlightId())
                 );
@@ -99,23 +143,16 @@ public class FlightService {
         return Mono.empty();
     }
 
-    
-    // to check if a duplicate flight exists or not
-    private Mono<Flights> checkDuplicateFlight(AddFlightRequest req) {
-        return flightInventoryRepository
-                .findFirstByFlightNumberAndDepartureDate(req.getFlightNumber(), req.getDepartureDate())
-                .flatMap(existing -> Mono.error(
-                        new ValidationException("Flight already exists on this date")));
-    }
-
-    
 
+    // the unique flightNumber_date index rejects a second flight on the same date, no read needed first
     private Mono<Flights> createInventory(AddFlightRequest req) {
         Flights inv = mapToEntity(req);
 
+        // no seat map yet, it is written on the first booking
         return flightInventoryRepository.save(inv)
-                .flatMap(saved -> generateSeats(saved.getFlightId(), saved.getTotalSeats())
-                        .thenReturn(saved));
+                .onErrorMap(DuplicateKeyException.class,
+                        ex -> new ValidationException("Flight already exists on this date"))
+                .doOnNext(routeIndex::put);
     }
 
     
@@ -136,22 +173,400 @@ public class FlightService {
         return inv;
     }
 
-    // to generate seats
-    private Mono<Void> generateSeats(String flightId, int totalSeats) {
-        List<Seats> seats = new ArrayList<>();
+    // to add many flights, one AddFlightRequest per NDJSON line; every non-blank line gets a result,
+    // results of a chunk come out together and a bad line never stops the import
+    public Flux<BulkImportResult> importInventory(Flux<String> lines) {
+        return Flux.defer(() -> {
+            Set<String> seen = ConcurrentHashMap.newKeySet();
+            return lines.index()
+                    .filter(line -> !line.getT2().isBlank())
+                    .concatMap(line -> toImportRow(line.getT1() + 1, line.getT2(), seen))
+                    .buffer(IMPORT_CHUNK)
+                    .concatMap(this::insertChunk);
+        });
+    }
+
+    private record ImportRow(long row, Flights flight, String error) {
+
+        static ImportRow failed(long row, String error) {
+            return new ImportRow(row, null, error);
+        }
+    }
+
+    // same checks as addInventory, flights already in the database are caught by the insert
+    private Mono<ImportRow> toImportRow(long row, String line, Set<String> seen) {
+        AddFlightRequest req;
+        try {
+            req = IMPORT_ROW_READER.readValue(line);
+        } catch (JsonProcessingException ex) {
+            return Mono.just(ImportRow.failed(row, "Malformed row: " + ex.getOriginalMessage()));
+        }
+        if (req == null) {
+            return Mono.just(ImportRow.failed(row, "Malformed row: not an object"));
+        }
+        if (req.getAirlineCode() == null || req.getAirlineCode().isBlank()) {
+            return Mono.just(ImportRow.failed(row, "Airline code is required"));
+        }
+        return validateRequest(req)
+                .then(Mono.defer(() -> validateDates(req)))
+                .then(airlineService.findAirline(req.getAirlineCode())
+                        .switchIfEmpty(Mono.error(new ResourceNotFoundException("Airline not found"))))
+                .then(Mono.fromCallable(() -> seen.add(importKey(req.getFlightNumber(), req.getDepartureDate()))
+                        ? new ImportRow(row, mapToEntity(req), null)
+                        : ImportRow.failed(row, "Flight appears more than once in this import")))
+                .onErrorResume(ex -> Mono.just(ImportRow.failed(row, ex.getMessage())));
+    }
+
+    // one unordered bulk insert per chunk, the unique flightNumber_date index rejects flights that already exist
+    private Flux<BulkImportResult> insertChunk(List<ImportRow> chunk) {
+        Flux<BulkImportResult> rejected = Flux.fromIterable(chunk)
+                .filter(row -> row.flight() == null)
+                .map(row -> BulkImportResult.failed(row.row(), row.error()));
+        List<ImportRow> valid = chunk.stream().filter(row -> row.flight() != null).toList();
+        if (valid.isEmpty()) {
+            return rejected;
+        }
+
+        Flux<BulkImportResult> written = flightInventoryRepository
+                .insertUnordered(valid.stream().map(ImportRow::flight).toList())
+                .flatMapIterable(errors -> {
+                    Map<Integer, BulkWriteError> byIndex = byIndex(errors);
+                    List<BulkImportResult> results = new ArrayList<>(valid.size());
+                    for (int i = 0; i < valid.size(); i++) {
+                        ImportRow row = valid.get(i);
+                        BulkWriteError error = byIndex.get(i);
+                        if (error == null) {
+                            routeIndex.put(row.flight());
+                            results.add(BulkImportResult.imported(row.row(), row.flight().getFlightId()));
+                        } else {
+                            results.add(BulkImportResult.failed(row.row(), error.getCode() == DUPLICATE_KEY
+                                    ? "Flight already exists on this date" : error.getMessage()));
+                        }
+                    }
+                    return results;
+                })
+                // a chunk the database could not take at all is reported row by row like any other failure
+                .onErrorResume(ex -> Flux.fromIterable(valid)
+                        .map(row -> BulkImportResult.failed(row.row(), "Could not be written: " + ex.getMessage())));
+        return rejected.concatWith(written);
+    }
+
+    private static Map<Integer, BulkWriteError> byIndex(List<BulkWriteError> errors) {
+        return errors.stream().collect(Collectors.toMap(BulkWriteError::getIndex, Function.identity()));
+    }
+
+    private static String importKey(String flightNumber, LocalDate departureDate) {
+        return flightNumber + '|' + departureDate;
+    }
+
+    // to add every departure of a recurring schedule; dates the flight already has are skipped,
+    // so sending the same schedule again only fills the gaps
+    public Mono<RecurringScheduleResponse> addSchedule(RecurringScheduleRequest req) {
+        return validateSchedule(req)
+                .then(Mono.defer(() -> airlineService.findAirline(req.getAirlineCode())))
+                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Airline not found")))
+                .then(Mono.defer(() -> {
+                    List<Flights> departures = expandSchedule(req);
+                    if (departures.isEmpty()) {
+                        return Mono.error(new ValidationException("Schedule has no future departures in the date range"));
+                    }
+                    // one read for every date of the schedule that already exists
+                    return flightInventoryRepository.findByFlightNumberAndDepartureDateBetween(req.getFlightNumber(),
+                                    Range.closed(req.getStartDate(), req.getEndDate()))
+                            .map(Flights::getDepartureDate)
+                            .collect(Collectors.toSet())
+                            .flatMap(existing -> insertSchedule(req.getFlightNumber(), departures, existing));
+                }));
+    }
+
+    private Mono<Void> validateSchedule(RecurringScheduleRequest req) {
+        if (req.getAirlineCode() == null || req.getAirlineCode().isBlank()) {
+            return Mono.error(new ValidationException("Airline code is required"));
+        }
+        if (req.getFlightNumber() == null || req.getFlightNumber().isBlank()) {
+            return Mono.error(new ValidationException("Flight number is required"));
+        }
+        if (req.getSourceCity() == null || req.getDestinationCity() == null) {
+            return Mono.error(new ValidationException("Source and destination cities are required"));
+        }
+        if (req.getSourceCity().equals(req.getDestinationCity())) {
+            return Mono.error(new ValidationException("Source and destination cannot be the same"));
+        }
+        if (req.getDepartureTime() == null || req.getArrivalTime() == null) {
+            return Mono.error(new ValidationException("Departure & arrival time are required"));
+        }
+        if (req.getArrivalDayOffset() < 0 || req.getArrivalDayOffset() > 1) {
+            return Mono.error(new ValidationException("Arrival day offset must be 0 or 1"));
+        }
+        if (req.getArrivalDayOffset() == 0 && !req.getArrivalTime().isAfter(req.getDepartureTime())) {
+            return Mono.error(new ValidationException("Arrival must be after departure"));
+        }
+        if (req.getStartDate() == null || req.getEndDate() == null) {
+            return Mono.error(new ValidationException("Start & end date are required"));
+        }
+        if (req.getEndDate().isBefore(req.getStartDate())) {
+            return Mono.error(new ValidationException("End date cannot be before start date"));
+        }
+        if (ChronoUnit.DAYS.between(req.getStartDate(), req.getEndDate()) >= MAX_SCHEDULE_DAYS) {
+            return Mono.error(new ValidationException("Schedule cannot cover more than " + MAX_SCHEDULE_DAYS + " days"));
+        }
+        if (req.getTotalSeats() == null || req.getTotalSeats() <= 0) {
+            return Mono.error(new ValidationException("Total seats must be greater than 0"));
+        }
+        if (req.getPrice() == null || req.getPrice() <= 0) {
+            return Mono.error(new ValidationException("Price must be greater than 0"));
+        }
+        return Mono.empty();
+    }
+
+    // one flight per operating day in the range, departures already in the past are left out
+    private static List<Flights> expandSchedule(RecurringScheduleRequest req) {
+        Set<DayOfWeek> days = req.getDaysOfWeek() == null || req.getDaysOfWeek().isEmpty()
+                ? EnumSet.allOf(DayOfWeek.class)
+                : EnumSet.copyOf(req.getDaysOfWeek());
+        LocalDateTime now = LocalDateTime.now();
+        List<Flights> departures = new ArrayList<>();
+        for (LocalDate date = req.getStartDate(); !date.isAfter(req.getEndDate()); date = date.plusDays(1)) {
+            if (days.contains(date.getDayOfWeek()) && LocalDateTime.of(date, req.getDepartureTime()).isAfter(now)) {
+                departures.add(scheduledFlight(req, date));
+            }
+        }
+        return departures;
+    }
+
+    private static Flights scheduledFlight(RecurringScheduleRequest req, LocalDate date) {
+        Flights flight = new Flights();
+        flight.setAirlineCode(req.getAirlineCode());
+        flight.setFlightNumber(req.getFlightNumber());
+        flight.setSourceCity(req.getSourceCity());
+        flight.setDestinationCity(req.getDestinationCity());
+        flight.setDepartureDate(date);
+        flight.setDepartureTime(req.getDepartureTime());
+        flight.setArrivalDate(date.plusDays(req.getArrivalDayOffset()));
+        flight.setArrivalTime(req.getArrivalTime());
+        flight.setMealAvailable(req.isMealAvailable());
+        flight.setTotalSeats(req.getTotalSeats());
+        flight.setAvailableSeats(req.getTotalSeats());
+        flight.setPrice(req.getPrice());
+        return flight;
+    }
 
-        for (int i = 1; i <= totalSeats; i++) {
-            Seats s = new Seats();
-            s.setFlightId(flightId);
-            s.setSeatNo("S" + i);
-            s.setBooked(false);
-            seats.add(s);
+    // unordered bulk inserts of IMPORT_CHUNK departures, a date another request wrote meanwhile counts as skipped
+    private Mono<RecurringScheduleResponse> insertSchedule(String flightNumber, List<Flights> departures,
+                                                           Set<LocalDate> existing) {
+        Map<LocalDate, String> created = new TreeMap<>();
+        Set<LocalDate> skipped = new TreeSet<>();
+        List<Flights> fresh = new ArrayList<>(departures.size());
+        for (Flights flight : departures) {
+            if (existing.contains(flight.getDepartureDate())) {
+                skipped.add(flight.getDepartureDate());
+            } else {
+                fresh.add(flight);
+            }
         }
-        return seatRepository.saveAll(seats).then();
+        return Flux.fromIterable(fresh)
+                .buffer(IMPORT_CHUNK)
+                .concatMap(chunk -> flightInventoryRepository.insertUnordered(chunk)
+                        .flatMap(errors -> {
+                            Map<Integer, BulkWriteError> byIndex = byIndex(errors);
+                            for (int i = 0; i < chunk.size(); i++) {
+                                Flights flight = chunk.get(i);
+                                BulkWriteError error = byIndex.get(i);
+                                if (error == null) {
+                                    routeIndex.put(flight);
+                                    created.put(flight.getDepartureDate(), flight.getFlightId());
+                                } else if (error.getCode() == DUPLICATE_KEY) {
+                                    skipped.add(flight.getDepartureDate());
+                                } else {
+                                    // what was written stays, sending the schedule again completes it
+                                    return Mono.error(new IllegalStateException(
+                                            "Could not write departure on " + flight.getDepartureDate() + ": "
+                                                    + error.getMessage()));
+                                }
+                            }
+                            return Mono.empty();
+                        }))
+                .then(Mono.fromCallable(() ->
+                        new RecurringScheduleResponse(flightNumber, created, List.copyOf(skipped))));
     }
 
 	// to get all flights
     public Flux<Flights> getAllFlights() {
 		return flightInventoryRepository.findAll();
 	}
+
+    // to get flights a page at a time, see FlightListRequest, with no parameters this is getAllFlights
+    public Flux<Flights> listFlights(FlightListRequest req) {
+        return Flux.defer(() -> {
+            if (isUnbounded(req)) {
+                return getAllFlights();
+            }
+            int limit = pageLimit(req);
+            long skip = req.getPage() == null ? 0 : (long) req.getPage() * limit;
+            LocalDate departingFrom = Boolean.TRUE.equals(req.getUpcomingOnly()) ? LocalDate.now() : null;
+            return flightInventoryRepository.findPage(departingFrom, req.getAfter(), skip, limit,
+                    FlightFields.parse(req.getFields()));
+        });
+    }
+
+    // the same, only the fields asked for in fields= are returned
+    public Flux<Map<String, Object>> listFlightFields(FlightListRequest req) {
+        return Flux.defer(() -> {
+            Set<String> fields = FlightFields.parse(req.getFields());
+            return listFlights(req).map(flight -> FlightFields.project(flight, fields));
+        });
+    }
+
+    private static boolean isUnbounded(FlightListRequest req) {
+        return req.getPage() == null && req.getLimit() == null && req.getAfter() == null
+                && !Boolean.TRUE.equals(req.getUpcomingOnly()) && (req.getFields() == null || req.getFields().isBlank());
+    }
+
+    // 0 means no limit, only when neither a page nor a cursor was asked for
+    private static int pageLimit(FlightListRequest req) {
+        if (req.getPage() != null && req.getAfter() != null) {
+            throw new ValidationException("Use either page or after, not both");
+        }
+        if (req.getPage() != null && req.getPage() < 0) {
+            throw new ValidationException("Page cannot be negative");
+        }
+        if (req.getLimit() != null && (req.getLimit() < 1 || req.getLimit() > MAX_PAGE_SIZE)) {
+            throw new ValidationException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (req.getAfter() != null && !ObjectId.isValid(req.getAfter())) {
+            throw new ValidationException("Invalid cursor");
+        }
+        if (req.getLimit() != null) {
+            return req.getLimit();
+        }
+        return req.getPage() != null || req.getAfter() != null ? DEFAULT_PAGE_SIZE : 0;
+    }
+
+    // to get a single flight by its id
+    public Mono<Flights> getFlight(String flightId) {
+        return flightInventoryRepository.findById(flightId)
+                .switchIfEmpty(Mono.error(
+                        new ResourceNotFoundException("Flight not found with id: " + flightId)));
+    }
+
+    // to get many flights in one $in query, unknown ids are simply absent from the result
+    public Flux<Flights> getFlights(List<String> flightIds) {
+        if (flightIds == null || flightIds.isEmpty()) {
+            return Flux.error(new ValidationException("At least one flight id is required"));
+        }
+        Set<String> ids = new LinkedHashSet<>(flightIds);
+        if (ids.size() > MAX_BATCH_LOOKUP) {
+            return Flux.error(new ValidationException(
+                    "At most " + MAX_BATCH_LOOKUP + " flights can be fetched at once"));
+        }
+        return flightInventoryRepository.findAllById(ids);
+    }
+
+    // to reserve seats, a single conditional update so concurrent bookings cannot oversell
+    public Mono<Flights> reserveSeats(String flightId, int seats) {
+        if (seats <= 0) {
+            return Mono.error(new ValidationException("Seats must be greater than 0"));
+        }
+        return flightInventoryRepository.reserveSeats(flightId, seats)
+                .doOnNext(routeIndex::put)
+                .switchIfEmpty(Mono.defer(() -> rejectSeatUpdate(flightId, "Not enough seats")));
+    }
+
+    // to release seats, never lets availableSeats go above totalSeats
+    public Mono<Flights> releaseSeats(String flightId, int seats) {
+        if (seats <= 0) {
+            return Mono.error(new ValidationException("Seats must be greater than 0"));
+        }
+        return flightInventoryRepository.releaseSeats(flightId, seats)
+                .doOnNext(routeIndex::put)
+                .switchIfEmpty(Mono.defer(() -> rejectSeatUpdate(flightId, "Cannot release more seats than booked")));
+    }
+
+    // the conditional update matched nothing, tell a missing flight apart from a failed condition
+    private Mono<Flights> rejectSeatUpdate(String flightId, String reason) {
+        return flightInventoryRepository.existsById(flightId)
+                .flatMap(exists -> Mono.error(Boolean.TRUE.equals(exists)
+                        ? new ValidationException(reason)
+                        : new ResourceNotFoundException("Flight not found with id: " + flightId)));
+    }
+
+    // to get the seat map of a flight, all seats are free until the first booking stores one
+    public Mono<SeatMapResponse> getSeatMap(String flightId) {
+        return findSeatMap(flightId)
+                .map(FlightService::toResponse);
+    }
+
+    // to book specific seats, all of them or none in one conditional update
+    public Mono<SeatMapResponse> bookSeats(String flightId, List<String> seatNos) {
+        return seatIndexes(seatNos)
+                .flatMap(indexes -> seatMapRepository.bookSeats(flightId, indexes)
+                        .switchIfEmpty(Mono.defer(() -> bookOnFirstUse(flightId, indexes))))
+                .map(FlightService::toResponse);
+    }
+
+    // the update found no matching map, store one if the flight has none yet and try once more
+    private Mono<SeatMap> bookOnFirstUse(String flightId, Set<Integer> indexes) {
+        String reason = "One or more seats are already booked";
+        return seatMapRepository.existsById(flightId)
+                .flatMap(exists -> Boolean.TRUE.equals(exists)
+                        ? rejectSeatMapUpdate(flightId, indexes, reason)
+                        : getFlight(flightId)
+                                .flatMap(flight -> seatMapRepository.createIfAbsent(flightId, flight.getTotalSeats()))
+                                .then(seatMapRepository.bookSeats(flightId, indexes))
+                                .switchIfEmpty(Mono.defer(() -> rejectSeatMapUpdate(flightId, indexes, reason))));
+    }
+
+    // to free specific seats, all of them or none in one conditional update
+    public Mono<SeatMapResponse> releaseSeatNumbers(String flightId, List<String> seatNos) {
+        return seatIndexes(seatNos)
+                .flatMap(indexes -> seatMapRepository.releaseSeats(flightId, indexes)
+                        .switchIfEmpty(Mono.defer(() -> rejectSeatMapUpdate(flightId, indexes,
+                                "One or more seats are not booked"))))
+                .map(FlightService::toResponse);
+    }
+
+    private Mono<Set<Integer>> seatIndexes(List<String> seatNos) {
+        if (seatNos == null || seatNos.isEmpty()) {
+            return Mono.error(new ValidationException("At least one seat number is required"));
+        }
+        Set<Integer> indexes = new LinkedHashSet<>();
+        for (String seatNo : seatNos) {
+            int index = SeatMap.seatIndex(seatNo);
+            if (index < 0) {
+                return Mono.error(new ValidationException("Invalid seat number: " + seatNo));
+            }
+            indexes.add(index);
+        }
+        return Mono.just(indexes);
+    }
+
+    // the stored map, or one with every seat free derived from the flight when nothing is booked yet
+    private Mono<SeatMap> findSeatMap(String flightId) {
+        return seatMapRepository.findById(flightId)
+                .switchIfEmpty(Mono.defer(() -> getFlight(flightId)
+                        .map(flight -> SeatMap.empty(flightId, flight.getTotalSeats()))));
+    }
+
+    // the conditional update matched nothing, tell a missing flight or seat apart from a taken one
+    private Mono<SeatMap> rejectSeatMapUpdate(String flightId, Set<Integer> indexes, String reason) {
+        return findSeatMap(flightId)
+                .flatMap(seatMap -> {
+                    for (int index : indexes) {
+                        if (index >= seatMap.getTotalSeats()) {
+                            return Mono.error(new ValidationException(
+                                    "Seat " + SeatMap.seatNo(index) + " does not exist on this flight"));
+                        }
+                    }
+                    return Mono.error(new ValidationException(reason));
+                });
+    }
+
+    private static SeatMapResponse toResponse(SeatMap seatMap) {
+        List<String> booked = new ArrayList<>();
+        List<String> available = new ArrayList<>();
+        for (int i = 0; i < seatMap.getTotalSeats(); i++) {
+            (seatMap.isBooked(i) ? booked : available).add(SeatMap.seatNo(i));
+        }
+        return new SeatMapResponse(seatMap.getFlightId(), seatMap.getTotalSeats(), booked, available);
+    }
 }
@@ -0,0 +1,115 @@
+package com.flightservice.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.flightservice.model.Cities;
+import com.flightservice.model.Flights;
+import com.flightservice.responses.Itinerary;
+
+/**
+ * Finds direct, one-stop and two-stop itineraries over the {@link RouteIndex}.
+ * Cities are the nodes and flights are edges stamped with their departure and
+ * arrival times. The index already holds each city's outgoing flights per
+ * date, so no database queries are needed.
+ *
+ * The search is a depth-first walk bounded by the number of stops. A city is
+ * never visited twice, and each connection must leave within the allowed
+ * layover window after the previous arrival. The last leg is only ever looked
+ * up as a direct flight into the destination, so the walk does not branch
+ * out from the final stop. Sold out flights are no edges at all, so no
+ * itinerary is built through a leg that cannot be booked.
+ */
+@Component
+public class ItineraryPlanner {
+
+    public static final int MAX_STOPS = 2;
+
+    private static final Comparator<Itinerary> FASTEST_THEN_CHEAPEST = Comparator
+            .comparingLong(Itinerary::getDurationMinutes)
+            .thenComparingDouble(Itinerary::getTotalPrice);
+
+    private final RouteIndex routeIndex;
+
+    private final Duration minConnection;
+
+    private final Duration maxConnection;
+
+    private final int maxResults;
+
+    @Autowired
+    public ItineraryPlanner(RouteIndex routeIndex,
+                            @Value("${flight.connections.min-connection:PT45M}") Duration minConnection,
+                            @Value("${flight.connections.max-connection:PT12H}") Duration maxConnection,
+                            @Value("${flight.connections.max-results:50}") int maxResults) {
+        this.routeIndex = routeIndex;
+        this.minConnection = minConnection;
+        this.maxConnection = maxConnection;
+        this.maxResults = maxResults;
+    }
+
+    // itineraries whose first leg leaves on the given date, fastest first
+    public List<Itinerary> plan(Cities source, Cities destination, LocalDate date, int maxStops) {
+        List<Itinerary> found = new ArrayList<>();
+        extend(source, destination, date.atStartOfDay(), date.atTime(LocalTime.MAX), maxStops + 1,
+                EnumSet.of(source), new ArrayDeque<>(), found);
+        found.sort(FASTEST_THEN_CHEAPEST);
+        return found.size() > maxResults ? List.copyOf(found.subList(0, maxResults)) : found;
+    }
+
+    private void extend(Cities at, Cities destination, LocalDateTime earliest, LocalDateTime latest,
+                        int legsLeft, EnumSet<Cities> visited, Deque<Flights> legs, List<Itinerary> found) {
+        for (Flights flight : departing(at, destination, earliest, latest)) {
+            legs.addLast(flight);
+            found.add(new Itinerary(List.copyOf(legs)));
+            legs.removeLast();
+        }
+        if (legsLeft == 1) {
+            return;
+        }
+        for (Cities via : Cities.values()) {
+            if (via == destination || visited.contains(via)) {
+                continue;
+            }
+            visited.add(via);
+            for (Flights flight : departing(at, via, earliest, latest)) {
+                LocalDateTime arrival = LocalDateTime.of(flight.getArrivalDate(), flight.getArrivalTime());
+                legs.addLast(flight);
+                extend(via, destination, arrival.plus(minConnection), arrival.plus(maxConnection),
+                        legsLeft - 1, visited, legs, found);
+                legs.removeLast();
+            }
+            visited.remove(via);
+        }
+    }
+
+    // flights on the route with seats left that leave inside the window, usually one or two days of the index
+    private List<Flights> departing(Cities from, Cities to, LocalDateTime earliest, LocalDateTime latest) {
+        List<Flights> departing = new ArrayList<>();
+        for (LocalDate day = earliest.toLocalDate(); !day.isAfter(latest.toLocalDate()); day = day.plusDays(1)) {
+            for (Flights flight : routeIndex.find(from, to, day)) {
+                if (flight.getAvailableSeats() <= 0 || flight.getDepartureTime() == null
+                        || flight.getArrivalDate() == null || flight.getArrivalTime() == null) {
+                    continue;
+                }
+                LocalDateTime departure = LocalDateTime.of(day, flight.getDepartureTime());
+                if (!departure.isBefore(earliest) && !departure.isAfter(latest)) {
+                    departing.add(flight);
+                }
+            }
+        }
+        return departing;
+    }
+}
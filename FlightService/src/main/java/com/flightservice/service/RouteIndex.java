@@ -0,0 +1,215 @@
+package com.flightservice.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.flightservice.model.Cities;
+import com.flightservice.model.Flights;
+import com.flightservice.repository.FlightRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Upcoming flights held in memory by source city, destination city and
+ * departure date, so a search is a few map lookups instead of a Mongo query.
+ *
+ * The city maps are filled for every route up front and never change shape
+ * afterwards; only the date maps, which are concurrent, and the immutable
+ * per-day lists inside them are replaced. Readers therefore need no locks.
+ * Writes made on this instance are applied straight away; the periodic
+ * reload picks up everything else, such as seats taken through another
+ * instance, so seat counts seen in search can lag by up to one refresh.
+ *
+ * A reload reads into a new map while writes keep going to the current one.
+ * Writes made in the meantime are also recorded and replayed onto the new map
+ * before it replaces the current one, so none is lost to the swap. Writes,
+ * the swap and the listener calls share one lock, which keeps derived
+ * structures in step with the index.
+ */
+@Component
+public class RouteIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(RouteIndex.class);
+
+    private static final Comparator<Flights> BY_DEPARTURE_TIME = Comparator.comparing(
+            Flights::getDepartureTime, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final FlightRepository flightRepository;
+
+    private volatile Map<Cities, EnumMap<Cities, ConcurrentSkipListMap<LocalDate, List<Flights>>>> routes =
+            emptyRoutes();
+
+    private volatile boolean ready;
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private final Object writeLock = new Object();
+
+    private final AtomicBoolean reloading = new AtomicBoolean();
+
+    // writes made since the running reload started reading, null when none is running
+    private List<Flights> writesDuringReload;
+
+    public RouteIndex(FlightRepository flightRepository) {
+        this.flightRepository = flightRepository;
+    }
+
+    // for structures derived from the index, told about every change after it is applied, one change at a time
+    public interface Listener {
+
+        // the flights of one route on one day changed
+        void dayChanged(Cities source, Cities destination, LocalDate date);
+
+        // the whole index was replaced by a reload
+        void reloaded();
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    // to walk every route and day currently held, in no particular order of routes
+    public void forEachDay(DayConsumer consumer) {
+        routes.forEach((source, destinations) -> destinations.forEach((destination, dates) ->
+                dates.forEach((date, flights) -> consumer.accept(source, destination, date, flights))));
+    }
+
+    @FunctionalInterface
+    public interface DayConsumer {
+        void accept(Cities source, Cities destination, LocalDate date, List<Flights> flights);
+    }
+
+    // until the first load completes callers should search the database
+    public boolean isReady() {
+        return ready;
+    }
+
+    // flights on the route that day, by departure time
+    public List<Flights> find(Cities source, Cities destination, LocalDate date) {
+        List<Flights> flights = dates(source, destination).get(date);
+        return flights == null ? List.of() : flights;
+    }
+
+    // flights on the route for each day from..to inclusive, days without flights are absent
+    public NavigableMap<LocalDate, List<Flights>> find(Cities source, Cities destination, LocalDate from,
+                                                       LocalDate to) {
+        return dates(source, destination).subMap(from, true, to, true);
+    }
+
+    // to add a new flight or replace the stored copy of an existing one
+    public void put(Flights flight) {
+        if (flight.getSourceCity() == null || flight.getDestinationCity() == null
+                || flight.getDepartureDate() == null) {
+            return;
+        }
+        synchronized (writeLock) {
+            apply(routes, flight);
+            if (writesDuringReload != null) {
+                writesDuringReload.add(flight);
+            }
+            listeners.forEach(listener -> listener.dayChanged(
+                    flight.getSourceCity(), flight.getDestinationCity(), flight.getDepartureDate()));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload().subscribe();
+    }
+
+    // flights that already left are dropped here; a reload asked for while one runs is skipped
+    @Scheduled(initialDelayString = "${flight.route-index.refresh:PT5M}",
+            fixedDelayString = "${flight.route-index.refresh:PT5M}")
+    public Mono<Void> reload() {
+        return Mono.defer(() -> {
+            if (!reloading.compareAndSet(false, true)) {
+                return Mono.empty();
+            }
+            Map<Cities, EnumMap<Cities, ConcurrentSkipListMap<LocalDate, List<Flights>>>> loaded = emptyRoutes();
+            synchronized (writeLock) {
+                writesDuringReload = new ArrayList<>();
+            }
+            return flightRepository.findByDepartureDateGreaterThanEqual(LocalDate.now())
+                    .doOnNext(flight -> {
+                        if (flight.getSourceCity() != null && flight.getDestinationCity() != null
+                                && flight.getDepartureDate() != null) {
+                            apply(loaded, flight);
+                        }
+                    })
+                    .count()
+                    .doOnNext(count -> {
+                        synchronized (writeLock) {
+                            writesDuringReload.forEach(flight -> apply(loaded, flight));
+                            routes = loaded;
+                            ready = true;
+                            listeners.forEach(Listener::reloaded);
+                        }
+                        log.info("Route index loaded with {} flights", count);
+                    })
+                    .doOnError(ex -> log.warn("Route index load failed, search stays on the database", ex))
+                    .onErrorResume(ex -> Mono.empty())
+                    .doFinally(signal -> {
+                        synchronized (writeLock) {
+                            writesDuringReload = null;
+                        }
+                        reloading.set(false);
+                    })
+                    .then();
+        });
+    }
+
+    private static void apply(Map<Cities, EnumMap<Cities, ConcurrentSkipListMap<LocalDate, List<Flights>>>> routes,
+                              Flights flight) {
+        routes.get(flight.getSourceCity()).get(flight.getDestinationCity())
+                .compute(flight.getDepartureDate(), (date, current) -> withFlight(current, flight));
+    }
+
+    private ConcurrentSkipListMap<LocalDate, List<Flights>> dates(Cities source, Cities destination) {
+        return routes.get(source).get(destination);
+    }
+
+    private static List<Flights> withFlight(List<Flights> current, Flights flight) {
+        List<Flights> next = new ArrayList<>(current == null ? 1 : current.size() + 1);
+        if (current != null) {
+            for (Flights existing : current) {
+                if (!Objects.equals(existing.getFlightId(), flight.getFlightId())) {
+                    next.add(existing);
+                }
+            }
+        }
+        next.add(flight);
+        next.sort(BY_DEPARTURE_TIME);
+        return List.copyOf(next);
+    }
+
+    private static Map<Cities, EnumMap<Cities, ConcurrentSkipListMap<LocalDate, List<Flights>>>> emptyRoutes() {
+        EnumMap<Cities, EnumMap<Cities, ConcurrentSkipListMap<LocalDate, List<Flights>>>> routes =
+                new EnumMap<>(Cities.class);
+        for (Cities source : Cities.values()) {
+            EnumMap<Cities, ConcurrentSkipListMap<LocalDate, List<Flights>>> destinations =
+                    new EnumMap<>(Cities.class);
+            for (Cities destination : Cities.values()) {
+                destinations.put(destination, new ConcurrentSkipListMap<>());
+            }
+            routes.put(source, destinations);
+        }
+        return routes;
+    }
+}
@@ -0,0 +1,116 @@
+package com.flightservice;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.flightservice.model.Airline;
+import com.flightservice.repository.AirlineRepository;
+import com.flightservice.service.AirlineCatalog;
+
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class AirlineCatalogTest {
+
+    @Mock
+    AirlineRepository airlineRepository;
+
+    AirlineCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new AirlineCatalog(airlineRepository);
+    }
+
+    @Test
+    void notReadyUntilLoaded() {
+        when(airlineRepository.findAll()).thenReturn(Flux.just(airline("AI", "Air India")));
+
+        assertFalse(catalog.isReady());
+        assertNull(catalog.snapshot());
+        assertTrue(catalog.find("AI").isEmpty());
+
+        StepVerifier.create(catalog.reload()).verifyComplete();
+
+        assertTrue(catalog.isReady());
+        assertEquals("Air India", catalog.find("AI").orElseThrow().getAirlineName());
+    }
+
+    @Test
+    void allIsOrderedByCode() {
+        when(airlineRepository.findAll()).thenReturn(Flux.just(
+                airline("UK", "Vistara"), airline("6E", "IndiGo"), airline("AI", "Air India")));
+
+        catalog.reload().block();
+
+        assertEquals(List.of("6E", "AI", "UK"), catalog.all().stream().map(Airline::getAirlineCode).toList());
+    }
+
+    @Test
+    void versionDependsOnlyOnContent() {
+        when(airlineRepository.findAll())
+                .thenReturn(Flux.just(airline("AI", "Air India"), airline("UK", "Vistara")))
+                .thenReturn(Flux.just(airline("UK", "Vistara"), airline("AI", "Air India")));
+        AirlineCatalog other = new AirlineCatalog(airlineRepository);
+
+        catalog.reload().block();
+        other.reload().block();
+
+        assertEquals(catalog.snapshot().version(), other.snapshot().version());
+    }
+
+    @Test
+    void putAddsAirlineAndChangesVersion() {
+        when(airlineRepository.findAll()).thenReturn(Flux.just(airline("AI", "Air India")));
+        catalog.reload().block();
+        String before = catalog.snapshot().version();
+
+        catalog.put(airline("UK", "Vistara"));
+
+        assertEquals("Vistara", catalog.find("UK").orElseThrow().getAirlineName());
+        assertEquals(2, catalog.all().size());
+        assertNotEquals(before, catalog.snapshot().version());
+    }
+
+    @Test
+    void putBeforeLoadIsLeftToTheLoad() {
+        catalog.put(airline("AI", "Air India"));
+
+        assertFalse(catalog.isReady());
+        assertTrue(catalog.all().isEmpty());
+    }
+
+    @Test
+    void failedLoadKeepsPreviousContent() {
+        when(airlineRepository.findAll())
+                .thenReturn(Flux.just(airline("AI", "Air India")))
+                .thenReturn(Flux.error(new IllegalStateException("mongo down")));
+
+        catalog.reload().block();
+        String version = catalog.snapshot().version();
+        StepVerifier.create(catalog.reload()).verifyComplete();
+
+        assertEquals(version, catalog.snapshot().version());
+        assertTrue(catalog.find("AI").isPresent());
+    }
+
+    private static Airline airline(String code, String name) {
+        Airline airline = new Airline();
+        airline.setAirlineCode(code);
+        airline.setAirlineName(name);
+        return airline;
+    }
+}
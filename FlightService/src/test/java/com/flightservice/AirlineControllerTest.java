@@ -1,13 +1,21 @@
 package com.flightservice;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
 import com.flightservice.model.Airline;
 import com.flightservice.request.AddAirlineRequest;
+import com.flightservice.responses.Versioned;
+import com.flightservice.service.AirlineCatalog;
 import com.flightservice.service.AirlineService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import java.util.List;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.test.StepVerifier;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import com.flightservice.controller.MainController;
 
@@ -51,20 +59,87 @@ class AirlineControllerTests {
     @DisplayName("Get all airlines returns list")
     void getAllAirlines() {
         Mockito.when(airlineService.getAllAirlines())
-                .thenReturn(Flux.just(airline("A1"), airline("A2")));
+                .thenReturn(Mono.just(new Versioned<>(List.of(airline("A1"), airline("A2")), null)));
 
         StepVerifier.create(controller.getAllAirlines())
-                .expectNextCount(2)
+                .expectNextMatches(r -> r.getBody().size() == 2)
                 .verifyComplete();
     }
 
     @Test
     @DisplayName("Get airline by code returns airline")
     void getAirline() {
-        Mockito.when(airlineService.getAirline("AI")).thenReturn(Mono.just(airline("AI")));
+        Mockito.when(airlineService.getAirline("AI")).thenReturn(Mono.just(new Versioned<>(airline("AI"), null)));
 
         StepVerifier.create(controller.getAirline("AI"))
-                .expectNextMatches(a -> "Airline AI".equals(a.getAirlineName()))
+                .expectNextMatches(r -> "Airline AI".equals(r.getBody().getAirlineName()))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Airline list carries the version of the snapshot it was read from as ETag")
+    void getAllAirlinesSetsEtag() {
+        AirlineCatalog.Snapshot catalog = AirlineCatalog.Snapshot.of(List.of(airline("A1")));
+        Mockito.when(airlineService.getAllAirlines())
+                .thenReturn(Mono.just(new Versioned<>(catalog.all(), catalog.version())));
+
+        var response = controller.getAllAirlines().block();
+
+        assertEquals("\"" + catalog.version() + "\"", response.getHeaders().getETag());
+        assertEquals("A1", response.getBody().get(0).getAirlineCode());
+    }
+
+    @Test
+    @DisplayName("Airline list read before the catalog loads has no ETag")
+    void getAllAirlinesWithoutCatalogHasNoEtag() {
+        Mockito.when(airlineService.getAllAirlines())
+                .thenReturn(Mono.just(new Versioned<>(List.of(airline("A1")), null)));
+
+        var response = controller.getAllAirlines().block();
+
+        assertNull(response.getHeaders().getETag());
+        assertEquals(1, response.getBody().size());
+    }
+
+    @Test
+    @DisplayName("Matching If-None-Match returns 304 without a body")
+    void getAllAirlinesNotModified() {
+        AirlineCatalog.Snapshot catalog = AirlineCatalog.Snapshot.of(List.of(airline("A1")));
+        Mockito.when(airlineService.getAllAirlines())
+                .thenReturn(Mono.just(new Versioned<>(catalog.all(), catalog.version())));
+
+        WebTestClient.bindToController(controller).build()
+                .get().uri("/api/flight/getAllAirlines")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"" + catalog.version() + "\"")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.NOT_MODIFIED)
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    @DisplayName("Stale If-None-Match returns the airline")
+    void getAirlineModified() {
+        AirlineCatalog.Snapshot catalog = AirlineCatalog.Snapshot.of(List.of(airline("AI")));
+        Mockito.when(airlineService.getAirline("ai"))
+                .thenReturn(Mono.just(new Versioned<>(airline("AI"), catalog.version())));
+
+        WebTestClient.bindToController(controller).build()
+                .get().uri("/api/flight/getAirline/ai")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"ffffffffffffffff\"")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"" + catalog.version() + "\"")
+                .expectBody().jsonPath("$.airlineCode").isEqualTo("AI");
+    }
+
+    @Test
+    @DisplayName("Airline read without a catalog version has no ETag")
+    void getAirlineWithoutVersionHasNoEtag() {
+        Mockito.when(airlineService.getAirline("UK")).thenReturn(Mono.just(new Versioned<>(airline("UK"), null)));
+
+        StepVerifier.create(controller.getAirline("UK"))
+                .expectNextMatches(r -> r.getHeaders().getETag() == null
+                        && "UK".equals(r.getBody().getAirlineCode()))
                 .verifyComplete();
     }
 }
@@ -0,0 +1,121 @@
+package com.flightservice;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.flightservice.model.Cities;
+import com.flightservice.model.Flights;
+import com.flightservice.repository.FlightRepository;
+import com.flightservice.service.FareCalendar;
+import com.flightservice.service.RouteIndex;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+@ExtendWith(MockitoExtension.class)
+class FareCalendarTest {
+
+    @Mock
+    FlightRepository flightRepository;
+
+    RouteIndex routeIndex;
+
+    FareCalendar fareCalendar;
+
+    YearMonth month = YearMonth.now().plusMonths(1);
+
+    LocalDate day = month.atDay(10);
+
+    @BeforeEach
+    void setUp() {
+        routeIndex = new RouteIndex(flightRepository);
+        fareCalendar = new FareCalendar(routeIndex);
+    }
+
+    @Test
+    void addingFlightsKeepsTheLowestFarePerDay() {
+        routeIndex.put(flight("F1", day, 5000, 10));
+        routeIndex.put(flight("F2", day, 4200, 10));
+        routeIndex.put(flight("F3", day.plusDays(1), 6100, 10));
+
+        assertEquals(4200.0, fareCalendar.month(Cities.DELHI, Cities.MUMBAI, month).get(day));
+        assertEquals(6100.0, fareCalendar.month(Cities.DELHI, Cities.MUMBAI, month).get(day.plusDays(1)));
+        assertTrue(fareCalendar.month(Cities.MUMBAI, Cities.DELHI, month).isEmpty());
+    }
+
+    @Test
+    void soldOutFlightFallsBackToNextCheapestAndReturnsWhenReleased() {
+        routeIndex.put(flight("F1", day, 5000, 10));
+        routeIndex.put(flight("F2", day, 4200, 10));
+
+        routeIndex.put(flight("F2", day, 4200, 0));
+        assertEquals(5000.0, fareCalendar.month(Cities.DELHI, Cities.MUMBAI, month).get(day));
+
+        routeIndex.put(flight("F1", day, 5000, 0));
+        assertFalse(fareCalendar.month(Cities.DELHI, Cities.MUMBAI, month).containsKey(day));
+
+        routeIndex.put(flight("F2", day, 4200, 2));
+        assertEquals(4200.0, fareCalendar.month(Cities.DELHI, Cities.MUMBAI, month).get(day));
+    }
+
+    @Test
+    void fareChangedDuringAReloadIsInTheRebuiltCalendar() {
+        Sinks.Many<Flights> database = Sinks.many().unicast().onBackpressureBuffer();
+        when(flightRepository.findByDepartureDateGreaterThanEqual(any())).thenReturn(database.asFlux());
+
+        routeIndex.reload().subscribe();
+        routeIndex.put(flight("F1", day, 3900, 10));
+        database.tryEmitNext(flight("F2", day, 4200, 10));
+        database.tryEmitComplete();
+
+        assertEquals(3900.0, fareCalendar.month(Cities.DELHI, Cities.MUMBAI, month).get(day));
+    }
+
+    @Test
+    void monthOnlyCoversItsOwnDays() {
+        routeIndex.put(flight("F1", month.atDay(1), 3000, 10));
+        routeIndex.put(flight("F2", month.atEndOfMonth(), 3100, 10));
+        routeIndex.put(flight("F3", month.plusMonths(1).atDay(1), 3200, 10));
+
+        assertEquals(2, fareCalendar.month(Cities.DELHI, Cities.MUMBAI, month).size());
+    }
+
+    @Test
+    void reloadRebuildsTheCalendar() {
+        routeIndex.put(flight("OLD", day, 1000, 10));
+        when(flightRepository.findByDepartureDateGreaterThanEqual(any()))
+                .thenReturn(Flux.just(flight("NEW", day.plusDays(2), 2500, 10)));
+
+        routeIndex.reload().block();
+
+        assertTrue(fareCalendar.isReady());
+        assertFalse(fareCalendar.month(Cities.DELHI, Cities.MUMBAI, month).containsKey(day));
+        assertEquals(2500.0, fareCalendar.month(Cities.DELHI, Cities.MUMBAI, month).get(day.plusDays(2)));
+    }
+
+    private static Flights flight(String id, LocalDate date, double price, int availableSeats) {
+        Flights flight = new Flights();
+        flight.setFlightId(id);
+        flight.setSourceCity(Cities.DELHI);
+        flight.setDestinationCity(Cities.MUMBAI);
+        flight.setDepartureDate(date);
+        flight.setDepartureTime(LocalTime.of(9, 0));
+        flight.setTotalSeats(10);
+        flight.setAvailableSeats(availableSeats);
+        flight.setPrice(price);
+        return flight;
+    }
+}
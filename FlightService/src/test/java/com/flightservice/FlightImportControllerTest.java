@@ -0,0 +1,56 @@
+package com.flightservice;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.flightservice.controller.MainController;
+import com.flightservice.exceptions.GlobalErrorHandler;
+import com.flightservice.responses.BulkImportResult;
+import com.flightservice.service.FlightService;
+
+import reactor.core.publisher.Flux;
+
+class FlightImportControllerTest {
+
+    private FlightService flightService;
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setup() {
+        flightService = mock(FlightService.class);
+        webTestClient = WebTestClient
+                .bindToController(new MainController(null, flightService, null))
+                .controllerAdvice(new GlobalErrorHandler())
+                .build();
+    }
+
+    @Test
+    @DisplayName("NDJSON body reaches the service one line at a time and results stream back as NDJSON")
+    @SuppressWarnings("unchecked")
+    void importSplitsLines() {
+        when(flightService.importInventory(any())).thenAnswer(invocation ->
+                ((Flux<String>) invocation.getArgument(0)).index()
+                        .map(line -> line.getT2().startsWith("{")
+                                ? BulkImportResult.imported(line.getT1() + 1, "F" + (line.getT1() + 1))
+                                : BulkImportResult.failed(line.getT1() + 1, "Malformed row")));
+
+        webTestClient.post().uri("/api/flight/airline/inventory/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue("{\"flightNumber\":\"AI101\"}\nnot json\n{\"flightNumber\":\"AI102\"}\n")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class)
+                .isEqualTo("{\"row\":1,\"flightId\":\"F1\",\"error\":null}\n"
+                        + "{\"row\":2,\"flightId\":null,\"error\":\"Malformed row\"}\n"
+                        + "{\"row\":3,\"flightId\":\"F3\",\"error\":null}\n");
+    }
+}
@@ -0,0 +1,84 @@
+package com.flightservice;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import com.flightservice.model.Flights;
+import com.flightservice.service.FlightIndexCheck;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+
+class FlightIndexCheckTest {
+
+    static MongoServer server;
+
+    static MongoClient client;
+
+    static ReactiveMongoTemplate template;
+
+    @BeforeAll
+    static void startServer() {
+        server = new MongoServer(new MemoryBackend());
+        client = MongoClients.create(server.bindAndGetConnectionString());
+        template = new ReactiveMongoTemplate(client, "flightIndexCheck");
+    }
+
+    @AfterAll
+    static void stopServer() {
+        client.close();
+        server.shutdown();
+    }
+
+    @BeforeEach
+    void setup() {
+        template.dropCollection(Flights.class).block();
+    }
+
+    @Test
+    void missingIndexIsCreatedOnStartup() {
+        new FlightIndexCheck(template, Duration.ofSeconds(5)).run(null);
+
+        assertTrue(template.indexOps(Flights.class).getIndexInfo()
+                .any(info -> info.getName().equals("flightNumber_date") && info.isUnique())
+                .block());
+    }
+
+    @Test
+    void startupFailsWhenExistingDuplicatesKeepTheIndexFromBeingBuilt() {
+        template.insert(flight("F1", "AI-101")).block();
+        template.insert(flight("F2", "AI-101")).block();
+
+        FlightIndexCheck check = new FlightIndexCheck(template, Duration.ofSeconds(5));
+
+        assertThrows(RuntimeException.class, () -> check.run(null));
+    }
+
+    @Test
+    void checkPassesAgainOnceTheIndexExists() {
+        FlightIndexCheck check = new FlightIndexCheck(template, Duration.ofSeconds(5));
+        check.run(null);
+        template.insert(flight("F1", "AI-101")).block();
+
+        check.run(null);
+    }
+
+    private Flights flight(String id, String flightNumber) {
+        Flights flight = new Flights();
+        flight.setFlightId(id);
+        flight.setFlightNumber(flightNumber);
+        flight.setDepartureDate(LocalDate.of(2026, 11, 1));
+        return flight;
+    }
+}
@@ -0,0 +1,99 @@
+package com.flightservice;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.flightservice.controller.MainController;
+import com.flightservice.exceptions.GlobalErrorHandler;
+import com.flightservice.exceptions.ValidationException;
+import com.flightservice.model.Flights;
+import com.flightservice.service.FlightService;
+
+import reactor.core.publisher.Flux;
+
+class FlightListControllerTest {
+
+    private FlightService flightService;
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setup() {
+        flightService = mock(FlightService.class);
+        webTestClient = WebTestClient
+                .bindToController(new MainController(null, flightService, null))
+                .controllerAdvice(new GlobalErrorHandler())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Query parameters are bound and full flights are returned")
+    void pagedFlights() {
+        Flights flight = new Flights();
+        flight.setFlightId("F1");
+        when(flightService.listFlights(argThat(q -> q.getPage() == 2 && q.getLimit() == 10
+                && Boolean.TRUE.equals(q.getUpcomingOnly())))).thenReturn(Flux.just(flight));
+
+        webTestClient.get()
+                .uri("/api/flight/getAllFlights?page=2&limit=10&upcomingOnly=true")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].flightId").isEqualTo("F1");
+    }
+
+    @Test
+    @DisplayName("fields= returns only the requested fields")
+    void projectedFlights() {
+        when(flightService.listFlightFields(argThat(q -> "flightId,availableSeats".equals(q.getFields()))))
+                .thenReturn(Flux.just(Map.of("flightId", "F1", "availableSeats", 3)));
+
+        webTestClient.get()
+                .uri("/api/flight/getAllFlights?fields=flightId,availableSeats")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].availableSeats").isEqualTo(3)
+                .jsonPath("$[0].price").doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Stream endpoint writes one flight per line")
+    void streamedFlights() {
+        Flights first = new Flights();
+        first.setFlightId("F1");
+        Flights second = new Flights();
+        second.setFlightId("F2");
+        when(flightService.listFlights(any())).thenReturn(Flux.just(first, second));
+
+        webTestClient.get()
+                .uri("/api/flight/getAllFlights/stream")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(Flights.class).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Invalid parameters are a bad request")
+    void invalidParameters() {
+        when(flightService.listFlights(any())).thenReturn(Flux.error(new ValidationException("Invalid cursor")));
+
+        webTestClient.get()
+                .uri("/api/flight/getAllFlights?after=x")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Invalid cursor");
+    }
+}
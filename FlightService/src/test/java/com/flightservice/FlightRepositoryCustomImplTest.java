@@ -0,0 +1,162 @@
+package com.flightservice;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import com.flightservice.model.Flights;
+import com.flightservice.repository.FlightRepositoryCustomImpl;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class FlightRepositoryCustomImplTest {
+
+    @Mock
+    ReactiveMongoTemplate mongoTemplate;
+
+    @Test
+    void findPageFiltersSortsAndProjects() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.find(query.capture(), eq(Flights.class))).thenReturn(Flux.empty());
+        LocalDate today = LocalDate.now();
+        String after = "665f0a1aa9e4b35d7c0e1e11";
+
+        new FlightRepositoryCustomImpl(mongoTemplate)
+                .findPage(today, after, 0, 50, List.of("flightId", "availableSeats"))
+                .blockLast();
+
+        Query sent = query.getValue();
+        assertEquals(new Document("$gte", today), sent.getQueryObject().get("departureDate"));
+        assertEquals(new Document("$gt", new ObjectId(after)), sent.getQueryObject().get("flightId"));
+        assertEquals(new Document("flightId", 1), sent.getSortObject());
+        assertEquals(50, sent.getLimit());
+        assertEquals(new Document("flightId", 1).append("availableSeats", 1), sent.getFieldsObject());
+    }
+
+    @Test
+    void findPageWithoutFiltersMatchesEverything() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.find(query.capture(), eq(Flights.class))).thenReturn(Flux.empty());
+
+        new FlightRepositoryCustomImpl(mongoTemplate).findPage(null, null, 100, 0, List.of()).blockLast();
+
+        assertTrue(query.getValue().getQueryObject().isEmpty());
+        assertEquals(100, query.getValue().getSkip());
+        assertTrue(query.getValue().getFieldsObject().isEmpty());
+    }
+
+    @Test
+    void reserveSeatsOnlyMatchesWithEnoughSeatsLeft() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        when(mongoTemplate.findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class),
+                eq(Flights.class))).thenReturn(Mono.empty());
+
+        new FlightRepositoryCustomImpl(mongoTemplate).reserveSeats("F1", 3).block();
+
+        assertEquals(new Document("_id", "F1").append("availableSeats", new Document("$gte", 3)),
+                sent(query.getValue()));
+        assertEquals(new Document("$inc", new Document("availableSeats", -3)), update.getValue().getUpdateObject());
+    }
+
+    @Test
+    void releaseSeatsNeverGoesAboveTotalSeats() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        when(mongoTemplate.findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class),
+                eq(Flights.class))).thenReturn(Mono.empty());
+
+        new FlightRepositoryCustomImpl(mongoTemplate).releaseSeats("F1", 2).block();
+
+        Document expr = new Document("$expr", new Document("$lte",
+                List.of(new Document("$add", List.of("$availableSeats", 2)), "$totalSeats")));
+        assertEquals(new Document("_id", "F1").append("$and", List.of(expr)), sent(query.getValue()));
+        assertEquals(new Document("$inc", new Document("availableSeats", 2)), update.getValue().getUpdateObject());
+    }
+
+    // the filter as the template sends it, with field names and expressions mapped
+    private static Document sent(Query query) {
+        MongoMappingContext context = new MongoMappingContext();
+        context.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        QueryMapper mapper = new QueryMapper(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, context));
+        return mapper.getMappedObject(query.getQueryObject(), context.getPersistentEntity(Flights.class));
+    }
+
+    @Mock
+    ReactiveBulkOperations bulkOperations;
+
+    @Test
+    void insertUnorderedAssignsIdsAndReportsNoErrors() {
+        List<Flights> flights = List.of(new Flights(), new Flights());
+        when(mongoTemplate.bulkOps(BulkMode.UNORDERED, Flights.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(flights)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(Mono.just(BulkWriteResult.unacknowledged()));
+
+        List<BulkWriteError> errors = new FlightRepositoryCustomImpl(mongoTemplate).insertUnordered(flights).block();
+
+        assertTrue(errors.isEmpty());
+        flights.forEach(flight -> assertTrue(ObjectId.isValid(flight.getFlightId())));
+    }
+
+    @Test
+    void insertUnorderedReturnsRowsMongoRejected() {
+        List<Flights> flights = List.of(new Flights(), new Flights(), new Flights());
+        BulkWriteError duplicate = new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 1);
+        MongoBulkWriteException failure = new MongoBulkWriteException(BulkWriteResult.unacknowledged(),
+                List.of(duplicate), null, new ServerAddress());
+        when(mongoTemplate.bulkOps(BulkMode.UNORDERED, Flights.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(flights)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(Mono.error(new DuplicateKeyException("duplicate", failure)));
+
+        List<BulkWriteError> errors = new FlightRepositoryCustomImpl(mongoTemplate).insertUnordered(flights).block();
+
+        assertEquals(List.of(duplicate), errors);
+        assertNotNull(flights.get(2).getFlightId());
+    }
+
+    @Test
+    void insertUnorderedPassesOtherFailuresOn() {
+        List<Flights> flights = List.of(new Flights());
+        when(mongoTemplate.bulkOps(BulkMode.UNORDERED, Flights.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(flights)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(Mono.error(new IllegalStateException("mongo down")));
+
+        StepVerifier.create(new FlightRepositoryCustomImpl(mongoTemplate).insertUnordered(flights))
+                .expectError(IllegalStateException.class)
+                .verify();
+    }
+}
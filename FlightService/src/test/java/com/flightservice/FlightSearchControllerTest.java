@@ -3,16 +3,19 @@ package com.flightservice;
 import com.flightservice.model.Cities;
 import com.flightservice.model.Flights;
 import com.flightservice.request.SearchFlightRequest;
+import com.flightservice.responses.RoundTripSearchResponse;
 import com.flightservice.service.FlightSearchService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 import com.flightservice.controller.*;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.List;
 import com.flightservice.controller.MainController;
 
 class FlightSearchControllerTests {
@@ -47,5 +50,26 @@ class FlightSearchControllerTests {
                 .expectNextMatches(f -> "FL1".equals(f.getFlightId()))
                 .verifyComplete();
     }
-}
 
+    @Test
+    @DisplayName("Round trip search returns both legs")
+    void searchRoundTrip() {
+        SearchFlightRequest req = new SearchFlightRequest();
+        req.setSourceCity(Cities.KANPUR);
+        req.setDestinationCity(Cities.MUMBAI);
+        req.setTravelDate(LocalDate.now().plusDays(1));
+        req.setReturnDate(LocalDate.now().plusDays(4));
+
+        Flights out = new Flights();
+        out.setFlightId("FL1");
+        Flights back = new Flights();
+        back.setFlightId("FL2");
+        Mockito.when(searchService.searchRoundTrip(Mockito.any(SearchFlightRequest.class)))
+                .thenReturn(Mono.just(new RoundTripSearchResponse(List.of(out), List.of(back))));
+
+        StepVerifier.create(controller.searchRoundTrip(req))
+                .expectNextMatches(r -> "FL1".equals(r.getOutboundFlights().get(0).getFlightId())
+                        && "FL2".equals(r.getReturnFlights().get(0).getFlightId()))
+                .verifyComplete();
+    }
+}
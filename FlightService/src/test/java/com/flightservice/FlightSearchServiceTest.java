@@ -1,25 +1,38 @@
 package com.flightservice;
 
 import com.flightservice.exceptions.ResourceNotFoundException;
+import com.flightservice.exceptions.ServiceUnavailableException;
 import com.flightservice.exceptions.ValidationException;
 import com.flightservice.model.Cities;
 import com.flightservice.model.Flights;
+import com.flightservice.model.TripType;
 import com.flightservice.repository.FlightRepository;
 import com.flightservice.request.SearchFlightRequest;
+import com.flightservice.responses.Itinerary;
+import com.flightservice.service.FareCalendar;
 import com.flightservice.service.FlightSearchService;
+import com.flightservice.service.ItineraryPlanner;
+import com.flightservice.service.RouteIndex;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Range;
 import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,6 +41,15 @@ class FlightSearchServiceTests {
     @Mock
     private FlightRepository inventoryRepository;
 
+    @Mock
+    private RouteIndex routeIndex;
+
+    @Mock
+    private ItineraryPlanner itineraryPlanner;
+
+    @Mock
+    private FareCalendar fareCalendar;
+
     @InjectMocks
     private FlightSearchService flightSearchService;
 
@@ -98,6 +120,234 @@ class FlightSearchServiceTests {
                 .verifyError(ResourceNotFoundException.class);
     }
 
+    @Test
+    @DisplayName("Search is served from the route index once it is loaded")
+    void searchUsesRouteIndexWhenReady() {
+        LocalDate futureDate = LocalDate.now().plusDays(5);
+        SearchFlightRequest req = request(futureDate);
+
+        when(routeIndex.isReady()).thenReturn(true);
+        when(routeIndex.find(Cities.KANPUR, Cities.MUMBAI, futureDate))
+                .thenReturn(List.of(sampleFlight(futureDate)));
+
+        StepVerifier.create(flightSearchService.searchFlights(req))
+                .assertNext(f -> assertEquals("FL-201", f.getFlightId()))
+                .verifyComplete();
+        verifyNoInteractions(inventoryRepository);
+    }
+
+    @Test
+    @DisplayName("Error when the route index has no flights for the route")
+    void emptyRouteIndexThrowsNotFound() {
+        LocalDate futureDate = LocalDate.now().plusDays(5);
+
+        when(routeIndex.isReady()).thenReturn(true);
+        when(routeIndex.find(Cities.KANPUR, Cities.MUMBAI, futureDate)).thenReturn(List.of());
+
+        StepVerifier.create(flightSearchService.searchFlights(request(futureDate)))
+                .verifyError(ResourceNotFoundException.class);
+        verifyNoInteractions(inventoryRepository);
+    }
+
+    @Test
+    @DisplayName("Round trip search returns both legs")
+    void roundTripReturnsOutboundAndReturnFlights() {
+        LocalDate outDate = LocalDate.now().plusDays(5);
+        LocalDate backDate = outDate.plusDays(3);
+        SearchFlightRequest req = request(outDate);
+        req.setTripType(TripType.ROUND_TRIP);
+        req.setReturnDate(backDate);
+
+        Flights back = sampleFlight(backDate);
+        back.setFlightId("FL-202");
+        back.setSourceCity(Cities.MUMBAI);
+        back.setDestinationCity(Cities.KANPUR);
+        when(inventoryRepository.findBySourceCityAndDestinationCityAndDepartureDate(
+                Cities.KANPUR, Cities.MUMBAI, outDate)).thenReturn(Flux.just(sampleFlight(outDate)));
+        when(inventoryRepository.findBySourceCityAndDestinationCityAndDepartureDate(
+                Cities.MUMBAI, Cities.KANPUR, backDate)).thenReturn(Flux.just(back));
+
+        StepVerifier.create(flightSearchService.searchRoundTrip(req))
+                .assertNext(result -> {
+                    assertEquals("FL-201", result.getOutboundFlights().get(0).getFlightId());
+                    assertEquals("FL-202", result.getReturnFlights().get(0).getFlightId());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Round trip search fails when no return flight exists")
+    void roundTripWithoutReturnFlightsThrowsNotFound() {
+        LocalDate outDate = LocalDate.now().plusDays(5);
+        SearchFlightRequest req = request(outDate);
+        req.setReturnDate(outDate.plusDays(2));
+
+        when(inventoryRepository.findBySourceCityAndDestinationCityAndDepartureDate(
+                Cities.KANPUR, Cities.MUMBAI, outDate)).thenReturn(Flux.just(sampleFlight(outDate)));
+        when(inventoryRepository.findBySourceCityAndDestinationCityAndDepartureDate(
+                Cities.MUMBAI, Cities.KANPUR, outDate.plusDays(2))).thenReturn(Flux.empty());
+
+        StepVerifier.create(flightSearchService.searchRoundTrip(req))
+                .verifyErrorMessage("No return flights found");
+    }
+
+    @Test
+    @DisplayName("Reject round trip without a return date or with one before travel")
+    void rejectInvalidReturnDate() {
+        SearchFlightRequest req = request(LocalDate.now().plusDays(5));
+
+        StepVerifier.create(flightSearchService.searchRoundTrip(req))
+                .verifyError(ValidationException.class);
+
+        req.setReturnDate(LocalDate.now().plusDays(4));
+
+        StepVerifier.create(flightSearchService.searchRoundTrip(req))
+                .verifyError(ValidationException.class);
+        verifyNoInteractions(inventoryRepository);
+    }
+
+    @Test
+    @DisplayName("Round trip without a travel date reports it instead of comparing the return date")
+    void roundTripWithoutTravelDateIsRejectedBeforeTheReturnDateCheck() {
+        SearchFlightRequest req = request(null);
+        req.setReturnDate(LocalDate.now().plusDays(4));
+
+        StepVerifier.create(flightSearchService.searchRoundTrip(req))
+                .verifyErrorSatisfies(error -> {
+                    assertEquals(ValidationException.class, error.getClass());
+                    assertEquals("Travel date is required", error.getMessage());
+                });
+        verifyNoInteractions(inventoryRepository);
+    }
+
+    @Test
+    @DisplayName("Flexible search groups one range query by date")
+    void flexibleSearchGroupsRangeByDate() {
+        LocalDate travel = LocalDate.now().plusDays(10);
+        SearchFlightRequest req = request(travel);
+        req.setFlexibleDays(2);
+
+        Flights later = sampleFlight(travel.plusDays(2));
+        later.setFlightId("FL-203");
+        when(inventoryRepository.findBySourceCityAndDestinationCityAndDepartureDateBetween(
+                Cities.KANPUR, Cities.MUMBAI, Range.closed(travel.minusDays(2), travel.plusDays(2))))
+                .thenReturn(Flux.just(sampleFlight(travel), later));
+
+        StepVerifier.create(flightSearchService.searchFlexibleDates(req))
+                .assertNext(days -> {
+                    assertEquals(List.of(travel.minusDays(2), travel.minusDays(1), travel,
+                            travel.plusDays(1), travel.plusDays(2)), List.copyOf(days.keySet()));
+                    assertEquals("FL-201", days.get(travel).get(0).getFlightId());
+                    assertEquals("FL-203", days.get(travel.plusDays(2)).get(0).getFlightId());
+                    assertTrue(days.get(travel.plusDays(1)).isEmpty());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Flexible search window never starts before today")
+    void flexibleSearchStartsToday() {
+        LocalDate today = LocalDate.now();
+        SearchFlightRequest req = request(today.plusDays(1));
+        req.setFlexibleDays(3);
+
+        when(routeIndex.isReady()).thenReturn(true);
+        when(routeIndex.find(Cities.KANPUR, Cities.MUMBAI, today, today.plusDays(4)))
+                .thenReturn(new TreeMap<>(Map.of(today, List.of(sampleFlight(today)))));
+
+        StepVerifier.create(flightSearchService.searchFlexibleDates(req))
+                .assertNext(days -> {
+                    assertEquals(today, days.keySet().iterator().next());
+                    assertEquals(5, days.size());
+                })
+                .verifyComplete();
+        verifyNoInteractions(inventoryRepository);
+    }
+
+    @Test
+    @DisplayName("Flexible search fails when no day has flights")
+    void flexibleSearchWithoutFlightsThrowsNotFound() {
+        SearchFlightRequest req = request(LocalDate.now().plusDays(10));
+        req.setFlexibleDays(1);
+
+        when(inventoryRepository.findBySourceCityAndDestinationCityAndDepartureDateBetween(any(), any(), any()))
+                .thenReturn(Flux.empty());
+
+        StepVerifier.create(flightSearchService.searchFlexibleDates(req))
+                .verifyError(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Reject flexible search without a valid number of days")
+    void rejectInvalidFlexibleDays() {
+        SearchFlightRequest req = request(LocalDate.now().plusDays(10));
+
+        StepVerifier.create(flightSearchService.searchFlexibleDates(req))
+                .verifyError(ValidationException.class);
+
+        req.setFlexibleDays(8);
+
+        StepVerifier.create(flightSearchService.searchFlexibleDates(req))
+                .verifyError(ValidationException.class);
+        verifyNoInteractions(inventoryRepository);
+    }
+
+    @Test
+    @DisplayName("Connection search returns the planned itineraries")
+    void connectionSearchReturnsItineraries() {
+        LocalDate futureDate = LocalDate.now().plusDays(5);
+        Flights direct = sampleFlight(futureDate);
+        direct.setArrivalDate(futureDate);
+        direct.setArrivalTime(LocalTime.of(11, 0));
+
+        when(routeIndex.isReady()).thenReturn(true);
+        when(itineraryPlanner.plan(Cities.KANPUR, Cities.MUMBAI, futureDate, 1))
+                .thenReturn(List.of(new Itinerary(List.of(direct))));
+
+        StepVerifier.create(flightSearchService.searchConnections(request(futureDate), 1))
+                .assertNext(it -> assertEquals(120, it.getDurationMinutes()))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Connection search is unavailable until the route index is loaded")
+    void connectionSearchNeedsLoadedIndex() {
+        StepVerifier.create(flightSearchService.searchConnections(request(LocalDate.now().plusDays(5)), 2))
+                .verifyError(ServiceUnavailableException.class);
+        verifyNoInteractions(itineraryPlanner, inventoryRepository);
+    }
+
+    @Test
+    @DisplayName("Reject connection search with too many stops")
+    void rejectTooManyStops() {
+        StepVerifier.create(flightSearchService.searchConnections(request(LocalDate.now().plusDays(5)), 3))
+                .verifyError(ValidationException.class);
+    }
+
+    @Test
+    @DisplayName("Fare calendar is read from the materialized calendar")
+    void fareCalendarReturnsLowestFares() {
+        YearMonth month = YearMonth.now().plusMonths(1);
+        when(fareCalendar.isReady()).thenReturn(true);
+        when(fareCalendar.month(Cities.KANPUR, Cities.MUMBAI, month))
+                .thenReturn(new TreeMap<>(Map.of(month.atDay(3), 3500.0)));
+
+        StepVerifier.create(flightSearchService.getFareCalendar(Cities.KANPUR, Cities.MUMBAI, month))
+                .assertNext(fares -> assertEquals(3500.0, fares.get(month.atDay(3))))
+                .verifyComplete();
+        verifyNoInteractions(inventoryRepository);
+    }
+
+    @Test
+    @DisplayName("Fare calendar is unavailable until the route index is loaded")
+    void fareCalendarNeedsLoadedIndex() {
+        StepVerifier.create(flightSearchService.getFareCalendar(Cities.KANPUR, Cities.MUMBAI, YearMonth.now()))
+                .verifyError(ServiceUnavailableException.class);
+
+        StepVerifier.create(flightSearchService.getFareCalendar(Cities.KANPUR, Cities.KANPUR, YearMonth.now()))
+                .verifyError(ValidationException.class);
+    }
+
     @Test
     @DisplayName("Reject when source and destination are the same")
     void rejectSameSourceDestination() {
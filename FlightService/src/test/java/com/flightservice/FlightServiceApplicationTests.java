@@ -6,13 +6,14 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 
 import com.flightservice.repository.AirlineRepository;
 import com.flightservice.repository.FlightRepository;
-import com.flightservice.repository.SeatsRepository;
+import com.flightservice.repository.SeatMapRepository;
 
 @SpringBootTest(properties = {
         "spring.cloud.config.enabled=false",
         "spring.config.import=optional:classpath:/",
         "eureka.client.enabled=false",
         "spring.cloud.discovery.enabled=false",
+        "flight.index-check.enabled=false",
         "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration,org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration"
 })
 class FlightServiceApplicationTests {
@@ -24,7 +25,7 @@ class FlightServiceApplicationTests {
 	AirlineRepository airlineRepository;
 
 	@MockBean
-	SeatsRepository seatsRepository;
+	SeatMapRepository seatMapRepository;
 
 	@Test
 	void contextLoads() {
@@ -1,7 +1,6 @@
 package com.flightservice;
 
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyIterable;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.when;
@@ -15,18 +14,19 @@ import com.flightservice.model.Cities;
 import com.flightservice.model.Flights;
 import com.flightservice.repository.AirlineRepository;
 import com.flightservice.repository.FlightRepository;
-import com.flightservice.repository.SeatsRepository;
+import com.flightservice.repository.SeatMapRepository;
 import com.flightservice.request.AddFlightRequest;
 import com.flightservice.service.FlightService;
+import com.flightservice.service.AirlineCatalog;
+import com.flightservice.service.AirlineService;
+import com.flightservice.service.RouteIndex;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
@@ -40,15 +40,22 @@ class FlightServiceValidationTest {
     AirlineRepository airlineRepository;
 
     @Mock
-    SeatsRepository seatsRepository;
+    SeatMapRepository seatMapRepository;
+
+    @Mock
+    RouteIndex routeIndex;
+
+    @Mock
+    AirlineCatalog airlineCatalog;
 
-    @InjectMocks
     FlightService flightService;
 
     AddFlightRequest request;
 
     @BeforeEach
     void setup() {
+        flightService = new FlightService(flightRepository, new AirlineService(airlineRepository, airlineCatalog),
+                seatMapRepository, routeIndex);
         request = new AddFlightRequest();
         request.setAirlineCode("AI");
         request.setFlightNumber("AI101");
@@ -64,14 +71,8 @@ class FlightServiceValidationTest {
         when(airlineRepository.findById(anyString()))
                 .thenReturn(Mono.just(new Airline()));
 
-        when(flightRepository.findFirstByFlightNumberAndDepartureDate(any(), any()))
-                .thenReturn(Mono.empty());
-
         lenient().when(flightRepository.save(any()))
                 .thenReturn(Mono.just(new Flights()));
-
-        lenient().when(seatsRepository.saveAll(anyIterable()))
-                .thenReturn(Flux.empty());
     }
 
     @Test
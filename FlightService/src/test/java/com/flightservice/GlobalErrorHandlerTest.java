@@ -2,6 +2,7 @@ package com.flightservice;
 
 import com.flightservice.exceptions.GlobalErrorHandler;
 import com.flightservice.exceptions.ResourceNotFoundException;
+import com.flightservice.exceptions.ServiceUnavailableException;
 import com.flightservice.exceptions.ValidationException;
 import com.flightservice.model.Cities;
 import com.flightservice.model.TripType;
@@ -33,6 +34,14 @@ class GlobalErrorHandlerTests {
                 .verifyComplete();
     }
 
+    @Test
+    @DisplayName("Handles service unavailable")
+    void handleUnavailable() {
+        StepVerifier.create(handler.handleUnavailable(new ServiceUnavailableException("Not ready")))
+                .assertNext(map -> assertEquals("Not ready", map.get("error")))
+                .verifyComplete();
+    }
+
     @Test
     @DisplayName("Handles resource not found")
     void handleNotFound() {
@@ -0,0 +1,125 @@
+package com.flightservice;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.flightservice.model.Cities;
+import com.flightservice.model.Flights;
+import com.flightservice.responses.Itinerary;
+import com.flightservice.service.ItineraryPlanner;
+import com.flightservice.service.RouteIndex;
+
+class ItineraryPlannerTest {
+
+    RouteIndex routeIndex;
+
+    ItineraryPlanner planner;
+
+    LocalDate day = LocalDate.now().plusDays(10);
+
+    @BeforeEach
+    void setUp() {
+        routeIndex = new RouteIndex(null);
+        planner = new ItineraryPlanner(routeIndex, Duration.ofMinutes(45), Duration.ofHours(12), 50);
+    }
+
+    @Test
+    void directFlightsOnlyWithZeroStops() {
+        add("D1", Cities.DELHI, Cities.MUMBAI, day, 8, 10);
+        add("A", Cities.DELHI, Cities.CHENNAI, day, 6, 8);
+        add("B", Cities.CHENNAI, Cities.MUMBAI, day, 10, 12);
+
+        assertEquals(List.of("D1"), ids(planner.plan(Cities.DELHI, Cities.MUMBAI, day, 0)));
+        assertEquals(List.of("D1", "A>B"), ids(planner.plan(Cities.DELHI, Cities.MUMBAI, day, 1)));
+    }
+
+    @Test
+    void connectionShorterThanMinimumIsSkipped() {
+        add("A", Cities.DELHI, Cities.CHENNAI, day, 6, 8);
+        add("TIGHT", Cities.CHENNAI, Cities.MUMBAI, day, 8, 10);
+        add("OK", Cities.CHENNAI, Cities.MUMBAI, day, 9, 11);
+
+        assertEquals(List.of("A>OK"), ids(planner.plan(Cities.DELHI, Cities.MUMBAI, day, 1)));
+    }
+
+    @Test
+    void connectionMayContinueNextDay() {
+        add("LATE", Cities.DELHI, Cities.CHENNAI, day, 20, 23);
+        add("EARLY", Cities.CHENNAI, Cities.MUMBAI, day.plusDays(1), 6, 8);
+        add("TOO_LATE", Cities.CHENNAI, Cities.MUMBAI, day.plusDays(1), 13, 15);
+
+        List<Itinerary> found = planner.plan(Cities.DELHI, Cities.MUMBAI, day, 1);
+
+        assertEquals(List.of("LATE>EARLY"), ids(found));
+        assertEquals(1, found.get(0).getStops());
+    }
+
+    @Test
+    void twoStopItinerariesNeverRevisitACity() {
+        add("A", Cities.DELHI, Cities.CHENNAI, day, 6, 8);
+        add("B", Cities.CHENNAI, Cities.PUNE, day, 9, 11);
+        add("C", Cities.PUNE, Cities.MUMBAI, day, 12, 14);
+        add("BACK", Cities.CHENNAI, Cities.DELHI, day, 9, 11);
+        add("AGAIN", Cities.DELHI, Cities.MUMBAI, day, 12, 14);
+
+        assertEquals(List.of("AGAIN", "A>B>C"), ids(planner.plan(Cities.DELHI, Cities.MUMBAI, day, 2)));
+    }
+
+    @Test
+    void soldOutFlightsAreNeverALeg() {
+        add("FULL_DIRECT", Cities.DELHI, Cities.MUMBAI, day, 8, 10).setAvailableSeats(0);
+        add("A", Cities.DELHI, Cities.CHENNAI, day, 6, 8);
+        add("FULL_LAST", Cities.CHENNAI, Cities.MUMBAI, day, 9, 11).setAvailableSeats(0);
+        add("B", Cities.CHENNAI, Cities.PUNE, day, 9, 11);
+        add("C", Cities.PUNE, Cities.MUMBAI, day, 12, 14);
+        add("FULL_FIRST", Cities.DELHI, Cities.PUNE, day, 6, 8).setAvailableSeats(0);
+
+        assertEquals(List.of("A>B>C"), ids(planner.plan(Cities.DELHI, Cities.MUMBAI, day, 2)));
+    }
+
+    @Test
+    void firstLegMustLeaveOnTheTravelDate() {
+        add("NEXT_DAY", Cities.DELHI, Cities.MUMBAI, day.plusDays(1), 1, 3);
+
+        assertTrue(planner.plan(Cities.DELHI, Cities.MUMBAI, day, 2).isEmpty());
+    }
+
+    @Test
+    void resultsAreFastestFirstThenCheapest() {
+        add("SLOW", Cities.DELHI, Cities.MUMBAI, day, 6, 12);
+        add("FAST", Cities.DELHI, Cities.MUMBAI, day, 7, 9);
+        Flights cheap = add("FAST_CHEAP", Cities.DELHI, Cities.MUMBAI, day, 8, 10);
+        cheap.setPrice(1000);
+
+        assertEquals(List.of("FAST_CHEAP", "FAST", "SLOW"), ids(planner.plan(Cities.DELHI, Cities.MUMBAI, day, 0)));
+    }
+
+    private Flights add(String id, Cities from, Cities to, LocalDate date, int departHour, int arriveHour) {
+        Flights flight = new Flights();
+        flight.setFlightId(id);
+        flight.setSourceCity(from);
+        flight.setDestinationCity(to);
+        flight.setDepartureDate(date);
+        flight.setDepartureTime(LocalTime.of(departHour, 0));
+        flight.setArrivalDate(date);
+        flight.setArrivalTime(LocalTime.of(arriveHour, 0));
+        flight.setPrice(5000);
+        flight.setAvailableSeats(10);
+        routeIndex.put(flight);
+        return flight;
+    }
+
+    private static List<String> ids(List<Itinerary> itineraries) {
+        return itineraries.stream()
+                .map(it -> String.join(">", it.getLegs().stream().map(Flights::getFlightId).toList()))
+                .toList();
+    }
+}
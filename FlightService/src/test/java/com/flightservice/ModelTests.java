@@ -2,11 +2,12 @@ package com.flightservice;
 
 import com.flightservice.model.Airline;
 import com.flightservice.model.Cities;
-import com.flightservice.model.Seats;
+import com.flightservice.model.SeatMap;
 import com.flightservice.model.TripType;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ModelTests {
@@ -22,17 +23,26 @@ class ModelTests {
     }
 
     @Test
-    void testSeatModel() {
-        Seats seat = new Seats();
-        seat.setSeatId("S1");
-        seat.setSeatNo("12A");
-        seat.setFlightId("FL1");
-        seat.setAvailable(true);
-
-        assertEquals("S1", seat.getSeatId());
-        assertEquals("FL1", seat.getFlightId());
-        assertEquals("12A", seat.getSeatNo());
-        assertTrue(seat.isAvailable());
+    void testSeatMapModel() {
+        SeatMap seatMap = SeatMap.empty("FL1", 130);
+        seatMap.getBooked()[SeatMap.word(64)] |= SeatMap.mask(64);
+
+        assertEquals("FL1", seatMap.getFlightId());
+        assertEquals(3, seatMap.getBooked().length);
+        assertTrue(seatMap.isBooked(64));
+        assertFalse(seatMap.isBooked(63));
+        assertFalse(seatMap.isBooked(200));
+    }
+
+    @Test
+    void testSeatNumbers() {
+        assertEquals(0, SeatMap.seatIndex("S1"));
+        assertEquals(299, SeatMap.seatIndex("S300"));
+        assertEquals("S300", SeatMap.seatNo(299));
+        assertEquals(-1, SeatMap.seatIndex("12A"));
+        assertEquals(-1, SeatMap.seatIndex("S"));
+        assertEquals(-1, SeatMap.seatIndex("S0"));
+        assertEquals(-1, SeatMap.seatIndex(null));
     }
 
    
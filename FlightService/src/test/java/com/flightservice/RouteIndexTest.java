@@ -0,0 +1,165 @@
+package com.flightservice;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.flightservice.model.Cities;
+import com.flightservice.model.Flights;
+import com.flightservice.repository.FlightRepository;
+import com.flightservice.service.RouteIndex;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class RouteIndexTest {
+
+    @Mock
+    FlightRepository flightRepository;
+
+    RouteIndex routeIndex;
+
+    LocalDate day = LocalDate.now().plusDays(3);
+
+    @BeforeEach
+    void setUp() {
+        routeIndex = new RouteIndex(flightRepository);
+    }
+
+    @Test
+    void notReadyUntilLoaded() {
+        when(flightRepository.findByDepartureDateGreaterThanEqual(any()))
+                .thenReturn(Flux.just(flight("F1", Cities.DELHI, Cities.MUMBAI, day, 9)));
+
+        assertFalse(routeIndex.isReady());
+        StepVerifier.create(routeIndex.reload()).verifyComplete();
+
+        assertTrue(routeIndex.isReady());
+        assertEquals(1, routeIndex.find(Cities.DELHI, Cities.MUMBAI, day).size());
+    }
+
+    @Test
+    void findReturnsFlightsOfThatRouteAndDayByDepartureTime() {
+        when(flightRepository.findByDepartureDateGreaterThanEqual(any())).thenReturn(Flux.just(
+                flight("F1", Cities.DELHI, Cities.MUMBAI, day, 18),
+                flight("F2", Cities.DELHI, Cities.MUMBAI, day, 6),
+                flight("F3", Cities.MUMBAI, Cities.DELHI, day, 7),
+                flight("F4", Cities.DELHI, Cities.MUMBAI, day.plusDays(1), 8)));
+
+        routeIndex.reload().block();
+
+        List<Flights> found = routeIndex.find(Cities.DELHI, Cities.MUMBAI, day);
+        assertEquals(List.of("F2", "F1"), found.stream().map(Flights::getFlightId).toList());
+        assertTrue(routeIndex.find(Cities.DELHI, Cities.CHENNAI, day).isEmpty());
+    }
+
+    @Test
+    void rangeFindReturnsEachDayInTheWindow() {
+        routeIndex.put(flight("F1", Cities.DELHI, Cities.MUMBAI, day.minusDays(1), 9));
+        routeIndex.put(flight("F2", Cities.DELHI, Cities.MUMBAI, day.plusDays(1), 9));
+        routeIndex.put(flight("F3", Cities.DELHI, Cities.MUMBAI, day.plusDays(2), 9));
+
+        assertEquals(List.of(day.minusDays(1), day.plusDays(1)),
+                List.copyOf(routeIndex.find(Cities.DELHI, Cities.MUMBAI, day.minusDays(1), day.plusDays(1)).keySet()));
+    }
+
+    @Test
+    void putAddsNewFlightsAndReplacesExistingOnes() {
+        Flights flight = flight("F1", Cities.DELHI, Cities.MUMBAI, day, 9);
+        routeIndex.put(flight);
+        routeIndex.put(flight("F2", Cities.DELHI, Cities.MUMBAI, day, 11));
+
+        Flights updated = flight("F1", Cities.DELHI, Cities.MUMBAI, day, 9);
+        updated.setAvailableSeats(42);
+        routeIndex.put(updated);
+
+        List<Flights> found = routeIndex.find(Cities.DELHI, Cities.MUMBAI, day);
+        assertEquals(2, found.size());
+        assertEquals(42, found.get(0).getAvailableSeats());
+    }
+
+    @Test
+    void failedLoadKeepsIndexNotReady() {
+        when(flightRepository.findByDepartureDateGreaterThanEqual(any()))
+                .thenReturn(Flux.error(new IllegalStateException("mongo down")));
+
+        StepVerifier.create(routeIndex.reload()).verifyComplete();
+
+        assertFalse(routeIndex.isReady());
+    }
+
+    @Test
+    void reloadReplacesPreviousContents() {
+        routeIndex.put(flight("OLD", Cities.DELHI, Cities.MUMBAI, day, 9));
+        when(flightRepository.findByDepartureDateGreaterThanEqual(any()))
+                .thenReturn(Flux.just(flight("NEW", Cities.DELHI, Cities.MUMBAI, day, 10)));
+
+        routeIndex.reload().block();
+
+        assertEquals(List.of("NEW"), routeIndex.find(Cities.DELHI, Cities.MUMBAI, day).stream()
+                .map(Flights::getFlightId).toList());
+    }
+
+    @Test
+    void writesMadeDuringAReloadSurviveTheSwap() {
+        Sinks.Many<Flights> database = Sinks.many().unicast().onBackpressureBuffer();
+        when(flightRepository.findByDepartureDateGreaterThanEqual(any())).thenReturn(database.asFlux());
+        Flights stale = flight("F1", Cities.DELHI, Cities.MUMBAI, day, 9);
+        Flights reserved = flight("F1", Cities.DELHI, Cities.MUMBAI, day, 9);
+        reserved.setAvailableSeats(170);
+
+        Disposable reload = routeIndex.reload().subscribe();
+        routeIndex.put(reserved);
+        routeIndex.put(flight("CREATED", Cities.DELHI, Cities.MUMBAI, day, 12));
+        // the database answer was read before the reservation landed
+        database.tryEmitNext(stale);
+        database.tryEmitComplete();
+
+        assertTrue(reload.isDisposed());
+        List<Flights> found = routeIndex.find(Cities.DELHI, Cities.MUMBAI, day);
+        assertEquals(List.of("F1", "CREATED"), found.stream().map(Flights::getFlightId).toList());
+        assertEquals(170, found.get(0).getAvailableSeats());
+    }
+
+    @Test
+    void reloadAskedForWhileOneRunsIsSkipped() {
+        Sinks.Many<Flights> database = Sinks.many().unicast().onBackpressureBuffer();
+        when(flightRepository.findByDepartureDateGreaterThanEqual(any())).thenReturn(database.asFlux());
+
+        routeIndex.reload().subscribe();
+        StepVerifier.create(routeIndex.reload()).verifyComplete();
+        database.tryEmitComplete();
+
+        verify(flightRepository, times(1)).findByDepartureDateGreaterThanEqual(any());
+        assertTrue(routeIndex.isReady());
+    }
+
+    private static Flights flight(String id, Cities source, Cities destination, LocalDate date, int hour) {
+        Flights flight = new Flights();
+        flight.setFlightId(id);
+        flight.setSourceCity(source);
+        flight.setDestinationCity(destination);
+        flight.setDepartureDate(date);
+        flight.setDepartureTime(LocalTime.of(hour, 0));
+        flight.setTotalSeats(180);
+        flight.setAvailableSeats(180);
+        return flight;
+    }
+}
@@ -24,11 +24,13 @@ class SearchFlightRequestTest {
         req.setTravelDate(travelDate);
         req.setTripType(TripType.ONE_WAY);
         req.setReturnDate(returnDate);
+        req.setFlexibleDays(3);
 
         assertEquals(Cities.DELHI, req.getSourceCity());
         assertEquals(Cities.MUMBAI, req.getDestinationCity());
         assertEquals(travelDate, req.getTravelDate());
         assertEquals(TripType.ONE_WAY, req.getTripType());
         assertEquals(returnDate, req.getReturnDate());
+        assertEquals(3, req.getFlexibleDays());
     }
 }
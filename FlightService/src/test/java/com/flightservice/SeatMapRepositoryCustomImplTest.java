@@ -0,0 +1,106 @@
+package com.flightservice;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import com.flightservice.model.SeatMap;
+import com.flightservice.repository.SeatMapRepositoryCustomImpl;
+import com.mongodb.client.result.UpdateResult;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class SeatMapRepositoryCustomImplTest {
+
+    @Mock
+    ReactiveMongoTemplate mongoTemplate;
+
+    @Test
+    void bookSeatsChecksAndSetsEveryTouchedWordInOneUpdate() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        when(mongoTemplate.findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class),
+                eq(SeatMap.class))).thenReturn(Mono.empty());
+
+        new SeatMapRepositoryCustomImpl(mongoTemplate).bookSeats("F1", List.of(0, 2, 64)).block();
+
+        Document filter = query.getValue().getQueryObject();
+        assertEquals("F1", filter.get("flightId"));
+        assertEquals(new Document("$gt", 64), filter.get("totalSeats"));
+        assertEquals(new Document("$bitsAllClear", List.of(0, 2)), filter.get("booked.0"));
+        assertEquals(new Document("$bitsAllClear", List.of(0)), filter.get("booked.1"));
+
+        Document bit = (Document) update.getValue().getUpdateObject().get("$bit");
+        assertEquals(new Document("or", 0b101L), bit.get("booked.0"));
+        assertEquals(new Document("or", 1L), bit.get("booked.1"));
+    }
+
+    @Test
+    void releaseSeatsRequiresSetBitsAndClearsThem() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        when(mongoTemplate.findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class),
+                eq(SeatMap.class))).thenReturn(Mono.empty());
+
+        new SeatMapRepositoryCustomImpl(mongoTemplate).releaseSeats("F1", List.of(127)).block();
+
+        assertEquals(new Document("$bitsAllSet", List.of(63)), query.getValue().getQueryObject().get("booked.1"));
+        Document bit = (Document) update.getValue().getUpdateObject().get("$bit");
+        assertEquals(new Document("and", Long.MAX_VALUE), bit.get("booked.1"));
+    }
+
+    @Test
+    void findAndModifyReturnsTheUpdatedMap() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                eq(SeatMap.class))).thenReturn(Mono.just(SeatMap.empty("F1", 10)));
+
+        new SeatMapRepositoryCustomImpl(mongoTemplate).bookSeats("F1", List.of(1)).block();
+
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(UpdateDefinition.class), options.capture(),
+                eq(SeatMap.class));
+        assertEquals(true, options.getValue().isReturnNew());
+    }
+
+    @Test
+    void createIfAbsentOnlySetsFieldsOnInsert() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        when(mongoTemplate.upsert(query.capture(), update.capture(), eq(SeatMap.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(0, 0L, null)));
+
+        new SeatMapRepositoryCustomImpl(mongoTemplate).createIfAbsent("F1", 130).block();
+
+        assertEquals("F1", query.getValue().getQueryObject().get("flightId"));
+        Document onInsert = (Document) update.getValue().getUpdateObject().get("$setOnInsert");
+        assertEquals(130, onInsert.get("totalSeats"));
+        assertEquals(List.of(0L, 0L, 0L), onInsert.get("booked"));
+    }
+
+    @Test
+    void createIfAbsentIgnoresALostInsertRace() {
+        when(mongoTemplate.upsert(any(Query.class), any(UpdateDefinition.class), eq(SeatMap.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("E11000")));
+
+        StepVerifier.create(new SeatMapRepositoryCustomImpl(mongoTemplate).createIfAbsent("F1", 10))
+                .verifyComplete();
+    }
+}
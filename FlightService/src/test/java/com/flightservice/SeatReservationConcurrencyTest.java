@@ -0,0 +1,223 @@
+package com.flightservice;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+
+import com.flightservice.exceptions.ResourceNotFoundException;
+import com.flightservice.exceptions.ValidationException;
+import com.flightservice.model.Flights;
+import com.flightservice.repository.AirlineRepository;
+import com.flightservice.repository.FlightRepository;
+import com.flightservice.repository.FlightRepositoryCustomImpl;
+import com.flightservice.repository.SeatMapRepository;
+import com.flightservice.service.AirlineCatalog;
+import com.flightservice.service.AirlineService;
+import com.flightservice.service.FlightService;
+import com.flightservice.service.RouteIndex;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+
+import reactor.test.StepVerifier;
+
+/**
+ * Reserve and release through the real repository and its conditional
+ * findAndModify filters, against an in-process server that speaks the Mongo
+ * wire protocol, so what is tested is the query sent rather than a stand-in.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SeatReservationConcurrencyTest {
+
+    private static final String FLIGHT_ID = "HOT-1";
+    private static final int TOTAL_SEATS = 300;
+    private static final int THREADS = 64;
+    private static final int ATTEMPTS_PER_THREAD = 50;
+
+    static MongoServer server;
+
+    static MongoClient client;
+
+    static ReactiveMongoTemplate template;
+
+    @Mock
+    AirlineRepository airlineRepository;
+
+    @Mock
+    SeatMapRepository seatMapRepository;
+
+    @Mock
+    RouteIndex routeIndex;
+
+    @Mock
+    AirlineCatalog airlineCatalog;
+
+    FlightService flightService;
+
+    @BeforeAll
+    static void startServer() {
+        server = new MongoServer(new MemoryBackend());
+        client = MongoClients.create(server.bindAndGetConnectionString());
+        template = new ReactiveMongoTemplate(client, "seatReservation");
+    }
+
+    @AfterAll
+    static void stopServer() {
+        client.close();
+        server.shutdown();
+    }
+
+    @BeforeEach
+    void setup() {
+        template.dropCollection(Flights.class).block();
+        Flights flight = new Flights();
+        flight.setFlightId(FLIGHT_ID);
+        flight.setTotalSeats(TOTAL_SEATS);
+        flight.setAvailableSeats(TOTAL_SEATS);
+        template.insert(flight).block();
+
+        FlightRepository flightRepository = new ReactiveMongoRepositoryFactory(template)
+                .getRepository(FlightRepository.class,
+                        RepositoryFragments.just(new FlightRepositoryCustomImpl(template)));
+        flightService = new FlightService(flightRepository, new AirlineService(airlineRepository, airlineCatalog),
+                seatMapRepository, routeIndex);
+    }
+
+    private int availableSeats() {
+        return template.findById(FLIGHT_ID, Flights.class).block().getAvailableSeats();
+    }
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        AtomicInteger reservedSeats = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int seatsPerBooking = 1 + t % 3;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    try {
+                        Flights updated = flightService.reserveSeats(FLIGHT_ID, seatsPerBooking).block();
+                        assertTrue(updated.getAvailableSeats() >= 0);
+                        reservedSeats.addAndGet(seatsPerBooking);
+                    } catch (ValidationException ex) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> f : futures) {
+            f.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        int availableSeats = availableSeats();
+        assertTrue(availableSeats >= 0);
+        assertEquals(TOTAL_SEATS, reservedSeats.get() + availableSeats);
+        assertTrue(rejected.get() > 0);
+    }
+
+    @Test
+    void concurrentReserveAndReleaseKeepSeatCountConsistent() throws Exception {
+        AtomicInteger netReserved = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    try {
+                        flightService.reserveSeats(FLIGHT_ID, 2).block();
+                        netReserved.addAndGet(2);
+                        flightService.releaseSeats(FLIGHT_ID, 1).block();
+                        netReserved.addAndGet(-1);
+                    } catch (ValidationException ex) {
+                        // sold out, nothing changed
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> f : futures) {
+            f.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        int availableSeats = availableSeats();
+        assertEquals(TOTAL_SEATS, netReserved.get() + availableSeats);
+        assertTrue(availableSeats >= 0 && availableSeats <= TOTAL_SEATS);
+    }
+
+    @Test
+    void releaseBeyondTotalSeatsIsRejected() {
+        StepVerifier.create(flightService.releaseSeats(FLIGHT_ID, 1))
+                .expectError(ValidationException.class)
+                .verify();
+
+        assertEquals(TOTAL_SEATS, availableSeats());
+    }
+
+    @Test
+    void lastSeatsCanBeReservedAndReleasedExactly() {
+        StepVerifier.create(flightService.reserveSeats(FLIGHT_ID, TOTAL_SEATS))
+                .assertNext(flight -> assertEquals(0, flight.getAvailableSeats()))
+                .verifyComplete();
+        StepVerifier.create(flightService.reserveSeats(FLIGHT_ID, 1))
+                .expectError(ValidationException.class)
+                .verify();
+        StepVerifier.create(flightService.releaseSeats(FLIGHT_ID, TOTAL_SEATS))
+                .assertNext(flight -> assertEquals(TOTAL_SEATS, flight.getAvailableSeats()))
+                .verifyComplete();
+    }
+
+    @Test
+    void reserveOnUnknownFlightIsNotFound() {
+        StepVerifier.create(flightService.reserveSeats("MISSING", 1))
+                .expectError(ResourceNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void nonPositiveSeatCountIsRejectedWithoutTouchingTheStore() {
+        StepVerifier.create(flightService.reserveSeats(FLIGHT_ID, 0))
+                .expectError(ValidationException.class)
+                .verify();
+
+        assertEquals(TOTAL_SEATS, availableSeats());
+    }
+}
@@ -1,23 +1,41 @@
 package com.flightservice;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
 import com.flightservice.exceptions.ResourceNotFoundException;
 import com.flightservice.exceptions.ValidationException;
 import com.flightservice.model.Airline;
 import com.flightservice.model.Cities;
 import com.flightservice.model.Flights;
-import com.flightservice.model.Seats;
+import com.flightservice.model.SeatMap;
 import com.flightservice.repository.AirlineRepository;
 import com.flightservice.repository.FlightRepository;
-import com.flightservice.repository.SeatsRepository;
+import com.flightservice.repository.SeatMapRepository;
 import com.flightservice.request.AddAirlineRequest;
 import com.flightservice.request.AddFlightRequest;
+import com.flightservice.request.FlightListRequest;
+import com.flightservice.request.RecurringScheduleRequest;
+import com.flightservice.responses.BulkImportResult;
 import com.flightservice.service.AirlineService;
 import com.flightservice.service.FlightService;
+import com.flightservice.service.AirlineCatalog;
+import com.flightservice.service.RouteIndex;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.BsonDocument;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Range;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -40,12 +58,17 @@ class ServiceLayerTest {
     FlightRepository flightRepository;
 
     @Mock
-    SeatsRepository seatsRepository;
+    SeatMapRepository seatMapRepository;
+
+    @Mock
+    RouteIndex routeIndex;
+
+    @Mock
+    AirlineCatalog airlineCatalog;
 
     @InjectMocks
     AirlineService airlineService;
 
-    @InjectMocks
     FlightService flightService;
 
     AddAirlineRequest addAirlineRequest;
@@ -53,6 +76,7 @@ class ServiceLayerTest {
 
     @BeforeEach
     void setup() {
+        flightService = new FlightService(flightRepository, airlineService, seatMapRepository, routeIndex);
         addAirlineRequest = new AddAirlineRequest();
         addAirlineRequest.setAirlineCode("AI");
         addAirlineRequest.setAirlineName("Air India");
@@ -105,8 +129,60 @@ class ServiceLayerTest {
         when(airlineRepository.findAll()).thenReturn(Flux.just(new Airline()));
 
         StepVerifier.create(airlineService.getAllAirlines())
-                .expectNextCount(1)
+                .expectNextMatches(v -> v.getBody().size() == 1 && v.getVersion() == null)
+                .verifyComplete();
+    }
+
+    @Test
+    void getAllAirlines_fromCatalogOnceLoaded() {
+        Airline first = new Airline();
+        first.setAirlineCode("6E");
+        Airline second = new Airline();
+        second.setAirlineCode("AI");
+        AirlineCatalog.Snapshot catalog = AirlineCatalog.Snapshot.of(List.of(first, second));
+        when(airlineCatalog.snapshot()).thenReturn(catalog);
+
+        StepVerifier.create(airlineService.getAllAirlines())
+                .expectNextMatches(v -> v.getBody().size() == 2 && catalog.version().equals(v.getVersion()))
+                .verifyComplete();
+        verify(airlineRepository, never()).findAll();
+    }
+
+    @Test
+    void getAirline_fromCatalog() {
+        Airline airline = new Airline();
+        airline.setAirlineCode("AI");
+        when(airlineCatalog.find("AI")).thenReturn(Optional.of(airline));
+
+        StepVerifier.create(airlineService.getAirline("ai"))
+                .expectNextMatches(v -> v.getBody() == airline)
+                .verifyComplete();
+        verify(airlineRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void getAirline_fromSnapshotCarriesItsVersion() {
+        Airline airline = new Airline();
+        airline.setAirlineCode("AI");
+        AirlineCatalog.Snapshot catalog = AirlineCatalog.Snapshot.of(List.of(airline));
+        when(airlineCatalog.snapshot()).thenReturn(catalog);
+
+        StepVerifier.create(airlineService.getAirline("ai"))
+                .expectNextMatches(v -> v.getBody() == airline && catalog.version().equals(v.getVersion()))
+                .verifyComplete();
+        verify(airlineRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void getAirline_missGoesToDatabaseAndFillsCatalog() {
+        Airline airline = new Airline();
+        airline.setAirlineCode("AI");
+        when(airlineRepository.findById("AI")).thenReturn(Mono.just(airline));
+
+        StepVerifier.create(airlineService.getAirline("AI"))
+                .expectNextMatches(v -> v.getBody() == airline)
                 .verifyComplete();
+        verify(airlineCatalog).put(airline);
     }
 
     @Test
@@ -125,16 +201,152 @@ class ServiceLayerTest {
         saved.setTotalSeats(2);
 
         when(airlineRepository.findById("AI")).thenReturn(Mono.just(new Airline()));
-        when(flightRepository.findFirstByFlightNumberAndDepartureDate(any(), any()))
-                .thenReturn(Mono.empty());
         when(flightRepository.save(any())).thenReturn(Mono.just(saved));
-        when(seatsRepository.saveAll(anyList())).thenReturn(Flux.just(new Seats()));
 
         StepVerifier.create(flightService.addInventory(addFlightRequest))
                 .expectNextMatches(m -> m.get("flightId").equals("F1"))
                 .verifyComplete();
     }
 
+    @Test
+    void importInventory_reportsEveryRowAndWritesTheValidOnes() {
+        LocalDate day = LocalDate.now().plusDays(10);
+        when(airlineRepository.findById("AI")).thenReturn(Mono.just(new Airline()));
+        when(flightRepository.insertUnordered(any())).thenAnswer(invocation -> {
+            List<Flights> flights = invocation.getArgument(0);
+            assertEquals(List.of("AI101", "AI103", "AI104"), flights.stream().map(Flights::getFlightNumber).toList());
+            flights.forEach(flight -> flight.setFlightId("ID-" + flight.getFlightNumber()));
+            // AI103 is already in the database, AI104 was added by someone else meanwhile
+            return Mono.just(List.of(
+                    new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 1),
+                    new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 2)));
+        });
+
+        Flux<String> lines = Flux.just(
+                importLine("AI101", day, 4500),
+                "not json",
+                "",
+                importLine("AI101", day, 4500),
+                importLine("AI102", day, 0),
+                importLine("AI103", day, 4500),
+                importLine("AI104", day, 4500));
+
+        Map<Long, String> outcome = flightService.importInventory(lines)
+                .collectMap(BulkImportResult::getRow, r -> r.getError() == null ? r.getFlightId() : r.getError())
+                .block();
+
+        assertEquals(6, outcome.size());
+        assertEquals("ID-AI101", outcome.get(1L));
+        assertTrue(outcome.get(2L).startsWith("Malformed row"));
+        assertEquals("Flight appears more than once in this import", outcome.get(4L));
+        assertEquals("Price must be greater than 0", outcome.get(5L));
+        assertEquals("Flight already exists on this date", outcome.get(6L));
+        assertEquals("Flight already exists on this date", outcome.get(7L));
+        verify(routeIndex).put(argThat(flight -> "ID-AI101".equals(flight.getFlightId())));
+    }
+
+    @Test
+    void importInventory_chunkTheDatabaseRejectsIsReportedPerRow() {
+        LocalDate day = LocalDate.now().plusDays(10);
+        when(airlineRepository.findById("AI")).thenReturn(Mono.just(new Airline()));
+        when(flightRepository.insertUnordered(any())).thenReturn(Mono.error(new IllegalStateException("mongo down")));
+
+        StepVerifier.create(flightService.importInventory(Flux.just(importLine("AI101", day, 4500), "{}")))
+                .expectNextMatches(r -> r.getRow() == 2 && r.getError().equals("Airline code is required"))
+                .expectNextMatches(r -> r.getRow() == 1 && r.getError().equals("Could not be written: mongo down"))
+                .verifyComplete();
+    }
+
+    @Test
+    void addSchedule_expandsOperatingDaysAndSkipsExistingDates() {
+        LocalDate monday = LocalDate.now().plusDays(1).with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+        RecurringScheduleRequest req = scheduleRequest(monday, monday.plusDays(13));
+        req.setDaysOfWeek(Set.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY));
+        req.setArrivalDayOffset(1);
+        req.setArrivalTime(LocalTime.of(1, 30));
+        Flights existing = new Flights();
+        existing.setDepartureDate(monday);
+
+        when(airlineRepository.findById("AI")).thenReturn(Mono.just(new Airline()));
+        when(flightRepository.findByFlightNumberAndDepartureDateBetween("AI777", Range.closed(monday, monday.plusDays(13))))
+                .thenReturn(Flux.just(existing));
+        when(flightRepository.insertUnordered(any())).thenAnswer(invocation -> {
+            List<Flights> flights = invocation.getArgument(0);
+            assertEquals(5, flights.size());
+            flights.forEach(flight -> {
+                assertEquals(flight.getDepartureDate().plusDays(1), flight.getArrivalDate());
+                flight.setFlightId("ID-" + flight.getDepartureDate());
+            });
+            // the first Wednesday was written by someone else in the meantime
+            return Mono.just(List.of(new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 0)));
+        });
+
+        StepVerifier.create(flightService.addSchedule(req))
+                .assertNext(res -> {
+                    assertEquals(List.of(monday.plusDays(4), monday.plusDays(7), monday.plusDays(9), monday.plusDays(11)),
+                            List.copyOf(res.getCreated().keySet()));
+                    assertEquals("ID-" + monday.plusDays(4), res.getCreated().get(monday.plusDays(4)));
+                    assertEquals(List.of(monday, monday.plusDays(2)), res.getSkippedDates());
+                })
+                .verifyComplete();
+        verify(routeIndex, times(4)).put(any());
+    }
+
+    @Test
+    void addSchedule_rejectsRangeLongerThanAYear() {
+        LocalDate start = LocalDate.now().plusDays(1);
+
+        StepVerifier.create(flightService.addSchedule(scheduleRequest(start, start.plusDays(366))))
+                .expectErrorMessage("Schedule cannot cover more than 366 days")
+                .verify();
+        verify(flightRepository, never()).insertUnordered(any());
+    }
+
+    @Test
+    void addSchedule_rejectsScheduleWithoutDepartures() {
+        LocalDate monday = LocalDate.now().plusDays(1).with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+        RecurringScheduleRequest req = scheduleRequest(monday, monday.plusDays(1));
+        req.setDaysOfWeek(Set.of(DayOfWeek.SUNDAY));
+        when(airlineRepository.findById("AI")).thenReturn(Mono.just(new Airline()));
+
+        StepVerifier.create(flightService.addSchedule(req))
+                .expectError(ValidationException.class)
+                .verify();
+    }
+
+    private static RecurringScheduleRequest scheduleRequest(LocalDate start, LocalDate end) {
+        RecurringScheduleRequest req = new RecurringScheduleRequest();
+        req.setAirlineCode("AI");
+        req.setFlightNumber("AI777");
+        req.setSourceCity(Cities.DELHI);
+        req.setDestinationCity(Cities.MUMBAI);
+        req.setDepartureTime(LocalTime.of(22, 0));
+        req.setArrivalTime(LocalTime.of(23, 50));
+        req.setStartDate(start);
+        req.setEndDate(end);
+        req.setTotalSeats(180);
+        req.setPrice(4500f);
+        return req;
+    }
+
+    private static String importLine(String flightNumber, LocalDate day, int price) {
+        return "{\"airlineCode\":\"AI\",\"flightNumber\":\"" + flightNumber + "\",\"sourceCity\":\"DELHI\","
+                + "\"destinationCity\":\"MUMBAI\",\"departureDate\":\"" + day + "\",\"departureTime\":\"09:00\","
+                + "\"arrivalDate\":\"" + day + "\",\"arrivalTime\":\"11:00\",\"totalSeats\":180,\"price\":" + price + "}";
+    }
+
+    @Test
+    void addFlight_duplicateRejectedByUniqueIndex() {
+        when(airlineRepository.findById("AI")).thenReturn(Mono.just(new Airline()));
+        when(flightRepository.save(any())).thenReturn(Mono.error(new DuplicateKeyException("E11000 duplicate key")));
+
+        StepVerifier.create(flightService.addInventory(addFlightRequest))
+                .expectErrorMatches(ex -> ex instanceof ValidationException
+                        && ex.getMessage().equals("Flight already exists on this date"))
+                .verify();
+        verifyNoInteractions(routeIndex);
+    }
+
     @Test
     void getAllFlights() {
         when(flightRepository.findAll()).thenReturn(Flux.just(new Flights()));
@@ -143,4 +355,266 @@ class ServiceLayerTest {
                 .expectNextCount(1)
                 .verifyComplete();
     }
+
+    @Test
+    void listFlights_withoutParametersReturnsEverything() {
+        when(flightRepository.findAll()).thenReturn(Flux.just(new Flights()));
+
+        StepVerifier.create(flightService.listFlights(new FlightListRequest()))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        verify(flightRepository, never()).findPage(any(), any(), anyLong(), anyInt(), any());
+    }
+
+    @Test
+    void listFlights_keysetPageOfUpcomingFlights() {
+        FlightListRequest req = new FlightListRequest();
+        req.setAfter("665f0a1aa9e4b35d7c0e1e11");
+        req.setUpcomingOnly(true);
+        when(flightRepository.findPage(LocalDate.now(), "665f0a1aa9e4b35d7c0e1e11", 0L, 50, Set.of()))
+                .thenReturn(Flux.just(new Flights()));
+
+        StepVerifier.create(flightService.listFlights(req))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    @Test
+    void listFlights_offsetPage() {
+        FlightListRequest req = new FlightListRequest();
+        req.setPage(3);
+        req.setLimit(20);
+        when(flightRepository.findPage(null, null, 60L, 20, Set.of())).thenReturn(Flux.empty());
+
+        StepVerifier.create(flightService.listFlights(req))
+                .verifyComplete();
+    }
+
+    @Test
+    void listFlightFields_returnsOnlyRequestedFields() {
+        Flights flight = new Flights();
+        flight.setFlightId("F1");
+        flight.setAvailableSeats(7);
+        flight.setPrice(4000);
+        FlightListRequest req = new FlightListRequest();
+        req.setFields("availableSeats, flightId");
+        when(flightRepository.findPage(null, null, 0L, 0, Set.of("availableSeats", "flightId")))
+                .thenReturn(Flux.just(flight));
+
+        StepVerifier.create(flightService.listFlightFields(req))
+                .assertNext(values -> assertEquals(
+                        List.of(Map.entry("flightId", "F1"), Map.entry("availableSeats", 7)),
+                        List.copyOf(values.entrySet())))
+                .verifyComplete();
+    }
+
+    @Test
+    void listFlights_rejectsInvalidParameters() {
+        FlightListRequest both = new FlightListRequest();
+        both.setPage(1);
+        both.setAfter("665f0a1aa9e4b35d7c0e1e11");
+        FlightListRequest badCursor = new FlightListRequest();
+        badCursor.setAfter("not-an-id");
+        FlightListRequest tooLarge = new FlightListRequest();
+        tooLarge.setLimit(501);
+        FlightListRequest unknownField = new FlightListRequest();
+        unknownField.setFields("flightId,password");
+
+        for (FlightListRequest req : List.of(both, badCursor, tooLarge, unknownField)) {
+            StepVerifier.create(flightService.listFlights(req))
+                    .expectError(ValidationException.class)
+                    .verify();
+        }
+        verifyNoInteractions(flightRepository);
+    }
+
+    @Test
+    void getFlight_found() {
+        Flights flight = new Flights();
+        flight.setFlightId("F1");
+        when(flightRepository.findById("F1")).thenReturn(Mono.just(flight));
+
+        StepVerifier.create(flightService.getFlight("F1"))
+                .expectNextMatches(f -> f.getFlightId().equals("F1"))
+                .verifyComplete();
+    }
+
+    @Test
+    void getFlight_notFound() {
+        when(flightRepository.findById("F404")).thenReturn(Mono.empty());
+
+        StepVerifier.create(flightService.getFlight("F404"))
+                .expectError(ResourceNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void getFlights_singleQueryForDistinctIds() {
+        Flights first = new Flights();
+        first.setFlightId("F1");
+        Flights second = new Flights();
+        second.setFlightId("F2");
+        when(flightRepository.findAllById(Set.of("F1", "F2"))).thenReturn(Flux.just(first, second));
+
+        StepVerifier.create(flightService.getFlights(List.of("F1", "F2", "F1")))
+                .expectNextCount(2)
+                .verifyComplete();
+
+        verify(flightRepository, times(1)).findAllById(Set.of("F1", "F2"));
+    }
+
+    @Test
+    void getFlights_requiresIds() {
+        StepVerifier.create(flightService.getFlights(List.of()))
+                .expectError(ValidationException.class)
+                .verify();
+    }
+
+    @Test
+    void addFlight_writesNoSeatMap() {
+        Flights saved = new Flights();
+        saved.setFlightId("F1");
+        saved.setTotalSeats(130);
+
+        when(airlineRepository.findById("AI")).thenReturn(Mono.just(new Airline()));
+        when(flightRepository.save(any())).thenReturn(Mono.just(saved));
+
+        StepVerifier.create(flightService.addInventory(addFlightRequest))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        verifyNoInteractions(seatMapRepository);
+    }
+
+    @Test
+    void getSeatMap_allFreeBeforeFirstBooking() {
+        Flights flight = new Flights();
+        flight.setFlightId("F1");
+        flight.setTotalSeats(3);
+        when(seatMapRepository.findById("F1")).thenReturn(Mono.empty());
+        when(flightRepository.findById("F1")).thenReturn(Mono.just(flight));
+
+        StepVerifier.create(flightService.getSeatMap("F1"))
+                .assertNext(res -> {
+                    assertEquals(3, res.getTotalSeats());
+                    assertEquals(List.of(), res.getBookedSeats());
+                    assertEquals(List.of("S1", "S2", "S3"), res.getAvailableSeats());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void bookSeats_firstBookingStoresTheSeatMap() {
+        Flights flight = new Flights();
+        flight.setFlightId("F1");
+        flight.setTotalSeats(180);
+        SeatMap updated = SeatMap.empty("F1", 180);
+        updated.getBooked()[0] = 1L;
+        when(seatMapRepository.bookSeats("F1", Set.of(0)))
+                .thenReturn(Mono.empty())
+                .thenReturn(Mono.just(updated));
+        when(seatMapRepository.existsById("F1")).thenReturn(Mono.just(false));
+        when(flightRepository.findById("F1")).thenReturn(Mono.just(flight));
+        when(seatMapRepository.createIfAbsent("F1", 180)).thenReturn(Mono.empty());
+
+        StepVerifier.create(flightService.bookSeats("F1", List.of("S1")))
+                .expectNextMatches(res -> res.getBookedSeats().equals(List.of("S1")))
+                .verifyComplete();
+
+        verify(seatMapRepository, times(2)).bookSeats("F1", Set.of(0));
+    }
+
+    @Test
+    void getSeatMap_listsBookedAndAvailableSeats() {
+        SeatMap seatMap = SeatMap.empty("F1", 4);
+        seatMap.getBooked()[0] = 0b0101;
+        when(seatMapRepository.findById("F1")).thenReturn(Mono.just(seatMap));
+
+        StepVerifier.create(flightService.getSeatMap("F1"))
+                .assertNext(res -> {
+                    assertEquals(List.of("S1", "S3"), res.getBookedSeats());
+                    assertEquals(List.of("S2", "S4"), res.getAvailableSeats());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void bookSeats_sendsZeroBasedIndexes() {
+        SeatMap updated = SeatMap.empty("F1", 100);
+        updated.getBooked()[1] = 1L;
+        when(seatMapRepository.bookSeats("F1", Set.of(64, 0))).thenReturn(Mono.just(updated));
+
+        StepVerifier.create(flightService.bookSeats("F1", List.of("S65", "S1", "S65")))
+                .expectNextMatches(res -> res.getBookedSeats().equals(List.of("S65")))
+                .verifyComplete();
+    }
+
+    @Test
+    void bookSeats_alreadyBooked() {
+        when(seatMapRepository.bookSeats(eq("F1"), any())).thenReturn(Mono.empty());
+        when(seatMapRepository.existsById("F1")).thenReturn(Mono.just(true));
+        when(seatMapRepository.findById("F1")).thenReturn(Mono.just(SeatMap.empty("F1", 10)));
+
+        StepVerifier.create(flightService.bookSeats("F1", List.of("S2")))
+                .expectErrorMessage("One or more seats are already booked")
+                .verify();
+    }
+
+    @Test
+    void bookSeats_seatNotOnFlight() {
+        when(seatMapRepository.bookSeats(eq("F1"), any())).thenReturn(Mono.empty());
+        when(seatMapRepository.existsById("F1")).thenReturn(Mono.just(true));
+        when(seatMapRepository.findById("F1")).thenReturn(Mono.just(SeatMap.empty("F1", 10)));
+
+        StepVerifier.create(flightService.bookSeats("F1", List.of("S11")))
+                .expectErrorMessage("Seat S11 does not exist on this flight")
+                .verify();
+    }
+
+    @Test
+    void bookSeats_rejectsInvalidSeatNumbers() {
+        StepVerifier.create(flightService.bookSeats("F1", List.of("12A")))
+                .expectError(ValidationException.class)
+                .verify();
+
+        verifyNoInteractions(seatMapRepository);
+    }
+
+    @Test
+    void bookSeats_missingFlight() {
+        when(seatMapRepository.bookSeats(eq("F9"), any())).thenReturn(Mono.empty());
+        when(seatMapRepository.existsById("F9")).thenReturn(Mono.just(false));
+        when(flightRepository.findById("F9")).thenReturn(Mono.empty());
+
+        StepVerifier.create(flightService.bookSeats("F9", List.of("S1")))
+                .expectError(ResourceNotFoundException.class)
+                .verify();
+
+        verify(seatMapRepository, never()).createIfAbsent(any(), anyInt());
+    }
+
+    @Test
+    void releaseSeatNumbers_nothingBookedYet() {
+        Flights flight = new Flights();
+        flight.setTotalSeats(10);
+        when(seatMapRepository.releaseSeats(eq("F1"), any())).thenReturn(Mono.empty());
+        when(seatMapRepository.findById("F1")).thenReturn(Mono.empty());
+        when(flightRepository.findById("F1")).thenReturn(Mono.just(flight));
+
+        StepVerifier.create(flightService.releaseSeatNumbers("F1", List.of("S1")))
+                .expectErrorMessage("One or more seats are not booked")
+                .verify();
+    }
+
+    @Test
+    void releaseSeatNumbers_missingFlight() {
+        when(seatMapRepository.releaseSeats(eq("F9"), any())).thenReturn(Mono.empty());
+        when(seatMapRepository.findById("F9")).thenReturn(Mono.empty());
+        when(flightRepository.findById("F9")).thenReturn(Mono.empty());
+
+        StepVerifier.create(flightService.releaseSeatNumbers("F9", List.of("S1")))
+                .expectError(ResourceNotFoundException.class)
+                .verify();
+    }
 }
@@ -0,0 +1,115 @@
+package com.flightservice.benchmark;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.flightservice.model.Cities;
+import com.flightservice.model.Flights;
+import com.flightservice.responses.Itinerary;
+import com.flightservice.service.ItineraryPlanner;
+import com.flightservice.service.RouteIndex;
+
+/**
+ * Connection search over a month of inventory held in the route index: every
+ * route flown {@code flightsPerRouteDay} times a day for 30 days. The
+ * inventory comes from a fixed seed so every run searches the same month.
+ * Sample time mode reports p99 next to the mean.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConnectionSearchBenchmark {
+
+    private static final int DAYS = 30;
+    private static final Cities[] CITIES = Cities.values();
+    private static final LocalDate FIRST_DAY = LocalDate.of(2030, 1, 1);
+    private static final long SEED = 42;
+
+    @Param({"2", "6"})
+    public int flightsPerRouteDay;
+
+    private ItineraryPlanner planner;
+
+    @Setup
+    public void setup() {
+        RouteIndex routeIndex = new RouteIndex(null);
+        Random random = new Random(SEED);
+        int id = 0;
+        for (int day = 0; day < DAYS; day++) {
+            for (Cities source : CITIES) {
+                for (Cities destination : CITIES) {
+                    if (source == destination) {
+                        continue;
+                    }
+                    for (int i = 0; i < flightsPerRouteDay; i++) {
+                        routeIndex.put(flight(id++, source, destination, FIRST_DAY.plusDays(day),
+                                LocalTime.of(random.nextInt(22), random.nextInt(4) * 15), 60 + random.nextInt(180)));
+                    }
+                }
+            }
+        }
+        planner = new ItineraryPlanner(routeIndex, Duration.ofMinutes(45), Duration.ofHours(12), 50);
+    }
+
+    @Benchmark
+    public List<Itinerary> oneStop() {
+        return search(1);
+    }
+
+    @Benchmark
+    public List<Itinerary> twoStops() {
+        return search(2);
+    }
+
+    private List<Itinerary> search(int maxStops) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int source = random.nextInt(CITIES.length);
+        int destination = (source + 1 + random.nextInt(CITIES.length - 1)) % CITIES.length;
+        return planner.plan(CITIES[source], CITIES[destination], FIRST_DAY.plusDays(random.nextInt(DAYS - 1)),
+                maxStops);
+    }
+
+    private static Flights flight(int id, Cities source, Cities destination, LocalDate day, LocalTime departure,
+                                  int minutes) {
+        Flights flight = new Flights();
+        flight.setFlightId("F" + id);
+        flight.setSourceCity(source);
+        flight.setDestinationCity(destination);
+        flight.setDepartureDate(day);
+        flight.setDepartureTime(departure);
+        LocalTime arrival = departure.plusMinutes(minutes);
+        flight.setArrivalDate(arrival.isBefore(departure) ? day.plusDays(1) : day);
+        flight.setArrivalTime(arrival);
+        flight.setPrice(3000 + id % 5000);
+        flight.setAvailableSeats(180);
+        return flight;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(ConnectionSearchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,185 @@
+package com.flightservice.benchmark;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.Range;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+
+import com.flightservice.model.Cities;
+import com.flightservice.model.Flights;
+import com.flightservice.repository.FlightRepository;
+import com.flightservice.repository.FlightRepositoryCustomImpl;
+import com.mongodb.ConnectionString;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import reactor.core.publisher.Flux;
+
+/**
+ * Flight search over 300k flights, with and without the indexes declared on
+ * {@link Flights}. Sample time mode reports p99 next to the mean. Point it at
+ * a MongoDB server with
+ * {@code -Dbenchmark.mongo.uri=mongodb://host:27017/flightBenchmark}; the
+ * collection is seeded on first run and reused afterwards. Without a URI it
+ * runs against an in-process mongo-java-server, which checks the benchmark
+ * end to end but does not plan queries like MongoDB, so only a real server
+ * says anything about the indexes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FlightSearchBenchmark {
+
+    private static final int FLIGHTS = 300_000;
+    private static final int DAYS = 180;
+    private static final int FLEXIBLE_DAYS = 3;
+    private static final Cities[] CITIES = Cities.values();
+    private static final LocalDate FIRST_DAY = LocalDate.of(2030, 1, 1);
+    private static final String URI = System.getProperty("benchmark.mongo.uri");
+
+    @Param({"false", "true"})
+    public boolean indexed;
+
+    private MongoServer server;
+    private MongoClient client;
+    private FlightRepository repository;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        String uri = URI;
+        if (uri == null) {
+            server = new MongoServer(new MemoryBackend());
+            uri = server.bindAndGetConnectionString() + "/flightBenchmark";
+        }
+        client = MongoClients.create(uri);
+        ReactiveMongoTemplate template =
+                new ReactiveMongoTemplate(client, new ConnectionString(uri).getDatabase());
+        repository = new ReactiveMongoRepositoryFactory(template).getRepository(FlightRepository.class,
+                RepositoryFragments.just(new FlightRepositoryCustomImpl(template)));
+
+        if (template.count(new Query(), Flights.class).block() < FLIGHTS) {
+            template.dropCollection(Flights.class).block();
+            Flux.range(0, FLIGHTS)
+                    .map(FlightSearchBenchmark::flight)
+                    .buffer(10_000)
+                    .concatMap(batch -> template.insert(batch, Flights.class))
+                    .blockLast();
+        }
+
+        ReactiveIndexOperations indexOps = template.indexOps(Flights.class);
+        indexOps.dropAllIndexes().block();
+        if (indexed) {
+            new MongoPersistentEntityIndexResolver(template.getConverter().getMappingContext())
+                    .resolveIndexFor(Flights.class)
+                    .forEach(index -> indexOps.ensureIndex(index).block());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        if (server != null) {
+            server.shutdown();
+        }
+    }
+
+    @Benchmark
+    public Long search() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int source = random.nextInt(CITIES.length);
+        int destination = (source + 1 + random.nextInt(CITIES.length - 1)) % CITIES.length;
+        return repository.findBySourceCityAndDestinationCityAndDepartureDate(
+                        CITIES[source], CITIES[destination], FIRST_DAY.plusDays(random.nextInt(DAYS)))
+                .count()
+                .block();
+    }
+
+    // a week either side of the travel date, one query per day as clients did before
+    @Benchmark
+    public Long flexibleWeekPerDay() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int source = random.nextInt(CITIES.length);
+        int destination = (source + 1 + random.nextInt(CITIES.length - 1)) % CITIES.length;
+        LocalDate travel = FIRST_DAY.plusDays(FLEXIBLE_DAYS + random.nextInt(DAYS - 2 * FLEXIBLE_DAYS));
+        long found = 0;
+        for (int day = -FLEXIBLE_DAYS; day <= FLEXIBLE_DAYS; day++) {
+            found += repository.findBySourceCityAndDestinationCityAndDepartureDate(
+                    CITIES[source], CITIES[destination], travel.plusDays(day)).count().block();
+        }
+        return found;
+    }
+
+    // the same window as one range scan
+    @Benchmark
+    public Long flexibleWeekRange() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int source = random.nextInt(CITIES.length);
+        int destination = (source + 1 + random.nextInt(CITIES.length - 1)) % CITIES.length;
+        LocalDate travel = FIRST_DAY.plusDays(FLEXIBLE_DAYS + random.nextInt(DAYS - 2 * FLEXIBLE_DAYS));
+        return repository.findBySourceCityAndDestinationCityAndDepartureDateBetween(CITIES[source],
+                        CITIES[destination], Range.closed(travel.minusDays(FLEXIBLE_DAYS), travel.plusDays(FLEXIBLE_DAYS)))
+                .count()
+                .block();
+    }
+
+    private static Flights flight(int i) {
+        Cities source = CITIES[i % CITIES.length];
+        Cities destination = CITIES[(i / CITIES.length + i + 1) % CITIES.length];
+        if (destination == source) {
+            destination = CITIES[(source.ordinal() + 1) % CITIES.length];
+        }
+        LocalDate day = FIRST_DAY.plusDays(i % DAYS);
+
+        Flights flight = new Flights();
+        flight.setFlightNumber(flightNumber(i));
+        flight.setAirlineCode("AI");
+        flight.setSourceCity(source);
+        flight.setDestinationCity(destination);
+        flight.setDepartureDate(day);
+        flight.setDepartureTime(LocalTime.of(i % 24, 0));
+        flight.setArrivalDate(day);
+        flight.setArrivalTime(LocalTime.of(i % 24, 50));
+        flight.setTotalSeats(180);
+        flight.setAvailableSeats(180);
+        flight.setPrice(3000 + i % 5000);
+        return flight;
+    }
+
+    private static String flightNumber(int i) {
+        return "FL" + (i / DAYS);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(FlightSearchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}